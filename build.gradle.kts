@@ -19,6 +19,8 @@ dependencies {
     implementation("com.fasterxml.jackson.core:jackson-databind:2.15.2")
     implementation("com.fasterxml.jackson.core:jackson-core:2.15.2")
     implementation("com.fasterxml.jackson.core:jackson-annotations:2.15.2")
+    implementation("com.fasterxml.jackson.dataformat:jackson-dataformat-smile:2.15.2")
+    implementation("com.fasterxml.jackson.dataformat:jackson-dataformat-cbor:2.15.2")
 
     // Utilities
     implementation("org.apache.commons:commons-lang3:3.13.0")
@@ -28,6 +30,7 @@ dependencies {
     testImplementation("junit:junit:4.13.2")
     testImplementation("org.mockito:mockito-core:5.5.0")
 }
+
 // Configure Gradle IntelliJ Plugin
 // Read more: https://plugins.jetbrains.com/docs/intellij/tools-gradle-intellij-plugin.html
 intellij {
@@ -65,5 +68,14 @@ tasks {
     publishPlugin {
         token.set(System.getenv("PUBLISH_TOKEN"))
     }
+
+    // ./gradlew loadHarness -PharnessArgs="--uploads 1000 --format smile"
+    register<JavaExec>("loadHarness") {
+        group = "verification"
+        description = "Measures the upload paths against an embedded mock microservice"
+        classpath = sourceSets["test"].runtimeClasspath
+        mainClass.set("org.zenith.graphnet.tools.LoadHarness")
+        args = (project.findProperty("harnessArgs") as String?)?.split(" ")?.filter { it.isNotBlank() } ?: emptyList()
+    }
 }
 
@@ -6,6 +6,7 @@ import com.intellij.openapi.wm.ToolWindow;
 import com.intellij.openapi.wm.ToolWindowManager;
 import org.zenith.graphnet.service.DependencyAnalysisService;
 import org.zenith.graphnet.service.GraphNetSettingsService;
+import org.zenith.graphnet.service.UploadOutbox;
 import kotlin.Unit;
 import kotlin.coroutines.Continuation;
 import org.jetbrains.annotations.NotNull;
@@ -23,7 +24,11 @@ public class ProjectStartupActivity implements ProjectActivity {
             DependencyAnalysisService analysisService = DependencyAnalysisService.getInstance(project);
             GraphNetSettingsService settingsService = GraphNetSettingsService.getInstance();
 
-            // Initialize dependency analysis if auto-analysis is enabled
+            // Deliver uploads left over from earlier sessions
+            UploadOutbox.getInstance(project).start();
+
+            // Start the dependency analysis in the background if auto-analysis is enabled;
+            // the tool window joins it instead of starting one of its own
             if (settingsService.isAutoAnalysisEnabled()) {
                 analysisService.initialize();
             }
@@ -0,0 +1,33 @@
+package org.zenith.graphnet.api;
+
+import org.zenith.graphnet.model.GitDiffData;
+
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Extension point interface for non-blocking microservice communication.
+ * The returned futures complete on a network thread; cancelling one aborts its request.
+ */
+public interface AsyncMicroserviceCommunicator extends MicroserviceCommunicator {
+
+    /**
+     * Send dependency graph to microservice without blocking the caller
+     */
+    CompletableFuture<Void> sendDependencyGraphAsync();
+
+    /**
+     * Send an exported dependency graph file to microservice without blocking the caller
+     */
+    CompletableFuture<Void> sendDependencyGraphAsync(Path graphFile);
+
+    /**
+     * Send git diff data to microservice without blocking the caller
+     */
+    CompletableFuture<Void> sendGitDiffAsync(GitDiffData diffData);
+
+    /**
+     * Test connection to microservice without blocking the caller
+     */
+    CompletableFuture<Boolean> testConnectionAsync();
+}
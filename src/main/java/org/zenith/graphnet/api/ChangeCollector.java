@@ -0,0 +1,48 @@
+package org.zenith.graphnet.api;
+
+import org.jetbrains.annotations.Nullable;
+import org.zenith.graphnet.model.ChangedFile;
+import org.zenith.graphnet.model.RepositoryState;
+import org.zenith.graphnet.util.DiffBudget;
+
+import java.util.List;
+
+/**
+ * Extension point interface for collecting changed files from version control
+ */
+public interface ChangeCollector {
+
+    /**
+     * Get the name of this collector
+     */
+    String getName();
+
+    /**
+     * Check if this collector can be used for the current project
+     */
+    boolean isAvailable();
+
+    /**
+     * Collect the changed files including their diffs.
+     * With a null base revision the working tree changes are collected,
+     * otherwise the changes between the base revision and HEAD.
+     * Patch text beyond the budget is dropped hunk by hunk.
+     */
+    List<ChangedFile> collectChanges(@Nullable String baseRevision, DiffBudget budget) throws Exception;
+
+    /**
+     * Collect a per-file summary of the changes (path, status, line counts) without patch text
+     */
+    List<ChangedFile> collectSummary(@Nullable String baseRevision) throws Exception;
+
+    /**
+     * Load the patch text for files previously returned by {@link #collectSummary(String)}, within the budget
+     */
+    void loadDiffs(List<ChangedFile> files, @Nullable String baseRevision, DiffBudget budget) throws Exception;
+
+    /**
+     * Read the current branch, HEAD commit and author. The merge-base of HEAD with the target branch
+     * is only looked up when a target branch is given, and left null if that branch does not exist.
+     */
+    RepositoryState readRepositoryState(@Nullable String targetBranch) throws Exception;
+}
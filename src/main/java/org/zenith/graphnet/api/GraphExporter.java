@@ -0,0 +1,27 @@
+package org.zenith.graphnet.api;
+
+import org.zenith.graphnet.model.DependencyGraph;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Extension point interface for writing the dependency graph in a diagram format
+ */
+public interface GraphExporter {
+
+    /**
+     * Get the name of this format
+     */
+    String getName();
+
+    /**
+     * Check if this exporter handles files with the given name
+     */
+    boolean accepts(String fileName);
+
+    /**
+     * Write the graph to the writer as it is walked, without building the document in memory
+     */
+    void export(DependencyGraph graph, Writer out) throws IOException;
+}
@@ -0,0 +1,24 @@
+package org.zenith.graphnet.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Extension point interface for the wire format of uploaded payloads
+ */
+public interface PayloadFormat {
+
+    /**
+     * Get the name of this format as used in the settings
+     */
+    String getName();
+
+    /**
+     * Get the media type sent as Content-Type
+     */
+    String getMediaType();
+
+    /**
+     * Get the mapper that reads and writes this format
+     */
+    ObjectMapper getObjectMapper();
+}
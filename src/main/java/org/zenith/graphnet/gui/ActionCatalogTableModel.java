@@ -0,0 +1,107 @@
+package org.zenith.graphnet.gui;
+
+import org.jetbrains.annotations.Nullable;
+import org.zenith.graphnet.util.ActionCatalog;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.List;
+
+/**
+ * Table model over an {@link ActionCatalog}. Rows are indices into the catalog, so filtering
+ * copies no entries and fires a single table event. A query that extends the previous one only
+ * narrows the rows already shown instead of scanning the whole catalog again.
+ */
+public class ActionCatalogTableModel extends AbstractTableModel {
+
+    private static final String[] COLUMNS = {"Action ID", "Description", "Available"};
+
+    private List<ActionCatalog.Entry> entries = List.of();
+    private int[] rows = new int[0];
+    private int rowCount;
+    // Nothing is shown until a category is picked
+    private @Nullable ActionCatalog.Category category;
+    private String query = "";
+
+    public void setCatalog(ActionCatalog catalog) {
+        entries = catalog.getEntries();
+        rows = new int[entries.size()];
+        refilter(false);
+    }
+
+    public void setCategory(@Nullable ActionCatalog.Category category) {
+        this.category = category;
+        refilter(false);
+    }
+
+    public void setQuery(String query) {
+        String previous = this.query;
+        this.query = query;
+        refilter(query.startsWith(previous));
+    }
+
+    public @Nullable ActionCatalog.Category getCategory() {
+        return category;
+    }
+
+    public int getCatalogSize() {
+        return entries.size();
+    }
+
+    public ActionCatalog.Entry getEntry(int row) {
+        return entries.get(rows[row]);
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return column == 2 ? Boolean.class : String.class;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        ActionCatalog.Entry entry = getEntry(row);
+        return switch (column) {
+            case 0 -> entry.id();
+            case 1 -> entry.description();
+            default -> entry.available();
+        };
+    }
+
+    private void refilter(boolean narrow) {
+        if (category == null) {
+            rowCount = 0;
+            fireTableDataChanged();
+            return;
+        }
+
+        String[] terms = ActionCatalog.searchTerms(query);
+        int count = 0;
+        if (narrow) {
+            // Rows are compacted in place, the matches of a longer query are a subset of the current ones
+            for (int i = 0; i < rowCount; i++) {
+                if (entries.get(rows[i]).matches(terms)) rows[count++] = rows[i];
+            }
+        } else {
+            for (int index = 0; index < entries.size(); index++) {
+                ActionCatalog.Entry entry = entries.get(index);
+                if (entry.in(category) && entry.matches(terms)) rows[count++] = index;
+            }
+        }
+        rowCount = count;
+        fireTableDataChanged();
+    }
+}
@@ -1,49 +1,71 @@
 package org.zenith.graphnet.gui;
 
 import com.intellij.ide.DataManager;
+import com.intellij.openapi.Disposable;
 import com.intellij.openapi.actionSystem.*;
 import com.intellij.openapi.actionSystem.impl.SimpleDataContext;
 import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.fileEditor.FileEditorManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.ui.Messages;
 import com.intellij.openapi.vfs.LocalFileSystem;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiDirectory;
 import com.intellij.psi.PsiManager;
+import com.intellij.ui.DocumentAdapter;
+import com.intellij.ui.SearchTextField;
 import com.intellij.ui.components.JBScrollPane;
 import com.intellij.ui.components.JBTabbedPane;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.zenith.graphnet.impl.HttpMicroserviceCommunicator;
+import org.zenith.graphnet.model.TestSelection;
 import org.zenith.graphnet.service.DependencyAnalysisService;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.event.DocumentEvent;
 import java.awt.*;
 import java.io.File;
+import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import com.intellij.ui.table.JBTable;
+import org.zenith.graphnet.util.ActionCatalog;
 import org.zenith.graphnet.util.DiagramAutomationWithExportUtil;
+import org.zenith.graphnet.util.GraphBatchExporter;
 
 public class DependencyToolWindowContent {
+    private static final String GRAPH_EXPORT_FILE_NAME = "dependency-graph.md";
+    private static final String MODULE_EXPORT_DIRECTORY = ".graphnet/diagrams";
+
     private final JPanel contentPanel;
     private final Project project;
+    private final Disposable parentDisposable;
     private final DependencyAnalysisService service;
     private final JTextArea outputArea;
     private final JTable actionTable;
-    private final DefaultTableModel tableModel;
+    private final ActionCatalogTableModel actionTableModel;
+    private final JLabel actionStatusLabel;
+    private CompletableFuture<ActionCatalog> actionCatalog;
 
-    public DependencyToolWindowContent(Project project) {
+    public DependencyToolWindowContent(Project project, Disposable parentDisposable) {
         this.project = project;
+        this.parentDisposable = parentDisposable;
         this.service = DependencyAnalysisService.getInstance(project);
         this.contentPanel = new JPanel(new BorderLayout());
         this.outputArea = new JTextArea();
 
         // Initialize table for discovered actions
-        this.tableModel = new DefaultTableModel(new String[]{"Action ID", "Description", "Available"}, 0);
-        this.actionTable = new JBTable(tableModel);
+        this.actionTableModel = new ActionCatalogTableModel();
+        this.actionTable = new JBTable(actionTableModel);
+        this.actionStatusLabel = new JLabel(" ");
 
         initializeUI();
     }
@@ -56,7 +78,10 @@ public class DependencyToolWindowContent {
         JPanel dependencyPanel = createDependencyPanel();
         tabbedPane.addTab("Dependency Analysis", dependencyPanel);
 
-        // Tab 2: Action Discovery
+        // Tab 2: Impact Explorer
+        tabbedPane.addTab("Impact Explorer", new ImpactExplorerPanel(project, parentDisposable));
+
+        // Tab 3: Action Discovery
         JPanel actionDiscoveryPanel = createActionDiscoveryPanel();
         tabbedPane.addTab("Action Discovery", actionDiscoveryPanel);
 
@@ -75,16 +100,28 @@ public class DependencyToolWindowContent {
         JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
 
         JButton analyzeButton = new JButton("Create Dependency Graph");
-        analyzeButton.addActionListener(e -> showDiagramForHardcodedPath());
+        analyzeButton.addActionListener(e -> exportDependencyGraph());
+
+        JButton exportModulesButton = new JButton("Export All Modules");
+        exportModulesButton.addActionListener(e -> exportAllModules());
+
+        JButton diagramButton = new JButton("Open UML Diagram");
+        diagramButton.addActionListener(e -> showDiagramForHardcodedPath());
 
         JButton gitDiffButton = new JButton("Send Git Diff");
         gitDiffButton.addActionListener(e -> sendGitDiff());
 
+        JButton impactedTestsButton = new JButton("Select Impacted Tests");
+        impactedTestsButton.addActionListener(e -> showImpactedTests());
+
         JButton clearButton = new JButton("Clear");
         clearButton.addActionListener(e -> outputArea.setText(""));
 
         buttonPanel.add(analyzeButton);
+        buttonPanel.add(exportModulesButton);
+        buttonPanel.add(diagramButton);
         buttonPanel.add(gitDiffButton);
+        buttonPanel.add(impactedTestsButton);
         buttonPanel.add(clearButton);
 
         // Output area
@@ -104,12 +141,19 @@ public class DependencyToolWindowContent {
         outputArea.setText("GraphNet Dependency Analysis Tool\n");
         outputArea.append("Project: " + project.getName() + "\n");
 
-        service.triggerAnalysis();
-        Map<String, Object> stats = service.getStatistics();
+        // Partial results are reported as they are published, statistics once the analysis is complete
+        service.addAnalysisListener((parsedFiles, totalFiles, complete) -> ApplicationManager.getApplication().invokeLater(() -> {
+            if (!complete) {
+                outputArea.append("Analyzed " + parsedFiles + " of " + totalFiles + " files...\n");
+                return;
+            }
 
-        for (Map.Entry<String, Object> entry : stats.entrySet()) {
-            outputArea.append(entry.getKey() + ": " + entry.getValue() + "\n");
-        }
+            Map<String, Object> stats = service.getStatistics();
+            for (Map.Entry<String, Object> entry : stats.entrySet()) {
+                outputArea.append(entry.getKey() + ": " + entry.getValue() + "\n");
+            }
+        }), parentDisposable);
+        service.analyzeDependenciesAsync();
 
         return panel;
     }
@@ -126,21 +170,33 @@ public class DependencyToolWindowContent {
         JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
 
         JButton discoverAllButton = new JButton("Discover All Actions");
-        discoverAllButton.addActionListener(e -> discoverAllActions());
+        discoverAllButton.addActionListener(e -> showActions(ActionCatalog.Category.ALL));
 
         JButton discoverDiagramButton = new JButton("Find Diagram Actions");
-        discoverDiagramButton.addActionListener(e -> discoverDiagramActions());
+        discoverDiagramButton.addActionListener(e -> showActions(ActionCatalog.Category.DIAGRAM));
 
         JButton discoverUMLButton = new JButton("Find UML Actions");
-        discoverUMLButton.addActionListener(e -> discoverUMLActions());
+        discoverUMLButton.addActionListener(e -> showActions(ActionCatalog.Category.UML));
+
+        SearchTextField filterField = new SearchTextField(false);
+        filterField.addDocumentListener(new DocumentAdapter() {
+            @Override
+            protected void textChanged(@NotNull DocumentEvent e) {
+                actionTableModel.setQuery(filterField.getText());
+                updateActionStatus();
+            }
+        });
 
         JButton clearTableButton = new JButton("Clear Table");
-        clearTableButton.addActionListener(e -> tableModel.setRowCount(0));
+        clearTableButton.addActionListener(e -> showActions(null));
 
         buttonPanel.add(discoverAllButton);
         buttonPanel.add(discoverDiagramButton);
         buttonPanel.add(discoverUMLButton);
         buttonPanel.add(clearTableButton);
+        buttonPanel.add(new JLabel("Filter:"));
+        buttonPanel.add(filterField);
+        buttonPanel.add(actionStatusLabel);
 
         // Table for discovered actions
         actionTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
@@ -176,137 +232,34 @@ public class DependencyToolWindowContent {
         // 4. Add the single container panel to the SOUTH of the main panel.
         panel.add(southContainer, BorderLayout.SOUTH);
 
-        return panel;
-    }
-
-    private void discoverAllActions() {
-        tableModel.setRowCount(0);
-
-        try {
-            ActionManager actionManager = ActionManager.getInstance();
-            String[] actionIds = actionManager.getActionIds("");
-
-            Arrays.sort(actionIds);
-
-            for (String actionId : actionIds) {
-                AnAction action = actionManager.getAction(actionId);
-                String description = action != null ? getActionDescription(action) : "N/A";
-                boolean available = action != null;
-
-                tableModel.addRow(new Object[]{actionId, description, available});
+        // The catalog is read once in the background, the buttons only filter it
+        actionCatalog = CompletableFuture.supplyAsync(ActionCatalog::build, AppExecutorUtil.getAppExecutorService());
+        actionCatalog.whenComplete((catalog, error) -> ApplicationManager.getApplication().invokeLater(() -> {
+            if (error != null) {
+                actionStatusLabel.setText("Error discovering actions: " + rootCause(error).getMessage());
+                return;
             }
+            actionTableModel.setCatalog(catalog);
+            updateActionStatus();
+        }));
 
-            Messages.showInfoMessage(project,
-                    "Discovered " + actionIds.length + " total actions",
-                    "Action Discovery");
-
-        } catch (Exception e) {
-            Messages.showErrorDialog(project,
-                    "Error discovering actions: " + e.getMessage(),
-                    "Error");
-        }
+        return panel;
     }
 
-    private void discoverDiagramActions() {
-        tableModel.setRowCount(0);
-
-        try {
-            ActionManager actionManager = ActionManager.getInstance();
-            String[] actionIds = actionManager.getActionIds("");
-
-            List<String> diagramActions = new ArrayList<>();
-
-            for (String actionId : actionIds) {
-                String lowerActionId = actionId.toLowerCase();
-                if (lowerActionId.contains("diagram") ||
-                        lowerActionId.contains("dependency") ||
-                        lowerActionId.contains("dependencies") ||
-                        lowerActionId.contains("graph") ||
-                        lowerActionId.contains("visualize") ||
-                        lowerActionId.contains("provider") ||
-                        lowerActionId.contains("show") && (lowerActionId.contains("structure") || lowerActionId.contains("hierarchy"))) {
-                    System.out.println("ActionId: " + actionId);
-
-                    diagramActions.add(actionId);
-                }
-            }
-
-            diagramActions.sort(String::compareToIgnoreCase);
-
-            for (String actionId : diagramActions) {
-                AnAction action = actionManager.getAction(actionId);
-                String description = action != null ? getActionDescription(action) : "N/A";
-                boolean available = action != null;
-
-                tableModel.addRow(new Object[]{actionId, description, available});
-            }
-
-            Messages.showInfoMessage(project,
-                    "Found " + diagramActions.size() + " diagram-related actions",
-                    "Diagram Actions");
-
-        } catch (Exception e) {
-            Messages.showErrorDialog(project,
-                    "Error discovering diagram actions: " + e.getMessage(),
-                    "Error");
-        }
+    private void showActions(@Nullable ActionCatalog.Category category) {
+        actionTableModel.setCategory(category);
+        updateActionStatus();
     }
 
-    private void discoverUMLActions() {
-        tableModel.setRowCount(0);
-
-        try {
-            ActionManager actionManager = ActionManager.getInstance();
-            String[] actionIds = actionManager.getActionIds("");
-
-            List<String> umlActions = new ArrayList<>();
-
-            for (String actionId : actionIds) {
-                String lowerActionId = actionId.toLowerCase();
-                if (lowerActionId.contains("uml") ||
-                        lowerActionId.contains("class") && lowerActionId.contains("diagram") ||
-                        lowerActionId.contains("sequence") ||
-                        lowerActionId.contains("hierarchy")) {
-                    System.out.println("ActionId: " + actionId);
-                    umlActions.add(actionId);
-                }
-            }
-
-            umlActions.sort(String::compareToIgnoreCase);
-
-            for (String actionId : umlActions) {
-                AnAction action = actionManager.getAction(actionId);
-                String description = action != null ? getActionDescription(action) : "N/A";
-                boolean available = action != null;
-
-                tableModel.addRow(new Object[]{actionId, description, available});
-            }
-
-            Messages.showInfoMessage(project,
-                    "Found " + umlActions.size() + " UML-related actions",
-                    "UML Actions");
-
-        } catch (Exception e) {
-            Messages.showErrorDialog(project,
-                    "Error discovering UML actions: " + e.getMessage(),
-                    "Error");
-        }
-    }
-
-    private String getActionDescription(AnAction action) {
-        try {
-            String text = action.getTemplatePresentation().getText();
-            String description = action.getTemplatePresentation().getDescription();
-
-            if (text != null && !text.isEmpty()) {
-                return text;
-            } else if (description != null && !description.isEmpty()) {
-                return description;
-            } else {
-                return action.getClass().getSimpleName();
-            }
-        } catch (Exception e) {
-            return "Unknown";
+    private void updateActionStatus() {
+        if (!actionCatalog.isDone()) {
+            actionStatusLabel.setText("Loading actions...");
+        } else if (actionCatalog.isCompletedExceptionally()) {
+            // Keeps showing the error
+        } else if (actionTableModel.getCategory() != null) {
+            actionStatusLabel.setText(actionTableModel.getRowCount() + " of " + actionTableModel.getCatalogSize() + " actions");
+        } else {
+            actionStatusLabel.setText(actionTableModel.getCatalogSize() + " actions");
         }
     }
 
@@ -317,7 +270,7 @@ public class DependencyToolWindowContent {
             return;
         }
 
-        String actionId = (String) tableModel.getValueAt(selectedRow, 0);
+        String actionId = actionTableModel.getEntry(selectedRow).id();
 
         try {
             ActionManager actionManager = ActionManager.getInstance();
@@ -471,21 +424,126 @@ public class DependencyToolWindowContent {
         outputArea.setCaretPosition(outputArea.getDocument().getLength());
     }
 
+    /**
+     * Export the graph straight from the analysis, without the diagram editor, and upload the file.
+     * The files open in the editor stay expanded when the graph has to be collapsed.
+     */
+    private void exportDependencyGraph() {
+        String basePath = project.getBasePath();
+        if (basePath == null) {
+            outputArea.append("Project has no base directory to export to\n");
+            return;
+        }
+        Path target = Paths.get(basePath, GRAPH_EXPORT_FILE_NAME);
+        outputArea.append("Exporting dependency graph to " + target + "...\n");
+
+        List<String> focusFiles = new ArrayList<>();
+        for (VirtualFile file : FileEditorManager.getInstance(project).getSelectedFiles()) {
+            focusFiles.add(file.getPath());
+        }
+
+        CompletableFuture.runAsync(() -> {
+                    try {
+                        service.exportDependencyGraph(target, focusFiles);
+                    } catch (IOException e) {
+                        throw new CompletionException(e);
+                    }
+                }, AppExecutorUtil.getAppExecutorService())
+                .thenCompose(ignored -> new HttpMicroserviceCommunicator().sendDependencyGraphAsync(target))
+                .whenComplete((result, error) -> ApplicationManager.getApplication().invokeLater(() -> {
+                    if (error != null) {
+                        outputArea.append("Error exporting dependency graph: " + rootCause(error).getMessage() + "\n");
+                    } else {
+                        outputArea.append("Dependency graph exported and sent to microservice\n\n");
+                    }
+
+                    // Auto-scroll to bottom
+                    outputArea.setCaretPosition(outputArea.getDocument().getLength());
+                }));
+    }
+
+    /**
+     * One diagram per source root, written in parallel; modules that did not change are skipped
+     */
+    private void exportAllModules() {
+        String basePath = project.getBasePath();
+        if (basePath == null) {
+            outputArea.append("Project has no base directory to export to\n");
+            return;
+        }
+        Path outputDir = Paths.get(basePath, MODULE_EXPORT_DIRECTORY);
+        outputArea.append("Exporting module diagrams to " + outputDir + "...\n");
+
+        CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return service.exportModules(service.getSourceRootPaths(), outputDir, ".md");
+                    } catch (IOException e) {
+                        throw new CompletionException(e);
+                    }
+                }, AppExecutorUtil.getAppExecutorService())
+                .whenComplete((results, error) -> ApplicationManager.getApplication().invokeLater(() -> {
+                    if (error != null) {
+                        outputArea.append("Error exporting module diagrams: " + rootCause(error).getMessage() + "\n");
+                    } else {
+                        for (GraphBatchExporter.ModuleResult result : results) {
+                            outputArea.append("  " + result.status() + "  " + result.file().getFileName() + "\n");
+                        }
+                        outputArea.append("Exported " + results.size() + " modules\n\n");
+                    }
+
+                    // Auto-scroll to bottom
+                    outputArea.setCaretPosition(outputArea.getDocument().getLength());
+                }));
+    }
+
     private void sendGitDiff() {
         outputArea.append("Sending git diff to microservice...\n");
 
-        try {
-            service.sendGitDiff();
-            outputArea.append("Git diff sent successfully!\n\n");
+        // Collect and upload off the EDT, report back on it
+        service.sendGitDiffAsync(true).whenComplete((outcome, error) -> ApplicationManager.getApplication().invokeLater(() -> {
+            if (error != null) {
+                outputArea.append("Error sending git diff: " + rootCause(error).getMessage() + "\n");
+            } else if (outcome == DependencyAnalysisService.SendOutcome.NO_CHANGES) {
+                outputArea.append("No git changes found\n\n");
+            } else if (outcome == DependencyAnalysisService.SendOutcome.UNCHANGED) {
+                outputArea.append("Git diff unchanged since the last upload, not sent again\n\n");
+            } else if (outcome == DependencyAnalysisService.SendOutcome.QUEUED) {
+                outputArea.append("Microservice unreachable, git diff queued for later delivery\n\n");
+            } else {
+                outputArea.append("Git diff sent successfully!\n\n");
+                Messages.showInfoMessage(project, "Git diff sent to microservice!", "GraphNet");
+            }
 
-            Messages.showInfoMessage(project, "Git diff sent to microservice!", "GraphNet");
+            // Auto-scroll to bottom
+            outputArea.setCaretPosition(outputArea.getDocument().getLength());
+        }));
+    }
 
-        } catch (Exception e) {
-            outputArea.append("Error sending git diff: " + e.getMessage() + "\n");
-        }
+    private void showImpactedTests() {
+        outputArea.append("Selecting impacted tests...\n");
+
+        CompletableFuture.supplyAsync(service::prepareGitDiff, AppExecutorUtil.getAppExecutorService())
+                .whenComplete((diffData, error) -> ApplicationManager.getApplication().invokeLater(() -> {
+                    if (error != null) {
+                        outputArea.append("Error selecting impacted tests: " + rootCause(error).getMessage() + "\n");
+                    } else if (diffData == null) {
+                        outputArea.append("No git changes found\n\n");
+                    } else {
+                        List<TestSelection> tests = diffData.getImpactedTests();
+                        outputArea.append("Impacted tests (" + tests.size() + "):\n");
+                        for (TestSelection test : tests) {
+                            outputArea.append("  " + test.getTestClassName() + " (distance " + test.getDistance() + ")\n");
+                        }
+                        outputArea.append("\n");
+                    }
 
-        // Auto-scroll to bottom
-        outputArea.setCaretPosition(outputArea.getDocument().getLength());
+                    // Auto-scroll to bottom
+                    outputArea.setCaretPosition(outputArea.getDocument().getLength());
+                }));
+    }
+
+    private static Throwable rootCause(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
     }
 
     public JPanel getContentPanel() {
@@ -12,7 +12,7 @@ public class DependencyToolWindowFactory implements ToolWindowFactory {
     @Override
     public void createToolWindowContent(@NotNull Project project, @NotNull ToolWindow toolWindow) {
         try {
-            DependencyToolWindowContent content = new DependencyToolWindowContent(project);
+            DependencyToolWindowContent content = new DependencyToolWindowContent(project, toolWindow.getDisposable());
             Content uiContent = ContentFactory.getInstance().createContent(
                     content.getContentPanel(),
                     "",
@@ -0,0 +1,249 @@
+package org.zenith.graphnet.gui;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.fileEditor.FileEditorManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.ui.CollectionListModel;
+import com.intellij.ui.DocumentAdapter;
+import com.intellij.ui.JBSplitter;
+import com.intellij.ui.SearchTextField;
+import com.intellij.ui.components.JBList;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.treeStructure.Tree;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.jetbrains.annotations.NotNull;
+import org.zenith.graphnet.model.FileNode;
+import org.zenith.graphnet.service.DependencyAnalysisService;
+import org.zenith.graphnet.util.FileSearchIndex;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.TreeExpansionEvent;
+import javax.swing.event.TreeWillExpandListener;
+import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.DefaultTreeModel;
+import javax.swing.tree.TreePath;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Type-ahead search over the analyzed files, and the dependencies, dependents and transitive
+ * impact of the selected one. Searches run off the EDT against the service's name index and
+ * only the latest one is shown. The tree loads the children of a file when it is expanded,
+ * so large graphs are only walked as far as they are looked at.
+ */
+public class ImpactExplorerPanel extends JPanel {
+
+    private static final int MAX_SEARCH_RESULTS = 200;
+    // Children beyond this are summarized in one node
+    private static final int MAX_CHILDREN = 500;
+
+    private enum Direction { DEPENDENCIES, DEPENDENTS }
+
+    private final Project project;
+    private final DependencyAnalysisService service;
+    private final SearchTextField searchField = new SearchTextField(false);
+    private final JLabel statusLabel = new JLabel(" ");
+    private final CollectionListModel<FileSearchIndex.Match> resultsModel = new CollectionListModel<>();
+    private final JBList<FileSearchIndex.Match> resultsList = new JBList<>(resultsModel);
+    private final DefaultTreeModel treeModel = new DefaultTreeModel(new DefaultMutableTreeNode("Select a file"));
+    private final Tree impactTree = new Tree(treeModel);
+    private final AtomicInteger searchGeneration = new AtomicInteger();
+    private final AtomicInteger selectionGeneration = new AtomicInteger();
+    private String selectedFile;
+
+    /**
+     * A file in the tree; its children are the files one step further in its direction, loaded on expansion
+     */
+    private class FileTreeNode extends DefaultMutableTreeNode {
+        private final String filePath;
+        private final Direction direction;
+        private boolean loaded;
+
+        FileTreeNode(String filePath, Direction direction, DefaultMutableTreeNode parent) {
+            super(label(filePath));
+            this.filePath = filePath;
+            this.direction = direction;
+            // A file already on the path to the root would repeat its subtree forever
+            if (isAncestor(parent, filePath)) {
+                setUserObject(label(filePath) + "  (cycle)");
+                loaded = true;
+            } else if (!hasNeighbors(filePath, direction)) {
+                loaded = true;
+            } else {
+                add(new DefaultMutableTreeNode("Loading..."));
+            }
+        }
+
+        void load() {
+            if (loaded) return;
+            loaded = true;
+            removeAllChildren();
+            addFiles(this, neighbors(filePath, direction), direction);
+        }
+    }
+
+    public ImpactExplorerPanel(Project project, Disposable parentDisposable) {
+        super(new BorderLayout());
+        this.project = project;
+        this.service = DependencyAnalysisService.getInstance(project);
+
+        JPanel searchPanel = new JPanel(new BorderLayout(5, 0));
+        searchPanel.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+        searchPanel.add(new JLabel("Find file or class:"), BorderLayout.WEST);
+        searchPanel.add(searchField, BorderLayout.CENTER);
+        searchPanel.add(statusLabel, BorderLayout.EAST);
+        searchField.addDocumentListener(new DocumentAdapter() {
+            @Override
+            protected void textChanged(@NotNull DocumentEvent e) {
+                search(searchField.getText());
+            }
+        });
+
+        resultsList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        resultsList.addListSelectionListener(e -> {
+            if (!e.getValueIsAdjusting() && resultsList.getSelectedValue() != null) {
+                showImpact(resultsList.getSelectedValue().filePath());
+            }
+        });
+
+        impactTree.setRootVisible(true);
+        impactTree.addTreeWillExpandListener(new TreeWillExpandListener() {
+            @Override
+            public void treeWillExpand(TreeExpansionEvent event) {
+                Object node = event.getPath().getLastPathComponent();
+                if (node instanceof FileTreeNode fileNode && !fileNode.loaded) {
+                    fileNode.load();
+                    treeModel.nodeStructureChanged(fileNode);
+                }
+            }
+
+            @Override
+            public void treeWillCollapse(TreeExpansionEvent event) {
+            }
+        });
+        impactTree.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() != 2) return;
+                TreePath path = impactTree.getPathForLocation(e.getX(), e.getY());
+                if (path != null && path.getLastPathComponent() instanceof FileTreeNode fileNode) {
+                    openInEditor(fileNode.filePath);
+                }
+            }
+        });
+
+        JBSplitter splitter = new JBSplitter(false, 0.35f);
+        splitter.setFirstComponent(new JBScrollPane(resultsList));
+        splitter.setSecondComponent(new JBScrollPane(impactTree));
+
+        add(searchPanel, BorderLayout.NORTH);
+        add(splitter, BorderLayout.CENTER);
+
+        // Files show up in the search as soon as a partial graph has them
+        service.addAnalysisListener((parsedFiles, totalFiles, complete) -> ApplicationManager.getApplication().invokeLater(
+                () -> search(searchField.getText())), parentDisposable);
+    }
+
+    private void search(String query) {
+        int generation = searchGeneration.incrementAndGet();
+        FileSearchIndex index = service.getFileSearchIndex();
+
+        CompletableFuture.supplyAsync(() -> index.search(query, MAX_SEARCH_RESULTS), AppExecutorUtil.getAppExecutorService())
+                .thenAccept(matches -> ApplicationManager.getApplication().invokeLater(() -> {
+                    // A later query has been typed meanwhile
+                    if (generation != searchGeneration.get()) return;
+
+                    resultsModel.replaceAll(matches);
+                    if (query.isBlank()) {
+                        statusLabel.setText(index.size() + " files");
+                    } else {
+                        statusLabel.setText(matches.size() >= MAX_SEARCH_RESULTS ? MAX_SEARCH_RESULTS + "+ matches" : matches.size() + " matches");
+                    }
+                }));
+    }
+
+    private void showImpact(String filePath) {
+        int generation = selectionGeneration.incrementAndGet();
+        selectedFile = filePath;
+
+        DefaultMutableTreeNode root = new DefaultMutableTreeNode(label(filePath));
+        DefaultMutableTreeNode dependencies = new DefaultMutableTreeNode("Depends on (" + service.getDependenciesFor(filePath).size() + ")");
+        DefaultMutableTreeNode dependents = new DefaultMutableTreeNode("Used by (" + service.getFilesAffectedByChange(filePath).size() + ")");
+        DefaultMutableTreeNode impact = new DefaultMutableTreeNode("Transitive impact: counting...");
+        root.add(dependencies);
+        root.add(dependents);
+        root.add(impact);
+        treeModel.setRoot(root);
+
+        addFiles(dependencies, neighbors(filePath, Direction.DEPENDENCIES), Direction.DEPENDENCIES);
+        addFiles(dependents, neighbors(filePath, Direction.DEPENDENTS), Direction.DEPENDENTS);
+        treeModel.nodeStructureChanged(root);
+        impactTree.expandPath(new TreePath(new Object[]{root, dependencies}));
+        impactTree.expandPath(new TreePath(new Object[]{root, dependents}));
+
+        // The full closure can be large, it is counted in the background
+        CompletableFuture.supplyAsync(() -> service.getFilesTransitivelyAffectedByChange(filePath).size(), AppExecutorUtil.getAppExecutorService())
+                .thenAccept(count -> ApplicationManager.getApplication().invokeLater(() -> {
+                    if (generation != selectionGeneration.get()) return;
+                    impact.setUserObject("Transitive impact: " + count + " files");
+                    treeModel.nodeChanged(impact);
+                }));
+    }
+
+    private void addFiles(DefaultMutableTreeNode parent, List<String> files, Direction direction) {
+        int shown = Math.min(files.size(), MAX_CHILDREN);
+        for (int i = 0; i < shown; i++) {
+            parent.add(new FileTreeNode(files.get(i), direction, parent));
+        }
+        if (files.size() > shown) {
+            parent.add(new DefaultMutableTreeNode("... and " + (files.size() - shown) + " more"));
+        }
+    }
+
+    private boolean isAncestor(DefaultMutableTreeNode node, String filePath) {
+        if (filePath.equals(selectedFile)) return true;
+        for (; node != null; node = (DefaultMutableTreeNode) node.getParent()) {
+            if (node instanceof FileTreeNode fileNode && fileNode.filePath.equals(filePath)) return true;
+        }
+        return false;
+    }
+
+    private boolean hasNeighbors(String filePath, Direction direction) {
+        return direction == Direction.DEPENDENCIES
+                ? !service.getDependenciesFor(filePath).isEmpty()
+                : !service.getFilesAffectedByChange(filePath).isEmpty();
+    }
+
+    private List<String> neighbors(String filePath, Direction direction) {
+        Collection<String> neighbors = direction == Direction.DEPENDENCIES
+                ? service.getDependenciesFor(filePath)
+                : service.getFilesAffectedByChange(filePath);
+        List<String> sorted = new ArrayList<>(neighbors);
+        sorted.sort(Comparator.comparing(this::label, String.CASE_INSENSITIVE_ORDER));
+        return sorted;
+    }
+
+    private String label(String filePath) {
+        FileNode node = service.getFileNode(filePath);
+        if (node == null) return filePath;
+
+        String name = node.getClassName() != null && !node.getClassName().isEmpty() ? node.getClassName() : node.getFileName();
+        return node.getPackageName() == null || node.getPackageName().isEmpty() ? name : name + "  (" + node.getPackageName() + ")";
+    }
+
+    private void openInEditor(String filePath) {
+        VirtualFile file = LocalFileSystem.getInstance().findFileByPath(filePath);
+        if (file != null) {
+            FileEditorManager.getInstance(project).openFile(file, true);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package org.zenith.graphnet.impl;
+
+import org.zenith.graphnet.api.GraphExporter;
+import org.zenith.graphnet.model.DependencyGraph;
+import org.zenith.graphnet.model.FileNode;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Graphviz DOT digraph with one cluster per package; nodes carry their file path as tooltip
+ */
+public class DotGraphExporter implements GraphExporter {
+
+    @Override
+    public String getName() {
+        return "Graphviz DOT";
+    }
+
+    @Override
+    public boolean accepts(String fileName) {
+        return fileName.endsWith(".dot") || fileName.endsWith(".gv");
+    }
+
+    @Override
+    public void export(DependencyGraph graph, Writer out) throws IOException {
+        Map<String, String> ids = GraphExporters.assignIds(graph);
+        Map<String, FileNode> nodesByPath = GraphExporters.nodesByPath(graph);
+        String name = graph.getProjectName() != null ? graph.getProjectName() : "dependencies";
+
+        out.write("digraph " + quote(name) + " {\n");
+        out.write("  rankdir=LR;\n");
+        out.write("  node [shape=box, fontsize=10];\n");
+
+        int cluster = 0;
+        for (Map.Entry<String, List<String>> entry : GraphExporters.filesByPackage(graph, ids).entrySet()) {
+            boolean grouped = !entry.getKey().isEmpty();
+            String indent = grouped ? "    " : "  ";
+            if (grouped) {
+                out.write("  subgraph cluster_" + cluster++ + " {\n");
+                out.write("    label=" + quote(entry.getKey()) + ";\n");
+            }
+            for (String path : entry.getValue()) {
+                out.write(indent);
+                out.write(ids.get(path));
+                out.write(" [label=");
+                out.write(quote(GraphExporters.label(path, nodesByPath.get(path))));
+                out.write(", tooltip=");
+                out.write(quote(path));
+                out.write("];\n");
+            }
+            if (grouped) out.write("  }\n");
+        }
+
+        for (Map.Entry<String, Set<String>> edge : GraphExporters.edges(graph).entrySet()) {
+            String from = ids.get(edge.getKey());
+            for (String target : edge.getValue()) {
+                out.write("  ");
+                out.write(from);
+                out.write(" -> ");
+                out.write(ids.get(target));
+                out.write(";\n");
+            }
+        }
+
+        out.write("}\n");
+    }
+
+    private static String quote(String text) {
+        return "\"" + text.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+}
@@ -0,0 +1,365 @@
+package org.zenith.graphnet.impl;
+
+import com.intellij.openapi.diff.impl.patch.FilePatch;
+import com.intellij.openapi.diff.impl.patch.PatchHunk;
+import com.intellij.openapi.diff.impl.patch.PatchLine;
+import com.intellij.openapi.diff.impl.patch.TextFilePatch;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vcs.FilePath;
+import com.intellij.openapi.vcs.VcsException;
+import com.intellij.openapi.vcs.changes.Change;
+import com.intellij.openapi.vcs.changes.ChangeListManager;
+import com.intellij.openapi.vcs.changes.ChangesUtil;
+import com.intellij.openapi.vcs.changes.ContentRevision;
+import com.intellij.openapi.vcs.changes.CurrentContentRevision;
+import com.intellij.openapi.vcs.changes.patch.IdeaTextPatchBuilder;
+import com.intellij.openapi.vcs.history.VcsRevisionNumber;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import git4idea.GitRevisionNumber;
+import git4idea.changes.GitChangeUtils;
+import git4idea.config.GitConfigUtil;
+import git4idea.history.GitHistoryUtils;
+import git4idea.repo.GitRepository;
+import git4idea.repo.GitRepositoryManager;
+import org.jetbrains.annotations.Nullable;
+import org.zenith.graphnet.api.ChangeCollector;
+import org.zenith.graphnet.model.ChangedFile;
+import org.zenith.graphnet.model.RepositoryState;
+import org.zenith.graphnet.util.DiffBudget;
+import org.zenith.graphnet.util.GitCommandRunner;
+import org.zenith.graphnet.util.GitDiffParser;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Collects changes from the IDE's change list manager instead of forking git.
+ * The change set is the one the IDE already keeps up to date; patch text is
+ * only built for the files that are asked for, and binary changes are
+ * reported without hunks. Committed ranges (merge-request diffs) are read
+ * through Git4Idea's own diff utilities. Only files whose patch cannot fit the
+ * diff budget fork git, to stream their diff instead of building it in memory.
+ */
+public class Git4IdeaChangeCollector implements ChangeCollector {
+
+    private static final long GIT_DIFF_TIMEOUT_SECONDS = 60;
+    private static final long GIT_COMMAND_TIMEOUT_SECONDS = 10;
+
+    private final Project project;
+    // Changes read for the last summary, taken by the loadDiffs call that follows it
+    private volatile ChangeSet summarizedChanges;
+
+    public Git4IdeaChangeCollector(Project project) {
+        this.project = project;
+    }
+
+    @Override
+    public String getName() {
+        return "Git4Idea Change Collector";
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return !GitRepositoryManager.getInstance(project).getRepositories().isEmpty();
+    }
+
+    @Override
+    public List<ChangedFile> collectChanges(@Nullable String baseRevision, DiffBudget budget) throws Exception {
+        List<ChangedFile> changedFiles = collectSummary(baseRevision);
+        loadDiffs(changedFiles, baseRevision, budget);
+        return changedFiles;
+    }
+
+    /**
+     * The IDE change set carries no line counts, so additions and deletions
+     * stay zero until the diff of a file is loaded.
+     */
+    @Override
+    public List<ChangedFile> collectSummary(@Nullable String baseRevision) throws Exception {
+        Map<String, RepositoryChange> changesByPath = getChangesByPath(baseRevision);
+        summarizedChanges = new ChangeSet(baseRevision, changesByPath);
+
+        List<ChangedFile> summary = new ArrayList<>();
+        for (Map.Entry<String, RepositoryChange> entry : changesByPath.entrySet()) {
+            summary.add(new ChangedFile(entry.getKey(), getStatus(entry.getValue().change), 0, 0));
+        }
+        return summary;
+    }
+
+    @Override
+    public void loadDiffs(List<ChangedFile> files, @Nullable String baseRevision, DiffBudget budget) throws Exception {
+        // The files come from the summary just read, its changes are reused instead of listed again
+        ChangeSet summarized = summarizedChanges;
+        summarizedChanges = null;
+        Map<String, RepositoryChange> changesByPath = summarized != null && Objects.equals(summarized.baseRevision, baseRevision)
+                ? summarized.changesByPath
+                : getChangesByPath(baseRevision);
+
+        for (ChangedFile file : files) {
+            RepositoryChange repositoryChange = changesByPath.get(file.path);
+            if (repositoryChange == null) continue;
+
+            if (!needsHunks(ChangesUtil.getFilePath(repositoryChange.change))) {
+                file.diff = "";
+                continue;
+            }
+
+            ChangedFile loaded = toChangedFile(repositoryChange.root, repositoryChange.change, file.path, file.status,
+                    baseRevision, budget);
+            file.diff = loaded.diff;
+            file.additions = loaded.additions;
+            file.deletions = loaded.deletions;
+            file.linesChanged = loaded.linesChanged;
+            file.hunks = loaded.hunks;
+            file.truncated = loaded.truncated;
+            file.omittedHunks = loaded.omittedHunks;
+            file.omittedBytes = loaded.omittedBytes;
+            file.omittedDigest = loaded.omittedDigest;
+        }
+    }
+
+    @Override
+    public RepositoryState readRepositoryState(@Nullable String targetBranch) throws Exception {
+        GitRepository repository = getProjectRepository();
+        VirtualFile root = repository.getRoot();
+
+        RepositoryState state = new RepositoryState();
+        state.setRepositoryName(root.getName());
+        state.setTargetBranch(targetBranch);
+        state.setHeadCommit(repository.getCurrentRevision());
+        state.setCurrentBranch(repository.getCurrentBranchName());
+        state.setAuthor(GitConfigUtil.getValue(project, root, GitConfigUtil.USER_NAME));
+        if (targetBranch == null) return state;
+
+        // The target branch may only exist as a remote tracking branch; an unknown revision is an error, not null
+        GitRevisionNumber mergeBase = null;
+        try {
+            mergeBase = GitHistoryUtils.getMergeBase(project, root, "HEAD", targetBranch);
+        } catch (VcsException e) {
+            System.out.println("No merge-base with " + targetBranch + " (" + e.getMessage() + "), trying origin/" + targetBranch);
+        }
+        if (mergeBase == null) {
+            try {
+                mergeBase = GitHistoryUtils.getMergeBase(project, root, "HEAD", "origin/" + targetBranch);
+            } catch (VcsException remoteError) {
+                System.err.println("Could not read the merge-base with origin/" + targetBranch + ": " + remoteError.getMessage());
+            }
+        }
+        if (mergeBase != null) {
+            state.setMergeBaseCommit(mergeBase.asString());
+        } else {
+            System.err.println("No merge-base between HEAD and " + targetBranch);
+        }
+        return state;
+    }
+
+    private record RepositoryChange(VirtualFile root, Change change) {
+    }
+
+    private record ChangeSet(@Nullable String baseRevision, Map<String, RepositoryChange> changesByPath) {
+    }
+
+    private Map<String, RepositoryChange> getChangesByPath(@Nullable String baseRevision) throws VcsException {
+        Map<String, RepositoryChange> changesByPath = new LinkedHashMap<>();
+
+        if (baseRevision != null) {
+            // Committed changes between the base revision and HEAD of the project repository
+            VirtualFile root = getProjectRepository().getRoot();
+            for (Change change : GitChangeUtils.getDiff(project, root, baseRevision, "HEAD", null)) {
+                changesByPath.put(getRelativePath(root, ChangesUtil.getFilePath(change)), new RepositoryChange(root, change));
+            }
+            return changesByPath;
+        }
+
+        for (Map.Entry<GitRepository, List<Change>> entry : groupByRepository(getAllChanges()).entrySet()) {
+            VirtualFile root = entry.getKey().getRoot();
+            for (Change change : entry.getValue()) {
+                changesByPath.put(getRelativePath(root, ChangesUtil.getFilePath(change)), new RepositoryChange(root, change));
+            }
+        }
+
+        return changesByPath;
+    }
+
+    private GitRepository getProjectRepository() throws VcsException {
+        GitRepositoryManager repositoryManager = GitRepositoryManager.getInstance(project);
+        VirtualFile baseDir = project.getBaseDir();
+        GitRepository repository = baseDir != null ? repositoryManager.getRepositoryForFileQuick(baseDir) : null;
+        if (repository == null) {
+            List<GitRepository> repositories = repositoryManager.getRepositories();
+            if (repositories.isEmpty()) {
+                throw new VcsException("No Git repository found for project " + project.getName());
+            }
+            repository = repositories.get(0);
+        }
+        return repository;
+    }
+
+    private Collection<Change> getAllChanges() {
+        return ChangeListManager.getInstance(project).getAllChanges();
+    }
+
+    private Map<GitRepository, List<Change>> groupByRepository(Collection<Change> changes) {
+        GitRepositoryManager repositoryManager = GitRepositoryManager.getInstance(project);
+        Map<GitRepository, List<Change>> grouped = new LinkedHashMap<>();
+
+        for (Change change : changes) {
+            GitRepository repository = repositoryManager.getRepositoryForFileQuick(ChangesUtil.getFilePath(change));
+            if (repository != null) {
+                grouped.computeIfAbsent(repository, r -> new ArrayList<>()).add(change);
+            }
+        }
+
+        return grouped;
+    }
+
+    private boolean needsHunks(FilePath filePath) {
+        // Binary files have no meaningful line diff
+        return !filePath.getFileType().isBinary();
+    }
+
+    private ChangedFile toChangedFile(VirtualFile root, Change change, String relativePath, String status,
+                                     @Nullable String baseRevision, DiffBudget budget) throws Exception {
+        // A patch that cannot fit the budget is not built in memory, git's diff is streamed through the budget instead
+        if (minimumPatchBytes(root, change) > budget.allowanceForFile()) {
+            ChangedFile streamed = streamGitDiff(root, change, relativePath, baseRevision, budget);
+            if (streamed != null) {
+                streamed.status = status;
+                return streamed;
+            }
+        }
+
+        List<FilePatch> patches = IdeaTextPatchBuilder.buildPatch(project, List.of(change), root.toNioPath(), false);
+
+        StringBuilder diff = new StringBuilder();
+        diff.append("diff --git a/").append(relativePath).append(" b/").append(relativePath).append("\n");
+        diff.append("--- a/").append(relativePath).append("\n");
+        diff.append("+++ b/").append(relativePath).append("\n");
+
+        for (FilePatch patch : patches) {
+            if (!(patch instanceof TextFilePatch textPatch)) continue;
+
+            for (PatchHunk hunk : textPatch.getHunks()) {
+                int countBefore = hunk.getEndLineBefore() - hunk.getStartLineBefore();
+                int countAfter = hunk.getEndLineAfter() - hunk.getStartLineAfter();
+                diff.append("@@ -").append(hunkStart(hunk.getStartLineBefore(), countBefore)).append(",").append(countBefore)
+                        .append(" +").append(hunkStart(hunk.getStartLineAfter(), countAfter)).append(",").append(countAfter)
+                        .append(" @@\n");
+
+                for (PatchLine line : hunk.getLines()) {
+                    switch (line.getType()) {
+                        case ADD -> diff.append("+");
+                        case REMOVE -> diff.append("-");
+                        default -> diff.append(" ");
+                    }
+                    diff.append(line.getText()).append("\n");
+                }
+            }
+        }
+
+        // Run the git-style text through the regular parser for line counts and hunks
+        List<ChangedFile> parsed = GitDiffParser.parseGitDiff(diff.toString(), budget);
+        ChangedFile changedFile = parsed.isEmpty() ? new ChangedFile(relativePath, status, 0, 0, "") : parsed.get(0);
+        changedFile.status = status;
+        return changedFile;
+    }
+
+    /**
+     * 1-based start line of a hunk side as git prints it: an empty side names the line it follows
+     */
+    private static int hunkStart(int startLine, int count) {
+        return count == 0 ? startLine : startLine + 1;
+    }
+
+    /**
+     * Lower bound of the patch size from the sizes of the two revisions: every byte of an added
+     * or deleted file is in the patch, and a modification adds or removes at least the size difference.
+     * Zero when a size is unknown.
+     */
+    private long minimumPatchBytes(VirtualFile root, Change change) {
+        long before = revisionSize(root, change.getBeforeRevision());
+        long after = revisionSize(root, change.getAfterRevision());
+        return switch (change.getType()) {
+            case NEW -> Math.max(0, after);
+            case DELETED -> Math.max(0, before);
+            default -> before < 0 || after < 0 ? 0 : Math.abs(after - before);
+        };
+    }
+
+    /**
+     * Size of a revision without loading it: the file length for the working tree,
+     * the object size from "git cat-file -s" for committed revisions. -1 if unknown.
+     */
+    private long revisionSize(VirtualFile root, @Nullable ContentRevision revision) {
+        if (revision == null) return -1;
+        if (revision instanceof CurrentContentRevision current) {
+            VirtualFile file = current.getVirtualFile();
+            return file != null ? file.getLength() : -1;
+        }
+
+        VcsRevisionNumber revisionNumber = revision.getRevisionNumber();
+        if (revisionNumber == VcsRevisionNumber.NULL) return -1;
+        String object = revisionNumber.asString() + ":" + getRelativePath(root, revision.getFile());
+        try {
+            String size = GitCommandRunner.run(toFile(root), GIT_COMMAND_TIMEOUT_SECONDS, BufferedReader::readLine,
+                    "cat-file", "-s", object);
+            return size != null ? Long.parseLong(size.trim()) : -1;
+        } catch (IOException | NumberFormatException e) {
+            System.err.println("Could not read the size of " + object + ": " + e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * The file's diff from git, parsed with the budget like the process collector does, so dropped
+     * hunks get the same counts and digest. Null if git could not produce it.
+     */
+    private @Nullable ChangedFile streamGitDiff(VirtualFile root, Change change, String relativePath,
+                                                @Nullable String baseRevision, DiffBudget budget) {
+        List<String> args = new ArrayList<>(List.of("diff", baseRevision != null ? baseRevision : "HEAD"));
+        if (baseRevision != null) args.add("HEAD");
+        args.add("--");
+        ContentRevision before = change.getBeforeRevision();
+        if (before != null) {
+            String beforePath = getRelativePath(root, before.getFile());
+            if (!beforePath.equals(relativePath)) args.add(beforePath);
+        }
+        args.add(relativePath);
+
+        try {
+            List<ChangedFile> parsed = new ArrayList<>();
+            GitCommandRunner.run(toFile(root), GIT_DIFF_TIMEOUT_SECONDS, reader -> {
+                GitDiffParser.parseGitDiff(reader, file -> {
+                    if (file.path.equals(relativePath)) parsed.add(file);
+                }, budget);
+                return null;
+            }, args.toArray(new String[0]));
+            return parsed.isEmpty() ? null : parsed.get(0);
+        } catch (IOException e) {
+            System.err.println("Could not stream the diff of " + relativePath + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static File toFile(VirtualFile root) {
+        return root.toNioPath().toFile();
+    }
+
+    private String getRelativePath(VirtualFile root, FilePath filePath) {
+        String relativePath = FileUtil.getRelativePath(VfsUtilCore.virtualToIoFile(root), filePath.getIOFile());
+        return relativePath != null ? FileUtil.toSystemIndependentName(relativePath) : filePath.getPath();
+    }
+
+    private String getStatus(Change change) {
+        return switch (change.getType()) {
+            case NEW -> "added";
+            case DELETED -> "deleted";
+            case MOVED -> "renamed";
+            default -> "modified";
+        };
+    }
+}
@@ -0,0 +1,138 @@
+package org.zenith.graphnet.impl;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.jetbrains.annotations.Nullable;
+import org.zenith.graphnet.api.ChangeCollector;
+import org.zenith.graphnet.model.ChangedFile;
+import org.zenith.graphnet.model.RepositoryState;
+import org.zenith.graphnet.util.DiffBudget;
+import org.zenith.graphnet.util.GitCommandRunner;
+import org.zenith.graphnet.util.GitDiffParser;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects changes by running the git executable against the project base directory
+ */
+public class GitProcessChangeCollector implements ChangeCollector {
+
+    private static final long GIT_DIFF_TIMEOUT_SECONDS = 60;
+    private static final long GIT_COMMAND_TIMEOUT_SECONDS = 10;
+    // Keep command lines well below OS argument limits
+    private static final int PATHS_PER_INVOCATION = 100;
+
+    private final Project project;
+
+    public GitProcessChangeCollector(Project project) {
+        this.project = project;
+    }
+
+    @Override
+    public String getName() {
+        return "Git Process Change Collector";
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return project.getBaseDir() != null;
+    }
+
+    @Override
+    public List<ChangedFile> collectChanges(@Nullable String baseRevision, DiffBudget budget) throws Exception {
+        List<ChangedFile> changedFiles = new ArrayList<>();
+        GitCommandRunner.run(getWorkingDir(), GIT_DIFF_TIMEOUT_SECONDS, reader -> {
+            GitDiffParser.parseGitDiff(reader, changedFiles::add, budget);
+            return null;
+        }, diffArgs(baseRevision));
+        return changedFiles;
+    }
+
+    @Override
+    public List<ChangedFile> collectSummary(@Nullable String baseRevision) throws Exception {
+        return GitCommandRunner.run(getWorkingDir(), GIT_DIFF_TIMEOUT_SECONDS,
+                GitDiffParser::parseSummary, diffArgs(baseRevision, "--raw", "--numstat", "-z"));
+    }
+
+    @Override
+    public void loadDiffs(List<ChangedFile> files, @Nullable String baseRevision, DiffBudget budget) throws Exception {
+        Map<String, ChangedFile> filesByPath = new HashMap<>();
+        for (ChangedFile file : files) {
+            filesByPath.put(file.path, file);
+        }
+
+        List<String> paths = new ArrayList<>(filesByPath.keySet());
+        for (int start = 0; start < paths.size(); start += PATHS_PER_INVOCATION) {
+            List<String> args = new ArrayList<>(List.of(diffArgs(baseRevision, "--")));
+            args.addAll(paths.subList(start, Math.min(start + PATHS_PER_INVOCATION, paths.size())));
+
+            GitCommandRunner.run(getWorkingDir(), GIT_DIFF_TIMEOUT_SECONDS, reader -> {
+                GitDiffParser.parseGitDiff(reader, parsed -> {
+                    ChangedFile file = filesByPath.get(parsed.path);
+                    if (file != null) {
+                        file.diff = parsed.diff;
+                        file.additions = parsed.additions;
+                        file.deletions = parsed.deletions;
+                        file.linesChanged = parsed.linesChanged;
+                        file.hunks = parsed.hunks;
+                        file.truncated = parsed.truncated;
+                        file.omittedHunks = parsed.omittedHunks;
+                        file.omittedBytes = parsed.omittedBytes;
+                        file.omittedDigest = parsed.omittedDigest;
+                    }
+                }, budget);
+                return null;
+            }, args.toArray(new String[0]));
+        }
+    }
+
+    @Override
+    public RepositoryState readRepositoryState(@Nullable String targetBranch) throws Exception {
+        RepositoryState state = new RepositoryState();
+        state.setRepositoryName(getWorkingDir().getName());
+        state.setTargetBranch(targetBranch);
+        state.setHeadCommit(readLine("rev-parse", "HEAD"));
+        state.setCurrentBranch(readLine("rev-parse", "--abbrev-ref", "HEAD"));
+        state.setAuthor(readLine("log", "-1", "--format=%an"));
+        if (targetBranch == null) return state;
+
+        // The target branch may only exist as a remote tracking branch
+        try {
+            state.setMergeBaseCommit(readLine("merge-base", "HEAD", targetBranch));
+        } catch (IOException e) {
+            try {
+                state.setMergeBaseCommit(readLine("merge-base", "HEAD", "origin/" + targetBranch));
+            } catch (IOException remoteError) {
+                System.err.println("No merge-base between HEAD and " + targetBranch + ": " + remoteError.getMessage());
+            }
+        }
+        return state;
+    }
+
+    private String[] diffArgs(@Nullable String baseRevision, String... extraArgs) {
+        List<String> args = new ArrayList<>();
+        args.add("diff");
+        if (baseRevision != null) {
+            args.add(baseRevision);
+            args.add("HEAD");
+        }
+        args.addAll(List.of(extraArgs));
+        return args.toArray(new String[0]);
+    }
+
+    private String readLine(String... args) throws IOException {
+        String line = GitCommandRunner.run(getWorkingDir(), GIT_COMMAND_TIMEOUT_SECONDS, BufferedReader::readLine, args);
+        return line != null ? line.trim() : null;
+    }
+
+    private File getWorkingDir() {
+        VirtualFile baseDir = project.getBaseDir();
+        return baseDir.toNioPath().toFile();
+    }
+}
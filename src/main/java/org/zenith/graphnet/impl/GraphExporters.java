@@ -0,0 +1,88 @@
+package org.zenith.graphnet.impl;
+
+import org.jetbrains.annotations.Nullable;
+import org.zenith.graphnet.api.GraphExporter;
+import org.zenith.graphnet.model.DependencyGraph;
+import org.zenith.graphnet.model.FileNode;
+
+import java.util.*;
+
+/**
+ * The built-in graph exporters, and the node bookkeeping they share
+ */
+public final class GraphExporters {
+
+    private static final List<GraphExporter> ALL = List.of(
+            new MermaidGraphExporter(true), new MermaidGraphExporter(false), new DotGraphExporter(), new GraphMLGraphExporter());
+
+    private GraphExporters() {
+    }
+
+    public static List<GraphExporter> all() {
+        return ALL;
+    }
+
+    /**
+     * The exporter for a target file, by its extension
+     */
+    public static @Nullable GraphExporter forFileName(String fileName) {
+        for (GraphExporter exporter : ALL) {
+            if (exporter.accepts(fileName)) return exporter;
+        }
+        return null;
+    }
+
+    /**
+     * Short identifiers for every file of the graph, including edge targets without a node.
+     * File paths are not valid identifiers in most diagram formats.
+     */
+    static Map<String, String> assignIds(DependencyGraph graph) {
+        Map<String, String> ids = new LinkedHashMap<>();
+        for (FileNode node : nodes(graph)) {
+            ids.putIfAbsent(node.getFilePath(), "n" + ids.size());
+        }
+        for (Map.Entry<String, Set<String>> edge : edges(graph).entrySet()) {
+            ids.putIfAbsent(edge.getKey(), "n" + ids.size());
+            for (String target : edge.getValue()) {
+                ids.putIfAbsent(target, "n" + ids.size());
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Files grouped by package in name order; files without a node or package come last under ""
+     */
+    static Map<String, List<String>> filesByPackage(DependencyGraph graph, Map<String, String> ids) {
+        Map<String, FileNode> nodesByPath = nodesByPath(graph);
+        Map<String, List<String>> packages = new TreeMap<>(Comparator.comparing((String name) -> name.isEmpty()).thenComparing(name -> name));
+        for (String path : ids.keySet()) {
+            FileNode node = nodesByPath.get(path);
+            String packageName = node != null && node.getPackageName() != null ? node.getPackageName() : "";
+            packages.computeIfAbsent(packageName, p -> new ArrayList<>()).add(path);
+        }
+        return packages;
+    }
+
+    static Map<String, FileNode> nodesByPath(DependencyGraph graph) {
+        Map<String, FileNode> nodesByPath = new HashMap<>();
+        for (FileNode node : nodes(graph)) {
+            nodesByPath.put(node.getFilePath(), node);
+        }
+        return nodesByPath;
+    }
+
+    static String label(String path, @Nullable FileNode node) {
+        if (node != null && node.getClassName() != null && !node.getClassName().isEmpty()) return node.getClassName();
+        if (node != null && node.getFileName() != null && !node.getFileName().isEmpty()) return node.getFileName();
+        return path.substring(path.lastIndexOf('/') + 1);
+    }
+
+    static List<FileNode> nodes(DependencyGraph graph) {
+        return graph.getNodes() != null ? graph.getNodes() : List.of();
+    }
+
+    static Map<String, Set<String>> edges(DependencyGraph graph) {
+        return graph.getEdges() != null ? graph.getEdges() : Map.of();
+    }
+}
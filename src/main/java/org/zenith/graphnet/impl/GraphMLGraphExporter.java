@@ -0,0 +1,120 @@
+package org.zenith.graphnet.impl;
+
+import org.zenith.graphnet.api.GraphExporter;
+import org.zenith.graphnet.model.DependencyGraph;
+import org.zenith.graphnet.model.FileNode;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * GraphML document with label, path, package, line count and test flag as node data,
+ * written through a StAX writer so the document is never held in memory
+ */
+public class GraphMLGraphExporter implements GraphExporter {
+
+    private static final String NAMESPACE = "http://graphml.graphdrawing.org/xmlns";
+    private static final XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory.newFactory();
+
+    @Override
+    public String getName() {
+        return "GraphML";
+    }
+
+    @Override
+    public boolean accepts(String fileName) {
+        return fileName.endsWith(".graphml");
+    }
+
+    @Override
+    public void export(DependencyGraph graph, Writer out) throws IOException {
+        try {
+            XMLStreamWriter xml = OUTPUT_FACTORY.createXMLStreamWriter(out);
+            writeDocument(xml, graph);
+            xml.flush();
+            // Closing the StAX writer does not close the underlying writer
+            xml.close();
+        } catch (XMLStreamException e) {
+            throw new IOException("Could not write GraphML", e);
+        }
+    }
+
+    private void writeDocument(XMLStreamWriter xml, DependencyGraph graph) throws XMLStreamException {
+        Map<String, String> ids = GraphExporters.assignIds(graph);
+        Map<String, FileNode> nodesByPath = GraphExporters.nodesByPath(graph);
+
+        xml.writeStartDocument("UTF-8", "1.0");
+        xml.writeCharacters("\n");
+        xml.writeStartElement("graphml");
+        xml.writeDefaultNamespace(NAMESPACE);
+        xml.writeCharacters("\n");
+        writeKey(xml, "label", "string");
+        writeKey(xml, "path", "string");
+        writeKey(xml, "package", "string");
+        writeKey(xml, "lines", "int");
+        writeKey(xml, "test", "boolean");
+
+        xml.writeStartElement("graph");
+        xml.writeAttribute("id", graph.getProjectName() != null ? graph.getProjectName() : "dependencies");
+        xml.writeAttribute("edgedefault", "directed");
+        xml.writeCharacters("\n");
+
+        for (Map.Entry<String, String> entry : ids.entrySet()) {
+            String path = entry.getKey();
+            FileNode node = nodesByPath.get(path);
+            xml.writeCharacters("  ");
+            xml.writeStartElement("node");
+            xml.writeAttribute("id", entry.getValue());
+            writeData(xml, "label", GraphExporters.label(path, node));
+            writeData(xml, "path", path);
+            if (node != null) {
+                if (node.getPackageName() != null) writeData(xml, "package", node.getPackageName());
+                writeData(xml, "lines", Integer.toString(node.getLineCount()));
+                writeData(xml, "test", Boolean.toString(node.isTestSource()));
+            }
+            xml.writeEndElement();
+            xml.writeCharacters("\n");
+        }
+
+        int edgeId = 0;
+        for (Map.Entry<String, Set<String>> edge : GraphExporters.edges(graph).entrySet()) {
+            String source = ids.get(edge.getKey());
+            for (String target : edge.getValue()) {
+                xml.writeCharacters("  ");
+                xml.writeEmptyElement("edge");
+                xml.writeAttribute("id", "e" + edgeId++);
+                xml.writeAttribute("source", source);
+                xml.writeAttribute("target", ids.get(target));
+                xml.writeCharacters("\n");
+            }
+        }
+
+        xml.writeEndElement();
+        xml.writeCharacters("\n");
+        xml.writeEndElement();
+        xml.writeCharacters("\n");
+        xml.writeEndDocument();
+    }
+
+    private static void writeKey(XMLStreamWriter xml, String name, String type) throws XMLStreamException {
+        xml.writeCharacters("  ");
+        xml.writeEmptyElement("key");
+        xml.writeAttribute("id", name);
+        xml.writeAttribute("for", "node");
+        xml.writeAttribute("attr.name", name);
+        xml.writeAttribute("attr.type", type);
+        xml.writeCharacters("\n");
+    }
+
+    private static void writeData(XMLStreamWriter xml, String key, String value) throws XMLStreamException {
+        xml.writeStartElement("data");
+        xml.writeAttribute("key", key);
+        xml.writeCharacters(value);
+        xml.writeEndElement();
+    }
+}
@@ -1,31 +1,39 @@
 package org.zenith.graphnet.impl;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import okhttp3.*;
-import org.zenith.graphnet.api.MicroserviceCommunicator;
+import org.zenith.graphnet.api.AsyncMicroserviceCommunicator;
 import org.zenith.graphnet.model.DependencyGraph;
 import org.zenith.graphnet.model.GitDiffData;
+import org.zenith.graphnet.service.MicroserviceTransport;
+import org.zenith.graphnet.util.ChunkedFileUpload;
+import org.zenith.graphnet.util.HttpFutures;
+import org.zenith.graphnet.util.HttpStatusException;
+import org.zenith.graphnet.util.StreamingRequestBody;
 
 import java.io.File;
+import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 
-public class HttpMicroserviceCommunicator implements MicroserviceCommunicator {
+public class HttpMicroserviceCommunicator implements AsyncMicroserviceCommunicator {
 
+    private static final String GRAPH_UPLOAD_ENDPOINT = "/dependency/push-dgraph";
+    // Graph files can be large, allow more than the transport's default call timeout
+    private static final long GRAPH_UPLOAD_TIMEOUT_SECONDS = 300;
+
+    // Overrides the URL from the settings when set
     private String baseUrl;
-    private final OkHttpClient httpClient;
-    private final ObjectMapper objectMapper;
+    private final MicroserviceTransport transport;
 
     public HttpMicroserviceCommunicator() {
-        this.baseUrl = "http://localhost:8080/dependency/push-dgraph";
-        this.objectMapper = new ObjectMapper();
-        this.httpClient = new OkHttpClient.Builder()
-                .connectTimeout(30, TimeUnit.SECONDS)
-                .readTimeout(200, TimeUnit.SECONDS)
-                .writeTimeout(200, TimeUnit.SECONDS)
-                .build();
+        this.transport = MicroserviceTransport.getInstance();
     }
 
     @Override
@@ -35,12 +43,61 @@ public class HttpMicroserviceCommunicator implements MicroserviceCommunicator {
 
     @Override
     public void sendDependencyGraph() throws Exception {
+        await(sendDependencyGraphAsync());
+    }
+
+    @Override
+    public CompletableFuture<Void> sendDependencyGraphAsync() {
         // read the current dependency graph from the specified source path
 //        String sourcePath = System.getProperty("user.dir") + "/dependency-graph.json";
         String graphFile = "C:/Users/w191728/WGSGoogleHckathon/TestingImpactAnalysis/DemoCode/angular-springboot-ecommerce/backend/dependency-graph.md";
-        Path graphFilePath = Paths.get(graphFile);
-        String mimeTypeString = Files.probeContentType(graphFilePath);
-        MediaType mediaType = MediaType.parse(mimeTypeString);
+        return sendDependencyGraphAsync(Paths.get(graphFile));
+    }
+
+    /**
+     * Uploads the graph file in resumable chunks on a pooled thread. Servers without the chunked
+     * upload endpoint get the whole file as a single multipart upload instead.
+     */
+    @Override
+    public CompletableFuture<Void> sendDependencyGraphAsync(Path graphFilePath) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        String endpoint = getBaseUrl() + GRAPH_UPLOAD_ENDPOINT;
+        ChunkedFileUpload upload = new ChunkedFileUpload(transport.getClient(), endpoint, graphFilePath,
+                ChunkedFileUpload.DEFAULT_CHUNK_SIZE);
+
+        AppExecutorUtil.getAppExecutorService().execute(() -> {
+            try {
+                upload.upload(result::isDone);
+                result.complete(null);
+            } catch (HttpStatusException e) {
+                int status = e.getStatusCode();
+                if (status == 404 || status == 405 || status == 501) {
+                    System.out.println("Microservice has no chunked upload endpoint, sending the graph file whole");
+                    sendGraphFileWhole(graphFilePath).whenComplete((value, error) -> {
+                        if (error != null) {
+                            result.completeExceptionally(error);
+                        } else {
+                            result.complete(null);
+                        }
+                    });
+                } else {
+                    result.completeExceptionally(e);
+                }
+            } catch (Exception e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    private CompletableFuture<Void> sendGraphFileWhole(Path graphFilePath) {
+        String mimeTypeString;
+        try {
+            mimeTypeString = Files.probeContentType(graphFilePath);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        MediaType mediaType = mimeTypeString != null ? MediaType.parse(mimeTypeString) : null;
 
         // Convert Path to File for RequestBody.create
         File fileToUpload = graphFilePath.toFile();
@@ -60,64 +117,87 @@ public class HttpMicroserviceCommunicator implements MicroserviceCommunicator {
                 .build();
 
         Request request = new Request.Builder()
-                .url(baseUrl)
+                .url(getBaseUrl() + GRAPH_UPLOAD_ENDPOINT)
                 .post(requestBody)
                 .build();
 
-        try (Response response = httpClient.newCall(request).execute()) {
-            if (!response.isSuccessful()) {
-                throw new Exception("Failed to send dependency graph. Status: " + response.code());
-            }
-        }
+        Call call = transport.getClient().newCall(request);
+        call.timeout().timeout(GRAPH_UPLOAD_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        return HttpFutures.enqueue(call, response -> {
+            HttpFutures.successfulBody(response, "Failed to send dependency graph.");
+            return null;
+        });
     }
 
     @Override
     public void sendGitDiff(GitDiffData diffData) throws Exception {
-        // execute git diff command and capture output
-
-        String json = objectMapper.writeValueAsString(diffData);
+        await(sendGitDiffAsync(diffData));
+    }
 
-        RequestBody body = RequestBody.create(
-                json,
-                MediaType.get("application/json; charset=utf-8")
-        );
+    @Override
+    public CompletableFuture<Void> sendGitDiffAsync(GitDiffData diffData) {
+        String url = getBaseUrl() + "/git-diff";
+        RequestBody body = StreamingRequestBody.of(transport.getPayloadFormatNegotiator().select(url), diffData);
 
         Request request = new Request.Builder()
-                .url(baseUrl + "/git-diff")
+                .url(url)
                 .post(body)
-                .addHeader("Content-Type", "application/json")
                 .build();
 
-        try (Response response = httpClient.newCall(request).execute()) {
-            if (!response.isSuccessful()) {
-                throw new Exception("Failed to send git diff. Status: " + response.code());
-            }
-        }
+        return HttpFutures.enqueue(transport.getClient().newCall(request), response -> {
+            HttpFutures.successfulBody(response, "Failed to send git diff.");
+            return null;
+        });
     }
 
     @Override
     public boolean testConnection() {
         try {
-            Request request = new Request.Builder()
-                    .url(baseUrl + "/health")
-                    .get()
-                    .build();
-
-            try (Response response = httpClient.newCall(request).execute()) {
-                return response.isSuccessful();
-            }
-        } catch (Exception e) {
+            return testConnectionAsync().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
             return false;
         }
     }
 
+    @Override
+    public CompletableFuture<Boolean> testConnectionAsync() {
+        Request request = new Request.Builder()
+                .url(getBaseUrl() + "/health")
+                .get()
+                .build();
+
+        return HttpFutures.enqueue(transport.getClient().newCall(request), Response::isSuccessful)
+                .exceptionally(e -> false);
+    }
+
     @Override
     public String getBaseUrl() {
-        return baseUrl;
+        return baseUrl != null ? baseUrl : transport.getBaseUrl();
     }
 
     @Override
     public void setBaseUrl(String baseUrl) {
         this.baseUrl = baseUrl;
     }
+
+    /**
+     * Blocks on an async call for callers of the synchronous API, rethrowing its failure
+     */
+    private static void await(CompletableFuture<?> future) throws Exception {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw e;
+        } catch (ExecutionException | CompletionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : e;
+        } catch (CancellationException e) {
+            throw new IOException("Request cancelled", e);
+        }
+    }
 }
\ No newline at end of file
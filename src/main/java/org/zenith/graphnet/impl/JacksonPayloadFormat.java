@@ -0,0 +1,87 @@
+package org.zenith.graphnet.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORGenerator;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.zenith.graphnet.api.PayloadFormat;
+
+import java.util.List;
+
+/**
+ * Jackson backed payload formats. Smile and CBOR are binary encodings of the same
+ * data model as JSON. Smile writes repeated field names once and refers back to them,
+ * but its shared string values only cover values of at most 64 bytes: package and
+ * class names are shared, longer absolute file paths are written out every time.
+ * CBOR stringref tags refer back to repeated strings of any length, paths included.
+ */
+public class JacksonPayloadFormat implements PayloadFormat {
+
+    public static final JacksonPayloadFormat JSON = new JacksonPayloadFormat("json", "application/json; charset=utf-8",
+            new ObjectMapper());
+
+    public static final JacksonPayloadFormat SMILE = new JacksonPayloadFormat("smile", "application/x-jackson-smile",
+            new ObjectMapper(SmileFactory.builder()
+                    .enable(SmileGenerator.Feature.CHECK_SHARED_NAMES)
+                    .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                    .build()));
+
+    public static final JacksonPayloadFormat CBOR = new JacksonPayloadFormat("cbor", "application/cbor",
+            new ObjectMapper(CBORFactory.builder()
+                    .enable(CBORGenerator.Feature.STRINGREF)
+                    .build()));
+
+    // Preferred first: CBOR also writes each repeated file path once, Smile only short values
+    private static final List<JacksonPayloadFormat> ALL = List.of(CBOR, SMILE, JSON);
+
+    private final String name;
+    private final String mediaType;
+    private final ObjectMapper objectMapper;
+
+    private JacksonPayloadFormat(String name, String mediaType, ObjectMapper objectMapper) {
+        this.name = name;
+        this.mediaType = mediaType;
+        this.objectMapper = objectMapper;
+    }
+
+    public static List<JacksonPayloadFormat> all() {
+        return ALL;
+    }
+
+    /**
+     * Format with the given settings name, or null if unknown
+     */
+    public static JacksonPayloadFormat forName(String name) {
+        for (JacksonPayloadFormat format : ALL) {
+            if (format.name.equalsIgnoreCase(name)) return format;
+        }
+        return null;
+    }
+
+    /**
+     * Format for a media type such as "application/cbor", parameters are ignored
+     */
+    public static JacksonPayloadFormat forMediaType(String mediaType) {
+        String type = mediaType.split(";", 2)[0].trim();
+        for (JacksonPayloadFormat format : ALL) {
+            if (format.mediaType.split(";", 2)[0].equalsIgnoreCase(type)) return format;
+        }
+        return null;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    @Override
+    public ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+}
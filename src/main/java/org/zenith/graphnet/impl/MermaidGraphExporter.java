@@ -0,0 +1,76 @@
+package org.zenith.graphnet.impl;
+
+import org.zenith.graphnet.api.GraphExporter;
+import org.zenith.graphnet.model.DependencyGraph;
+import org.zenith.graphnet.model.FileNode;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Mermaid flowchart with one subgraph per package. Markdown targets get the chart in a
+ * mermaid code block, .mmd targets the bare chart.
+ */
+public class MermaidGraphExporter implements GraphExporter {
+
+    private final boolean markdown;
+
+    public MermaidGraphExporter(boolean markdown) {
+        this.markdown = markdown;
+    }
+
+    @Override
+    public String getName() {
+        return markdown ? "Mermaid (Markdown)" : "Mermaid";
+    }
+
+    @Override
+    public boolean accepts(String fileName) {
+        return markdown ? fileName.endsWith(".md") : fileName.endsWith(".mmd") || fileName.endsWith(".mermaid");
+    }
+
+    @Override
+    public void export(DependencyGraph graph, Writer out) throws IOException {
+        Map<String, String> ids = GraphExporters.assignIds(graph);
+        Map<String, FileNode> nodesByPath = GraphExporters.nodesByPath(graph);
+
+        if (markdown) out.write("```mermaid\n");
+        out.write("flowchart LR\n");
+
+        int subgraph = 0;
+        for (Map.Entry<String, List<String>> entry : GraphExporters.filesByPackage(graph, ids).entrySet()) {
+            boolean grouped = !entry.getKey().isEmpty();
+            if (grouped) {
+                out.write("  subgraph p" + subgraph++ + "[\"" + escape(entry.getKey()) + "\"]\n");
+            }
+            for (String path : entry.getValue()) {
+                out.write(grouped ? "    " : "  ");
+                out.write(ids.get(path));
+                out.write("[\"");
+                out.write(escape(GraphExporters.label(path, nodesByPath.get(path))));
+                out.write("\"]\n");
+            }
+            if (grouped) out.write("  end\n");
+        }
+
+        for (Map.Entry<String, Set<String>> edge : GraphExporters.edges(graph).entrySet()) {
+            String from = ids.get(edge.getKey());
+            for (String target : edge.getValue()) {
+                out.write("  ");
+                out.write(from);
+                out.write(" --> ");
+                out.write(ids.get(target));
+                out.write('\n');
+            }
+        }
+
+        if (markdown) out.write("```\n");
+    }
+
+    private static String escape(String text) {
+        return text.replace("\"", "#quot;").replace("<", "#lt;").replace(">", "#gt;");
+    }
+}
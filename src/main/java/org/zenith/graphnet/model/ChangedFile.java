@@ -1,5 +1,10 @@
 package org.zenith.graphnet.model;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 public class ChangedFile {
     public String path;
     public String status;
@@ -7,6 +12,14 @@ public class ChangedFile {
     public int additions;
     public int deletions;
     public String diff;
+    public List<DiffHunk> hunks = new ArrayList<>();
+    // Types and members ("Type" or "Type#member") touched by the hunks
+    public Set<String> changedSymbols;
+    // Set when hunks were dropped to stay within the diff byte budget
+    public boolean truncated;
+    public int omittedHunks;
+    public long omittedBytes;
+    public String omittedDigest;
 
     // Constructor, getters, setters
     public ChangedFile(String path, String status, int additions, int deletions, String diff) {
@@ -17,4 +30,25 @@ public class ChangedFile {
         this.linesChanged = additions + deletions;
         this.diff = diff;
     }
+
+    // Summary entry, the diff is loaded later if needed
+    public ChangedFile(String path, String status, int additions, int deletions) {
+        this(path, status, additions, deletions, null);
+    }
+
+    // Copy with its own hunk list and symbol set
+    public ChangedFile(ChangedFile other) {
+        this.path = other.path;
+        this.status = other.status;
+        this.linesChanged = other.linesChanged;
+        this.additions = other.additions;
+        this.deletions = other.deletions;
+        this.diff = other.diff;
+        this.hunks = other.hunks != null ? new ArrayList<>(other.hunks) : null;
+        this.changedSymbols = other.changedSymbols != null ? new HashSet<>(other.changedSymbols) : null;
+        this.truncated = other.truncated;
+        this.omittedHunks = other.omittedHunks;
+        this.omittedBytes = other.omittedBytes;
+        this.omittedDigest = other.omittedDigest;
+    }
 }
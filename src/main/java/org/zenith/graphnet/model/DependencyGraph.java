@@ -9,6 +9,7 @@ public class DependencyGraph {
     private Map<String, Set<String>> edges;
     private String projectName;
     private long generatedAt;
+    private long version;
 
     // Constructors
     public DependencyGraph() {}
@@ -25,4 +26,7 @@ public class DependencyGraph {
 
     public long getGeneratedAt() { return generatedAt; }
     public void setGeneratedAt(long generatedAt) { this.generatedAt = generatedAt; }
+
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
 }
\ No newline at end of file
@@ -0,0 +1,27 @@
+package org.zenith.graphnet.model;
+
+public class DiffHunk {
+    public int oldStart;
+    public int oldCount;
+    public int newStart;
+    public int newCount;
+    // Range of new-file lines actually touched by +/- lines, context excluded
+    public int changedFrom;
+    public int changedTo;
+
+    public DiffHunk() {}
+
+    public DiffHunk(int oldStart, int oldCount, int newStart, int newCount) {
+        this.oldStart = oldStart;
+        this.oldCount = oldCount;
+        this.newStart = newStart;
+        this.newCount = newCount;
+        this.changedFrom = -1;
+        this.changedTo = -1;
+    }
+
+    public void markChanged(int line) {
+        if (changedFrom < 0 || line < changedFrom) changedFrom = line;
+        if (line > changedTo) changedTo = line;
+    }
+}
@@ -1,5 +1,6 @@
 package org.zenith.graphnet.model;
 
+import java.util.HashSet;
 import java.util.Set;
 
 public class FileNode {
@@ -10,10 +11,23 @@ public class FileNode {
     private Set<String> imports;
     private Set<String> dependencies;
     private int lineCount;
+    private boolean testSource;
 
     // Constructors
     public FileNode() {}
 
+    // Copy with its own import and dependency sets
+    public FileNode(FileNode other) {
+        this.filePath = other.filePath;
+        this.fileName = other.fileName;
+        this.packageName = other.packageName;
+        this.className = other.className;
+        this.imports = other.imports != null ? new HashSet<>(other.imports) : null;
+        this.dependencies = other.dependencies != null ? new HashSet<>(other.dependencies) : null;
+        this.lineCount = other.lineCount;
+        this.testSource = other.testSource;
+    }
+
     // Getters and Setters
     public String getFilePath() { return filePath; }
     public void setFilePath(String filePath) { this.filePath = filePath; }
@@ -35,4 +49,7 @@ public class FileNode {
 
     public int getLineCount() { return lineCount; }
     public void setLineCount(int lineCount) { this.lineCount = lineCount; }
+
+    public boolean isTestSource() { return testSource; }
+    public void setTestSource(boolean testSource) { this.testSource = testSource; }
 }
\ No newline at end of file
@@ -9,6 +9,8 @@ public class GitDiffData {
     private String sourceBranch;
     private String targetBranch;
     private List<ChangedFile> changedFiles;
+    private List<TestSelection> impactedTests;
+    private DependencyGraph impactGraph;
 
     public List<ChangedFile> getChangedFiles() {
         return changedFiles;
@@ -18,6 +20,22 @@ public class GitDiffData {
         this.changedFiles = changedFiles;
     }
 
+    public List<TestSelection> getImpactedTests() {
+        return impactedTests;
+    }
+
+    public void setImpactedTests(List<TestSelection> impactedTests) {
+        this.impactedTests = impactedTests;
+    }
+
+    public DependencyGraph getImpactGraph() {
+        return impactGraph;
+    }
+
+    public void setImpactGraph(DependencyGraph impactGraph) {
+        this.impactGraph = impactGraph;
+    }
+
     public String getMrId() {
         return mrId;
     }
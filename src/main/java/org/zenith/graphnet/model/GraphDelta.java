@@ -0,0 +1,55 @@
+package org.zenith.graphnet.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Changes of the dependency graph since the version the server acknowledged.
+ * Upserted nodes are new or changed, edges are listed per source file.
+ */
+public class GraphDelta {
+    private String projectName;
+    private long baseVersion;
+    private long version;
+    private long generatedAt;
+    private List<FileNode> upsertedNodes;
+    private List<String> removedNodes;
+    private Map<String, Set<String>> addedEdges;
+    private Map<String, Set<String>> removedEdges;
+
+    // Constructors
+    public GraphDelta() {}
+
+    @JsonIgnore
+    public boolean isEmpty() {
+        return upsertedNodes.isEmpty() && removedNodes.isEmpty() && addedEdges.isEmpty() && removedEdges.isEmpty();
+    }
+
+    // Getters and Setters
+    public String getProjectName() { return projectName; }
+    public void setProjectName(String projectName) { this.projectName = projectName; }
+
+    public long getBaseVersion() { return baseVersion; }
+    public void setBaseVersion(long baseVersion) { this.baseVersion = baseVersion; }
+
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
+
+    public long getGeneratedAt() { return generatedAt; }
+    public void setGeneratedAt(long generatedAt) { this.generatedAt = generatedAt; }
+
+    public List<FileNode> getUpsertedNodes() { return upsertedNodes; }
+    public void setUpsertedNodes(List<FileNode> upsertedNodes) { this.upsertedNodes = upsertedNodes; }
+
+    public List<String> getRemovedNodes() { return removedNodes; }
+    public void setRemovedNodes(List<String> removedNodes) { this.removedNodes = removedNodes; }
+
+    public Map<String, Set<String>> getAddedEdges() { return addedEdges; }
+    public void setAddedEdges(Map<String, Set<String>> addedEdges) { this.addedEdges = addedEdges; }
+
+    public Map<String, Set<String>> getRemovedEdges() { return removedEdges; }
+    public void setRemovedEdges(Map<String, Set<String>> removedEdges) { this.removedEdges = removedEdges; }
+}
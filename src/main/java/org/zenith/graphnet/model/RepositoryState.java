@@ -0,0 +1,32 @@
+package org.zenith.graphnet.model;
+
+public class RepositoryState {
+    private String repositoryName;
+    private String currentBranch;
+    private String targetBranch;
+    private String headCommit;
+    private String mergeBaseCommit;
+    private String author;
+
+    // Constructors
+    public RepositoryState() {}
+
+    // Getters and Setters
+    public String getRepositoryName() { return repositoryName; }
+    public void setRepositoryName(String repositoryName) { this.repositoryName = repositoryName; }
+
+    public String getCurrentBranch() { return currentBranch; }
+    public void setCurrentBranch(String currentBranch) { this.currentBranch = currentBranch; }
+
+    public String getTargetBranch() { return targetBranch; }
+    public void setTargetBranch(String targetBranch) { this.targetBranch = targetBranch; }
+
+    public String getHeadCommit() { return headCommit; }
+    public void setHeadCommit(String headCommit) { this.headCommit = headCommit; }
+
+    public String getMergeBaseCommit() { return mergeBaseCommit; }
+    public void setMergeBaseCommit(String mergeBaseCommit) { this.mergeBaseCommit = mergeBaseCommit; }
+
+    public String getAuthor() { return author; }
+    public void setAuthor(String author) { this.author = author; }
+}
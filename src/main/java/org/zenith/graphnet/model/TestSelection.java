@@ -0,0 +1,27 @@
+package org.zenith.graphnet.model;
+
+import java.util.Set;
+
+public class TestSelection {
+    private String testFilePath;
+    private String testClassName;
+    private int distance;
+    private Set<String> changedFiles;
+
+    // Constructors
+    public TestSelection() {}
+
+    // Getters and Setters
+    public String getTestFilePath() { return testFilePath; }
+    public void setTestFilePath(String testFilePath) { this.testFilePath = testFilePath; }
+
+    public String getTestClassName() { return testClassName; }
+    public void setTestClassName(String testClassName) { this.testClassName = testClassName; }
+
+    // Dependency hops between the closest changed file and this test
+    public int getDistance() { return distance; }
+    public void setDistance(int distance) { this.distance = distance; }
+
+    public Set<String> getChangedFiles() { return changedFiles; }
+    public void setChangedFiles(Set<String> changedFiles) { this.changedFiles = changedFiles; }
+}
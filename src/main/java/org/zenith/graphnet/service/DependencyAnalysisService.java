@@ -1,109 +1,305 @@
 package org.zenith.graphnet.service;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.intellij.openapi.Disposable;
 import com.intellij.openapi.application.ReadAction;
 import com.intellij.openapi.components.Service;
+import com.intellij.openapi.fileEditor.FileEditorManager;
+import com.intellij.openapi.fileEditor.ex.IdeDocumentHistory;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.vcs.changes.ChangeListManager;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.search.FileTypeIndex;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.openapi.fileTypes.FileType;
 import com.intellij.openapi.fileTypes.FileTypeManager;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import okhttp3.*;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.zenith.graphnet.api.ChangeCollector;
+import org.zenith.graphnet.api.GraphExporter;
+import org.zenith.graphnet.api.PayloadFormat;
+import org.zenith.graphnet.impl.JacksonPayloadFormat;
+import org.zenith.graphnet.impl.Git4IdeaChangeCollector;
+import org.zenith.graphnet.impl.GraphExporters;
+import org.zenith.graphnet.impl.GitProcessChangeCollector;
 import org.zenith.graphnet.model.ChangedFile;
+import org.zenith.graphnet.model.DiffHunk;
 import org.zenith.graphnet.model.DependencyGraph;
 import org.zenith.graphnet.model.FileNode;
 import org.zenith.graphnet.model.GitDiffData;
-import org.zenith.graphnet.util.GitDiffParser;
+import org.zenith.graphnet.model.GraphDelta;
+import org.zenith.graphnet.model.RepositoryState;
+import org.zenith.graphnet.model.TestSelection;
+import org.zenith.graphnet.util.DiffBudget;
+import org.zenith.graphnet.util.DiffFilter;
+import org.zenith.graphnet.util.FileSearchIndex;
+import org.zenith.graphnet.util.GraphBatchExporter;
+import org.zenith.graphnet.util.GraphDetailReducer;
+import org.zenith.graphnet.util.GraphDeltaTracker;
+import org.zenith.graphnet.util.HttpFutures;
+import org.zenith.graphnet.util.HttpStatusException;
+import org.zenith.graphnet.util.JavaSymbolIndex;
+import org.zenith.graphnet.util.SendScheduler;
+import org.zenith.graphnet.util.StreamingRequestBody;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 @Service(Service.Level.PROJECT)
-public final class DependencyAnalysisService {
+public final class DependencyAnalysisService implements Disposable {
 
     private final Project project;
     private final Map<String, FileNode> fileNodes;
     private final Map<String, Set<String>> dependencyGraph;
-    private final OkHttpClient httpClient;
-    private final ObjectMapper objectMapper;
+    private final Map<String, Set<String>> dependentsGraph;
+    private final Map<String, JavaSymbolIndex> symbolIndexes;
+    private final ChangeCollector nativeChangeCollector;
+    private final ChangeCollector processChangeCollector;
+    private final Map<String, List<ChangedFile>> mergeRequestDiffCache;
+    // Uploads still in flight, cancelled when the project closes
+    private final Set<CompletableFuture<?>> pendingRequests = ConcurrentHashMap.newKeySet();
+    private final GraphDeltaTracker graphDeltaTracker = new GraphDeltaTracker();
+    private final SendScheduler sendScheduler = new SendScheduler(AppExecutorUtil.getAppScheduledExecutorService(),
+            () -> GraphNetSettingsService.getInstance().getSendDebounceMs());
+    private volatile boolean deltaSyncSupported = true;
+    // Content hash of the last git diff sent or queued, per upload URL
+    private final Map<String, String> lastSentDiffHashes = new ConcurrentHashMap<>();
+    // Set by an explicit request, the next git diff upload is sent even if it is unchanged
+    private final AtomicBoolean forceNextDiffUpload = new AtomicBoolean();
+    // Name search over the files of the last analysis, replaced as a whole after each one
+    private volatile FileSearchIndex fileSearchIndex = FileSearchIndex.EMPTY;
+    private final List<AnalysisListener> analysisListeners = new CopyOnWriteArrayList<>();
+    // One analysis at a time, a second request waits and then runs on fresh file contents
+    private final Object analysisLock = new Object();
+    // Background analysis in progress, requests made meanwhile join it
+    private CompletableFuture<Void> runningAnalysis;
+    private volatile long lastAnalysisCompletedNanos;
     private boolean initialized = false;
 
-    // Microservice configuration
-    private static final String MICROSERVICE_URL = "http://localhost:8000";
+    private static final ObjectMapper CONTENT_HASH_MAPPER = JacksonPayloadFormat.JSON.getObjectMapper().copy()
+            .addMixIn(DependencyGraph.class, WithoutGeneratedAt.class);
+
+    // Microservice endpoints, relative to the URL from the settings
     private static final String GIT_DIFF_ENDPOINT = "/repository/perform-mr-metrics";
     private static final String ANALYZE_ENDPOINT = "/analyze";
+    private static final String ANALYZE_DELTA_ENDPOINT = "/analyze/delta";
+    private static final int MERGE_REQUEST_DIFF_CACHE_SIZE = 8;
+    private static final int MAX_EXPORT_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    // Snapshots are published at doubling file counts, starting here when nothing has priority
+    private static final int MIN_SNAPSHOT_FILES = 500;
+    // An analysis requested this soon after the last one completed reuses its results
+    private static final long ANALYSIS_REUSE_NANOS = TimeUnit.SECONDS.toNanos(30);
+    // The impact neighborhood shows what the seed files use one level deep, and stops growing at this size
+    private static final int MAX_IMPACT_NEIGHBORHOOD_FILES = 2_000;
 
     // Regex patterns for dependency detection
     private static final Pattern IMPORT_PATTERN = Pattern.compile("^\\s*import\\s+([^;]+);.*$", Pattern.MULTILINE);
     private static final Pattern PACKAGE_PATTERN = Pattern.compile("^\\s*package\\s+([^;]+);.*$", Pattern.MULTILINE);
     private static final Pattern CLASS_PATTERN = Pattern.compile("\\b(class|interface|enum)\\s+([A-Za-z_][A-Za-z0-9_]*)");
+    private static final Pattern TEST_CLASS_NAME_PATTERN = Pattern.compile("(?:(\\w+?)(?:Tests?|IT)|Test(\\w+))");
 
     public DependencyAnalysisService(@NotNull Project project) {
         this.project = project;
-        this.fileNodes = new HashMap<>();
-        this.dependencyGraph = new HashMap<>();
-        this.objectMapper = new ObjectMapper();
+        // Read by the UI while an analysis publishes snapshots
+        this.fileNodes = new ConcurrentHashMap<>();
+        this.dependencyGraph = new ConcurrentHashMap<>();
+        this.dependentsGraph = new ConcurrentHashMap<>();
+        this.symbolIndexes = new ConcurrentHashMap<>();
+        this.nativeChangeCollector = new Git4IdeaChangeCollector(project);
+        this.processChangeCollector = new GitProcessChangeCollector(project);
+        this.mergeRequestDiffCache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, List<ChangedFile>> eldest) {
+                return size() > MERGE_REQUEST_DIFF_CACHE_SIZE;
+            }
+        };
+    }
+
+    /**
+     * Notified on the analysis thread whenever a snapshot of the graph has been published
+     */
+    public interface AnalysisListener {
+        void snapshotPublished(int parsedFiles, int totalFiles, boolean complete);
+    }
 
-        // Configure HTTP client
-        this.httpClient = new OkHttpClient.Builder()
-                .connectTimeout(30, TimeUnit.SECONDS)
-                .readTimeout(60, TimeUnit.SECONDS)
-                .writeTimeout(60, TimeUnit.SECONDS)
-                .build();
+    private record ParseOrder(List<VirtualFile> files, int priorityCount) {
     }
 
     public static DependencyAnalysisService getInstance(@NotNull Project project) {
         return project.getService(DependencyAnalysisService.class);
     }
 
-    public void initialize() {
+    /**
+     * Start the first analysis of the project in the background
+     */
+    public synchronized void initialize() {
         if (initialized) return;
 
         System.out.println("Initializing dependency analysis for: " + project.getName());
-        analyzeDependencies();
         initialized = true;
+        analyzeDependenciesAsync();
     }
 
+    /**
+     * Parse every Java file of the project and rebuild the graph. Files open in editors, recently
+     * changed files and files in the VCS change set are parsed first and published as a snapshot
+     * of their own; the rest follows, with a snapshot each time the parsed count doubles. The
+     * previous results stay readable until they are replaced.
+     */
     public void analyzeDependencies() {
-        // Clear existing data
-        fileNodes.clear();
-        dependencyGraph.clear();
+        synchronized (analysisLock) {
+            System.out.println("Starting comprehensive dependency analysis...");
+            long start = System.nanoTime();
+
+            try {
+                // Get project base directory
+                VirtualFile baseDir = project.getBaseDir();
+                if (baseDir == null) {
+                    System.err.println("Project base directory not found");
+                    return;
+                }
 
-        System.out.println("Starting comprehensive dependency analysis...");
+                // Find all Java files
+                Collection<VirtualFile> javaFiles = findJavaFiles();
+                System.out.println("Found " + javaFiles.size() + " Java files");
+
+                ParseOrder order = prioritize(javaFiles);
+                List<VirtualFile> files = order.files();
+                Set<String> found = new HashSet<>();
+                int nextSnapshot = order.priorityCount() > 0 ? order.priorityCount() : MIN_SNAPSHOT_FILES;
+
+                // Parse each Java file, publishing partial graphs along the way
+                for (int i = 0; i < files.size(); i++) {
+                    VirtualFile file = files.get(i);
+                    parseJavaFile(file);
+                    found.add(file.getPath());
+
+                    int parsed = i + 1;
+                    if (parsed == nextSnapshot && parsed < files.size()) {
+                        publishSnapshot(parsed, files.size(), false, start);
+                        nextSnapshot = Math.max(parsed * 2, MIN_SNAPSHOT_FILES);
+                    }
+                }
 
-        try {
-            // Get project base directory
-            VirtualFile baseDir = project.getBaseDir();
-            if (baseDir == null) {
-                System.err.println("Project base directory not found");
-                return;
-            }
+                // Files deleted since the last analysis
+                fileNodes.keySet().retainAll(found);
+                dependencyGraph.keySet().retainAll(found);
+                symbolIndexes.keySet().retainAll(found);
+                publishSnapshot(files.size(), files.size(), true, start);
+                lastAnalysisCompletedNanos = System.nanoTime();
 
-            // Find all Java files
-            Collection<VirtualFile> javaFiles = findJavaFiles();
-            System.out.println("Found " + javaFiles.size() + " Java files");
+                System.out.println("Dependency analysis completed. Found " + fileNodes.size() + " files with dependencies");
 
-            // Parse each Java file
-            for (VirtualFile file : javaFiles) {
-                parseJavaFile(file);
+            } catch (Exception e) {
+                System.err.println("Error during dependency analysis: " + e.getMessage());
+                e.printStackTrace();
             }
+        }
+    }
 
-            // Build dependency relationships
-            buildDependencyRelationships();
+    /**
+     * Run the analysis on a pooled thread; snapshots arrive through the analysis listeners. A request
+     * made while an analysis runs joins it, and one made shortly after an analysis completed only
+     * republishes its results, so opening the project and its tool window costs a single analysis.
+     */
+    public synchronized CompletableFuture<Void> analyzeDependenciesAsync() {
+        if (runningAnalysis != null) {
+            return runningAnalysis;
+        }
+        long completed = lastAnalysisCompletedNanos;
+        if (completed != 0 && System.nanoTime() - completed < ANALYSIS_REUSE_NANOS) {
+            notifyAnalysisListeners(fileNodes.size(), fileNodes.size(), true);
+            return CompletableFuture.completedFuture(null);
+        }
 
-            System.out.println("Dependency analysis completed. Found " + fileNodes.size() + " files with dependencies");
+        CompletableFuture<Void> analysis = CompletableFuture.runAsync(this::analyzeDependencies, AppExecutorUtil.getAppExecutorService());
+        runningAnalysis = analysis;
+        analysis.whenComplete((result, error) -> analysisFinished(analysis));
+        return analysis;
+    }
 
-        } catch (Exception e) {
-            System.err.println("Error during dependency analysis: " + e.getMessage());
-            e.printStackTrace();
+    private synchronized void analysisFinished(CompletableFuture<Void> analysis) {
+        if (runningAnalysis == analysis) runningAnalysis = null;
+    }
+
+    public void addAnalysisListener(AnalysisListener listener, Disposable parentDisposable) {
+        analysisListeners.add(listener);
+        Disposer.register(parentDisposable, () -> analysisListeners.remove(listener));
+    }
+
+    /**
+     * Order the files so that the ones the developer is working on are parsed first: the selected
+     * and open editors, recently changed files, then the VCS change set. Best effort, without
+     * them the files are parsed in index order.
+     */
+    private ParseOrder prioritize(Collection<VirtualFile> javaFiles) {
+        List<VirtualFile> wanted = new ArrayList<>();
+        try {
+            ReadAction.run(() -> {
+                FileEditorManager editors = FileEditorManager.getInstance(project);
+                wanted.addAll(Arrays.asList(editors.getSelectedFiles()));
+                wanted.addAll(Arrays.asList(editors.getOpenFiles()));
+                wanted.addAll(Arrays.asList(IdeDocumentHistory.getInstance(project).getChangedFiles()));
+                wanted.addAll(ChangeListManager.getInstance(project).getAffectedFiles());
+            });
+        } catch (RuntimeException e) {
+            System.err.println("Could not determine files to analyze first: " + e.getMessage());
+        }
+
+        Set<VirtualFile> remaining = new LinkedHashSet<>(javaFiles);
+        List<VirtualFile> ordered = new ArrayList<>(remaining.size());
+        for (VirtualFile file : wanted) {
+            if (remaining.remove(file)) ordered.add(file);
+        }
+        int priorityCount = ordered.size();
+        ordered.addAll(remaining);
+        return new ParseOrder(ordered, priorityCount);
+    }
+
+    private void publishSnapshot(int parsedFiles, int totalFiles, boolean complete, long start) {
+        buildDependencyRelationships();
+        fileSearchIndex = FileSearchIndex.build(fileNodes.values());
+        if (!complete) {
+            System.out.println("Published partial dependency graph: " + parsedFiles + " of " + totalFiles + " files after "
+                    + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+        }
+
+        notifyAnalysisListeners(parsedFiles, totalFiles, complete);
+    }
+
+    private void notifyAnalysisListeners(int parsedFiles, int totalFiles, boolean complete) {
+        for (AnalysisListener listener : analysisListeners) {
+            try {
+                listener.snapshotPublished(parsedFiles, totalFiles, complete);
+            } catch (RuntimeException e) {
+                System.err.println("Analysis listener failed: " + e.getMessage());
+            }
         }
     }
 
@@ -128,18 +324,26 @@ public final class DependencyAnalysisService {
             fileNode.setImports(extractImports(content));
             fileNode.setDependencies(new HashSet<>());
             fileNode.setLineCount(content.split("\n").length);
+            fileNode.setTestSource(isTestSource(file));
 
             // Store file node
             fileNodes.put(filePath, fileNode);
 
             // Initialize dependency set
-            dependencyGraph.put(filePath, new HashSet<>());
+            dependencyGraph.putIfAbsent(filePath, new HashSet<>());
+
+            // Declaration line index for mapping diff hunks to types and members
+            symbolIndexes.put(filePath, JavaSymbolIndex.build(content));
 
         } catch (IOException e) {
             System.err.println("Error reading file: " + file.getPath() + " - " + e.getMessage());
         }
     }
 
+    private boolean isTestSource(VirtualFile file) {
+        return ReadAction.compute(() -> ProjectFileIndex.getInstance(project).isInTestSourceContent(file));
+    }
+
     private String extractPackageName(String content) {
         Matcher matcher = PACKAGE_PATTERN.matcher(content);
         if (matcher.find()) {
@@ -172,17 +376,11 @@ public final class DependencyAnalysisService {
 
     private void buildDependencyRelationships() {
         // Build mapping of class names to file paths
-        Map<String, String> classToFileMap = new HashMap<>();
-        Map<String, String> packageToFileMap = new HashMap<>();
+        Map<String, String> classToFileMap = buildClassToFileMap();
+        Map<String, String> packageToFileMap = buildPackageToFileMap();
 
-        for (FileNode node : fileNodes.values()) {
-            if (node.getClassName() != null && !node.getClassName().isEmpty()) {
-                classToFileMap.put(node.getClassName(), node.getFilePath());
-            }
-            if (node.getPackageName() != null && !node.getPackageName().isEmpty()) {
-                packageToFileMap.put(node.getPackageName(), node.getFilePath());
-            }
-        }
+        // Reverse edges are collected aside and swapped in, readers never see them half built
+        Map<String, Set<String>> dependents = new HashMap<>();
 
         // Analyze dependencies for each file
         for (FileNode sourceNode : fileNodes.values()) {
@@ -200,7 +398,35 @@ public final class DependencyAnalysisService {
             // Update dependencies
             sourceNode.setDependencies(dependencies);
             dependencyGraph.put(sourceNode.getFilePath(), dependencies);
+
+            // Reverse edges for impact lookups
+            for (String dependency : dependencies) {
+                dependents.computeIfAbsent(dependency, k -> new HashSet<>()).add(sourceNode.getFilePath());
+            }
         }
+
+        dependentsGraph.keySet().retainAll(dependents.keySet());
+        dependentsGraph.putAll(dependents);
+    }
+
+    private Map<String, String> buildClassToFileMap() {
+        Map<String, String> classToFileMap = new HashMap<>();
+        for (FileNode node : fileNodes.values()) {
+            if (node.getClassName() != null && !node.getClassName().isEmpty()) {
+                classToFileMap.put(node.getClassName(), node.getFilePath());
+            }
+        }
+        return classToFileMap;
+    }
+
+    private Map<String, String> buildPackageToFileMap() {
+        Map<String, String> packageToFileMap = new HashMap<>();
+        for (FileNode node : fileNodes.values()) {
+            if (node.getPackageName() != null && !node.getPackageName().isEmpty()) {
+                packageToFileMap.put(node.getPackageName(), node.getFilePath());
+            }
+        }
+        return packageToFileMap;
     }
 
     private String findDependentFile(String importStatement, Map<String, String> classToFileMap, Map<String, String> packageToFileMap) {
@@ -229,141 +455,603 @@ public final class DependencyAnalysisService {
 
     public void sendGitDiff() {
         try {
-            System.out.println("Generating git diff...");
-
-            // Get git diff
-            String gitDiff = getGitDiff();
-            if (gitDiff == null || gitDiff.trim().isEmpty()) {
-                System.out.println("No git changes found");
-                return;
-            }
-            System.out.println("Git diff: " + gitDiff);
-            // parse git diff
-            List<ChangedFile> changedFilesList = GitDiffParser.parseGitDiff(gitDiff);
-            // Create git diff data
-            GitDiffData diffData = new GitDiffData();
-            diffData.setRepository(project.getName());
-            diffData.setAuthor("Afzal");
-            diffData.setMrId("MR-123");
-            diffData.setSourceBranch("feature-branch");
-            diffData.setTargetBranch("main");
-            diffData.setChangedFiles(changedFilesList);
-
-            // Send to microservice
-            sendDiffToMicroservice(diffData);
-
+            sendGitDiffAsync().join();
         } catch (Exception e) {
             System.err.println("Error sending git diff: " + e.getMessage());
             e.printStackTrace();
         }
     }
 
-    private String getGitDiff() {
+    public enum SendOutcome { SENT, QUEUED, NO_CHANGES, UNCHANGED }
+
+    /**
+     * Collects the diff on a pooled thread and uploads it without blocking the caller.
+     * Requests made in quick succession share one collection and upload, and a diff identical
+     * to the last one the server accepted at the same URL is not sent again. A diff that went
+     * to the upload outbox instead completes as QUEUED.
+     */
+    public CompletableFuture<SendOutcome> sendGitDiffAsync() {
+        return sendGitDiffAsync(false);
+    }
+
+    /**
+     * Like {@link #sendGitDiffAsync()}; a forced request, such as a click on the send button,
+     * uploads the diff even if it is unchanged, and so does the run it is coalesced into
+     */
+    public CompletableFuture<SendOutcome> sendGitDiffAsync(boolean force) {
+        if (force) forceNextDiffUpload.set(true);
+        return sendScheduler.submit(UploadOutbox.KIND_GIT_DIFF, () ->
+                CompletableFuture.supplyAsync(() -> attachImpactGraph(prepareGitDiff()), AppExecutorUtil.getAppExecutorService())
+                        .thenCompose(this::sendGitDiffIfChanged));
+    }
+
+    private CompletableFuture<SendOutcome> sendGitDiffIfChanged(@Nullable GitDiffData diffData) {
+        if (diffData == null) {
+            return CompletableFuture.completedFuture(SendOutcome.NO_CHANGES);
+        }
+
+        String hash = contentHash(diffData);
+        String url = MicroserviceTransport.getInstance().url(GIT_DIFF_ENDPOINT);
+        boolean force = forceNextDiffUpload.getAndSet(false);
+        if (!force && hash.equals(lastSentDiffHashes.get(url))) {
+            System.out.println("Git diff unchanged since the last upload to " + url + ", not sending it again");
+            return CompletableFuture.completedFuture(SendOutcome.UNCHANGED);
+        }
+        // Only a diff the server accepted counts as sent, a queued one may never be delivered
+        AtomicBoolean delivered = new AtomicBoolean();
+        UploadOutbox.DeliveryListener listener = responseBody -> {
+            lastSentDiffHashes.put(url, hash);
+            delivered.set(true);
+        };
+        return sendDiffToMicroserviceAsync(diffData, hash, listener)
+                .thenApply(response -> delivered.get() ? SendOutcome.SENT : SendOutcome.QUEUED);
+    }
+
+    /**
+     * Hash of the upload without the graph timestamps, which change on every send even when nothing else does
+     */
+    private static String contentHash(Object payload) {
         try {
-            Process process = new ProcessBuilder("git", "diff")
-                    .directory(project.getBaseDir().toNioPath().toFile())
-                    .start();
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            CONTENT_HASH_MAPPER.writeValue(new DigestOutputStream(OutputStream.nullOutputStream(), digest), payload);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not hash upload", e);
+        }
+    }
 
-            BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
-            StringBuilder diff = new StringBuilder();
-            String line;
+    @JsonIgnoreProperties("generatedAt")
+    private abstract static class WithoutGeneratedAt {
+    }
 
-            while ((line = reader.readLine()) != null) {
-                diff.append(line).append("\n");
-            }
+    /**
+     * Collect the current changes, map them to symbols and impacted tests.
+     * Returns null if there is nothing to send.
+     */
+    public GitDiffData prepareGitDiff() {
+        System.out.println("Generating git diff...");
+        GraphNetSettingsService settings = GraphNetSettingsService.getInstance();
+        ChangeCollector collector = getChangeCollector();
+
+        // Read branch and HEAD from the repository, and the merge-base only for merge-request diffs
+        boolean mergeRequestDiff = settings.isMergeRequestDiffEnabled();
+        RepositoryState repositoryState = readRepositoryState(collector, mergeRequestDiff ? settings.getTargetBranch() : null);
+        String baseRevision = mergeRequestDiff && repositoryState != null
+                ? repositoryState.getMergeBaseCommit()
+                : null;
+        if (mergeRequestDiff && baseRevision == null) {
+            System.out.println("No merge-base with " + settings.getTargetBranch() + ", sending the working tree changes instead");
+        }
 
-            process.waitFor();
-            return diff.toString();
+        // Collect changed files from version control
+        List<ChangedFile> changedFilesList = baseRevision != null
+                ? collectMergeRequestChanges(collector, repositoryState)
+                : collectChangedFiles(collector, null);
+        if (changedFilesList == null) {
+            return null;
+        }
+        if (changedFilesList.isEmpty()) {
+            System.out.println("No git changes found");
+            return null;
+        }
+        System.out.println("Parsed " + changedFilesList.size() + " changed files from git diff");
+        mapChangedSymbols(changedFilesList);
+
+        // Create git diff data
+        GitDiffData diffData = new GitDiffData();
+        diffData.setRepository(project.getName());
+        diffData.setTargetBranch(settings.getTargetBranch());
+        if (repositoryState != null) {
+            diffData.setAuthor(repositoryState.getAuthor());
+            diffData.setSourceBranch(repositoryState.getCurrentBranch());
+            diffData.setMrId(repositoryState.getCurrentBranch() + "@" + shortCommit(repositoryState.getHeadCommit()));
+        }
+        diffData.setChangedFiles(changedFilesList);
+
+        // Tests to re-run for these changes
+        long start = System.nanoTime();
+        diffData.setImpactedTests(selectImpactedTests(changedFilesList));
+        System.out.println("Selected " + diffData.getImpactedTests().size() + " impacted tests in "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+
+        return diffData;
+    }
+
+    /**
+     * Adds the dependency neighborhood of the changed files, so the backend gets diff and graph in one request
+     */
+    private GitDiffData attachImpactGraph(GitDiffData diffData) {
+        GraphNetSettingsService settings = GraphNetSettingsService.getInstance();
+        if (diffData == null || !settings.isAttachImpactGraphEnabled()) {
+            return diffData;
+        }
+
+        Set<String> changedPaths = new HashSet<>();
+        for (ChangedFile changedFile : diffData.getChangedFiles()) {
+            String filePath = resolveFilePath(changedFile.path);
+            if (filePath != null) changedPaths.add(filePath);
+        }
 
+        DependencyGraph impactGraph = getImpactNeighborhood(changedPaths, settings.getMaxDependencyDepth(),
+                settings.getImpactDependencyHops());
+        diffData.setImpactGraph(impactGraph);
+        System.out.println("Attached impact neighborhood with " + impactGraph.getNodes().size() + " of "
+                + fileNodes.size() + " files");
+        return diffData;
+    }
+
+    private RepositoryState readRepositoryState(ChangeCollector collector, String targetBranch) {
+        try {
+            return collector.readRepositoryState(targetBranch);
         } catch (Exception e) {
-            System.err.println("Error getting git diff: " + e.getMessage());
+            System.err.println("Error reading repository state: " + e.getMessage());
             return null;
         }
     }
 
-    private DependencyGraph getCurrentDependencyGraph() {
-        DependencyGraph graph = new DependencyGraph();
-        graph.setNodes(new ArrayList<>(fileNodes.values()));
-        graph.setEdges(dependencyGraph);
-        graph.setProjectName(project.getName());
-        graph.setGeneratedAt(System.currentTimeMillis());
-        return graph;
+    private List<ChangedFile> collectMergeRequestChanges(ChangeCollector collector, RepositoryState repositoryState) {
+        // Commits are immutable, so the same (HEAD, merge-base) pair always yields the same diff for the same
+        // collector, budgets and filter settings
+        GraphNetSettingsService settings = GraphNetSettingsService.getInstance();
+        String cacheKey = repositoryState.getHeadCommit() + ".." + repositoryState.getMergeBaseCommit()
+                + " " + collector.getName()
+                + " kb=" + settings.getMaxDiffKbPerFile() + "/" + settings.getMaxDiffKbPerRequest()
+                + (settings.isTwoPhaseDiffEnabled() ? " lines=" + settings.getMaxDiffLinesPerFile() : "");
+        synchronized (mergeRequestDiffCache) {
+            List<ChangedFile> cached = mergeRequestDiffCache.get(cacheKey);
+            if (cached != null) {
+                System.out.println("Reusing cached diff for " + cacheKey);
+                return copyChangedFiles(cached);
+            }
+        }
+
+        List<ChangedFile> changedFiles = collectChangedFiles(collector, repositoryState.getMergeBaseCommit());
+        if (changedFiles != null) {
+            synchronized (mergeRequestDiffCache) {
+                mergeRequestDiffCache.put(cacheKey, copyChangedFiles(changedFiles));
+            }
+        }
+        return changedFiles;
+    }
+
+    /**
+     * The cache keeps its own copies, callers go on to fill in the changed symbols
+     */
+    private static List<ChangedFile> copyChangedFiles(List<ChangedFile> changedFiles) {
+        List<ChangedFile> copies = new ArrayList<>(changedFiles.size());
+        for (ChangedFile changedFile : changedFiles) {
+            copies.add(new ChangedFile(changedFile));
+        }
+        return copies;
     }
 
-    private void sendDiffToMicroservice(GitDiffData diffData) {
+    private static String shortCommit(String commit) {
+        return commit != null && commit.length() > 8 ? commit.substring(0, 8) : commit;
+    }
+
+    private List<ChangedFile> collectChangedFiles(ChangeCollector collector, String baseRevision) {
+        GraphNetSettingsService settings = GraphNetSettingsService.getInstance();
         try {
-            String json = objectMapper.writeValueAsString(diffData);
-            System.out.println(json);
-
-            RequestBody body = RequestBody.create(
-                    json,
-                    MediaType.get("application/json; charset=utf-8")
-            );
-
-            Request request = new Request.Builder()
-                    .url(MICROSERVICE_URL + GIT_DIFF_ENDPOINT)
-                    .post(body)
-                    .addHeader("Content-Type", "application/json")
-                    .build();
-
-            // Try-with-resources automatically closes the response
-            try (Response response = httpClient.newCall(request).execute()) {
-
-                String responseBody = "";
-                if (response.body() != null) {
-                    responseBody = response.body().string();
-                }
+            System.out.println("Collecting changes with " + collector.getName());
+            DiffBudget budget = new DiffBudget(settings.getMaxDiffKbPerFile() * 1024L, settings.getMaxDiffKbPerRequest() * 1024L);
+            if (!settings.isTwoPhaseDiffEnabled()) {
+                return logTruncation(collector.collectChanges(baseRevision, budget));
+            }
 
-                if (response.isSuccessful()) {
-                    System.out.println("Git diff sent successfully to microservice");
-                    System.out.println("Response: " + responseBody);
-                } else {
-                    System.err.println("Failed to send git diff. Status: " + response.code());
-                    System.err.println("Response: " + responseBody);
+            // Phase 1: cheap per-file summary, phase 2: patch text only where it is needed
+            List<ChangedFile> summary = collector.collectSummary(baseRevision);
+            DiffFilter filter = new DiffFilter(path -> resolveFilePath(path) != null, settings.getMaxDiffLinesPerFile());
+            List<ChangedFile> selected = summary.stream().filter(filter).toList();
+            collector.loadDiffs(selected, baseRevision, budget);
+
+            // A summary without line counts (the IDE change set) lets every file through, the cap applies now
+            int overCap = 0;
+            for (ChangedFile file : selected) {
+                if (!filter.test(file)) {
+                    dropPatch(file);
+                    overCap++;
                 }
             }
+            if (overCap > 0) {
+                System.out.println("Dropped the diffs of " + overCap + " files over " + settings.getMaxDiffLinesPerFile() + " changed lines");
+            }
+
+            System.out.println("Loaded diffs for " + (selected.size() - overCap) + " of " + summary.size() + " changed files");
+            return logTruncation(summary);
 
-        } catch (IOException e) {
-            System.err.println("Network error sending data to microservice: " + e.getMessage());
-            e.printStackTrace();
         } catch (Exception e) {
-            System.err.println("Error sending data to microservice: " + e.getMessage());
-            e.printStackTrace();
+            System.err.println("Error getting git diff: " + e.getMessage());
+            return null;
         }
     }
 
-    public void sendDependencyAnalysis() {
+    /**
+     * Back to a summary entry: status and line counts only
+     */
+    private static void dropPatch(ChangedFile file) {
+        file.diff = null;
+        file.hunks = new ArrayList<>();
+        file.truncated = false;
+        file.omittedHunks = 0;
+        file.omittedBytes = 0;
+        file.omittedDigest = null;
+    }
+
+    private static List<ChangedFile> logTruncation(List<ChangedFile> changedFiles) {
+        long truncatedFiles = changedFiles.stream().filter(file -> file.truncated).count();
+        if (truncatedFiles > 0) {
+            long omittedBytes = changedFiles.stream().mapToLong(file -> file.omittedBytes).sum();
+            System.out.println("Diff budget exceeded: omitted " + omittedBytes + " bytes of hunks in " + truncatedFiles + " files");
+        }
+        return changedFiles;
+    }
+
+    /**
+     * Resolve a repository-relative path from a diff to the analyzed file path, or null if it is not in the graph
+     */
+    private String resolveFilePath(String changedPath) {
+        String basePath = project.getBasePath();
+        if (basePath != null) {
+            String absolutePath = basePath + "/" + changedPath;
+            if (fileNodes.containsKey(absolutePath)) {
+                return absolutePath;
+            }
+        }
+
+        // The repository root can sit above the project base directory
+        String suffix = "/" + changedPath;
+        for (String filePath : fileNodes.keySet()) {
+            if (filePath.endsWith(suffix)) {
+                return filePath;
+            }
+        }
+        return null;
+    }
+
+    private ChangeCollector getChangeCollector() {
+        // Prefer the IDE's own change tracking, fall back to forking git
+        if (GraphNetSettingsService.getInstance().isGitIntegrationEnabled() && nativeChangeCollector.isAvailable()) {
+            return nativeChangeCollector;
+        }
+        return processChangeCollector;
+    }
+
+    /**
+     * Write the current dependency graph to a file, in the format its extension names
+     * (.md, .mmd, .dot, .gv or .graphml). Needs no UI and streams straight to the file.
+     * Above the configured node budget files away from the focus files are collapsed into clusters.
+     */
+    public void exportDependencyGraph(Path target, Collection<String> focusFiles) throws IOException {
+        GraphExporter exporter = GraphExporters.forFileName(target.getFileName().toString());
+        if (exporter == null) {
+            throw new IOException("No graph exporter for " + target.getFileName());
+        }
+
+        long start = System.nanoTime();
+        DependencyGraph fullGraph = getCurrentDependencyGraph();
+        DependencyGraph graph = detailReducer().reduce(fullGraph, focusFiles);
+        try (Writer out = Files.newBufferedWriter(target, StandardCharsets.UTF_8)) {
+            exporter.export(graph, out);
+        }
+        System.out.println("Exported " + fullGraph.getNodes().size() + " files in " + graph.getNodes().size() + " nodes as "
+                + exporter.getName() + " to " + target + " in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+    }
+
+    /**
+     * Export one diagram per module into the output directory, rendering modules in parallel.
+     * A module is a source root or directory (absolute or relative to the project) or a package
+     * name, which includes its subpackages. Modules unchanged since their last export are skipped.
+     */
+    public List<GraphBatchExporter.ModuleResult> exportModules(Collection<String> modules, Path outputDir,
+                                                               String extension) throws IOException {
+        GraphExporter exporter = GraphExporters.forFileName("module" + extension);
+        if (exporter == null) {
+            throw new IOException("No graph exporter for " + extension + " files");
+        }
+
+        Map<String, Predicate<String>> selectors = new LinkedHashMap<>();
+        for (String module : modules) {
+            selectors.put(module, moduleSelector(module));
+        }
+
+        long start = System.nanoTime();
+        ExecutorService pool = AppExecutorUtil.createBoundedApplicationPoolExecutor("GraphNet Batch Export", MAX_EXPORT_THREADS);
+        List<GraphBatchExporter.ModuleResult> results;
         try {
-            DependencyGraph graph = getCurrentDependencyGraph();
-            String json = objectMapper.writeValueAsString(graph);
+            results = new GraphBatchExporter(exporter, extension, pool, detailReducer()).export(getCurrentDependencyGraph(), selectors, outputDir);
+        } finally {
+            pool.shutdown();
+        }
 
-            RequestBody body = RequestBody.create(
-                    json,
-                    MediaType.get("application/json; charset=utf-8")
-            );
+        Map<GraphBatchExporter.Status, Integer> counts = new EnumMap<>(GraphBatchExporter.Status.class);
+        for (GraphBatchExporter.ModuleResult result : results) {
+            counts.merge(result.status(), 1, Integer::sum);
+            if (result.error() != null) {
+                System.err.println("Failed to export module " + result.module() + ": " + result.error().getMessage());
+            }
+        }
+        System.out.println("Exported " + results.size() + " modules to " + outputDir + " in "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms: " + counts);
+        return results;
+    }
 
-            Request request = new Request.Builder()
-                    .url(MICROSERVICE_URL + ANALYZE_ENDPOINT)
-                    .post(body)
-                    .addHeader("Content-Type", "application/json")
-                    .build();
+    private GraphDetailReducer detailReducer() {
+        GraphNetSettingsService settings = GraphNetSettingsService.getInstance();
+        GraphDetailReducer.Clustering clustering = "scc".equals(settings.getExportClustering())
+                ? GraphDetailReducer.Clustering.SCC : GraphDetailReducer.Clustering.PACKAGE;
+        return new GraphDetailReducer(settings.getExportNodeBudget(), clustering, settings.getExportFocusHops(),
+                settings.isPruneTransitiveEdgesEnabled());
+    }
 
-            Response response = httpClient.newCall(request).execute();
+    /**
+     * Source roots of the project, as used for batch exports
+     */
+    public List<String> getSourceRootPaths() {
+        return ReadAction.compute(() -> {
+            List<String> roots = new ArrayList<>();
+            for (VirtualFile root : ProjectRootManager.getInstance(project).getContentSourceRoots()) {
+                roots.add(root.getPath());
+            }
+            return roots;
+        });
+    }
 
-            if (response.isSuccessful()) {
-                System.out.println("Dependency analysis sent successfully to microservice");
-                System.out.println("Response: " + response.body().string());
-            } else {
-                System.err.println("Failed to send analysis. Status: " + response.code());
-                System.err.println("Response: " + response.body().string());
+    private Predicate<String> moduleSelector(String module) {
+        if (module.contains("/") || module.contains("\\")) {
+            String directory = module.replace('\\', '/');
+            String basePath = project.getBasePath();
+            if (!Paths.get(directory).isAbsolute() && basePath != null) {
+                directory = basePath + "/" + directory;
             }
+            String prefix = directory.endsWith("/") ? directory : directory + "/";
+            return path -> path.startsWith(prefix);
+        }
+
+        String subpackagePrefix = module + ".";
+        return path -> {
+            FileNode node = fileNodes.get(path);
+            String packageName = node != null ? node.getPackageName() : null;
+            return packageName != null && (packageName.equals(module) || packageName.startsWith(subpackagePrefix));
+        };
+    }
+
+    /**
+     * Detached copy of the graph. Uploads fingerprint it and serialize it later on another thread,
+     * and an analysis may publish a new snapshot in between; both have to see the same graph.
+     * Node dependencies are taken from the copied edges so the two always agree.
+     */
+    private DependencyGraph getCurrentDependencyGraph() {
+        Map<String, Set<String>> edges = new HashMap<>();
+        for (Map.Entry<String, Set<String>> edge : dependencyGraph.entrySet()) {
+            edges.put(edge.getKey(), Collections.unmodifiableSet(new HashSet<>(edge.getValue())));
+        }
+
+        List<FileNode> nodes = new ArrayList<>(fileNodes.size());
+        for (FileNode node : fileNodes.values()) {
+            FileNode copy = new FileNode(node);
+            copy.setDependencies(edges.getOrDefault(node.getFilePath(), Collections.emptySet()));
+            nodes.add(copy);
+        }
+
+        DependencyGraph graph = new DependencyGraph();
+        graph.setNodes(nodes);
+        graph.setEdges(Collections.unmodifiableMap(edges));
+        graph.setProjectName(project.getName());
+        graph.setGeneratedAt(System.currentTimeMillis());
+        return graph;
+    }
 
+    /**
+     * A failed upload may have reached the server before the connection broke, and queued uploads
+     * are replayed; the key derived from the content lets the server drop the second submission
+     */
+    private CompletableFuture<String> sendDiffToMicroserviceAsync(GitDiffData diffData, String contentHash,
+                                                                  UploadOutbox.DeliveryListener listener) {
+        String idempotencyKey = project.getName() + "-git-diff-" + contentHash;
+        return postPayload(UploadOutbox.KIND_GIT_DIFF, GIT_DIFF_ENDPOINT, format -> StreamingRequestBody.of(format, diffData),
+                idempotencyKey, "Failed to send git diff.", listener)
+                .whenComplete((responseBody, error) -> {
+                    if (error == null) {
+                        System.out.println("Git diff sent successfully to microservice");
+                        System.out.println("Response: " + responseBody);
+                    } else {
+                        System.err.println("Error sending data to microservice: " + error.getMessage());
+                    }
+                });
+    }
+
+    public void sendDependencyAnalysis() {
+        try {
+            sendDependencyAnalysisAsync().join();
         } catch (Exception e) {
             System.err.println("Error sending analysis to microservice: " + e.getMessage());
             e.printStackTrace();
         }
     }
 
+    /**
+     * Sync the dependency graph with the microservice. Only the changes since the version the
+     * server acknowledged are sent; a full snapshot is sent on the first sync, when the server
+     * reports a version conflict, or when it does not support deltas. Syncs run one after another,
+     * and syncs requested while one runs are merged into the next.
+     */
+    public CompletableFuture<String> sendDependencyAnalysisAsync() {
+        return sendScheduler.submit(UploadOutbox.KIND_GRAPH, this::syncDependencyGraph)
+                .whenComplete((responseBody, error) -> {
+                    if (error == null) {
+                        System.out.println("Dependency analysis sent successfully to microservice");
+                        System.out.println("Response: " + responseBody);
+                    } else {
+                        System.err.println("Error sending analysis to microservice: " + error.getMessage());
+                    }
+                });
+    }
+
+    private CompletableFuture<String> syncDependencyGraph() {
+        DependencyGraph graph = getCurrentDependencyGraph();
+        GraphDeltaTracker.PendingSync sync = graphDeltaTracker.prepare(graph, !deltaSyncSupported);
+        if (sync.isFullSnapshot()) {
+            return sendFullGraph(graph, sync);
+        }
+
+        GraphDelta delta = sync.delta();
+        if (delta.isEmpty()) {
+            System.out.println("Dependency graph unchanged since version " + delta.getBaseVersion());
+            return CompletableFuture.completedFuture("");
+        }
+
+        System.out.println("Sending graph delta " + delta.getBaseVersion() + " -> " + delta.getVersion() + ": "
+                + delta.getUpsertedNodes().size() + " nodes changed, " + delta.getRemovedNodes().size() + " removed");
+        // Applying the same delta twice is harmless, so it may be retried; versions only identify it within a session
+        String idempotencyKey = project.getName() + "-graph-" + sync.session() + "-" + delta.getBaseVersion() + "-" + delta.getVersion();
+        return postPayload(UploadOutbox.KIND_GRAPH, ANALYZE_DELTA_ENDPOINT, format -> StreamingRequestBody.of(format, delta),
+                idempotencyKey, "Failed to send graph delta.", graphDeliveryListener(sync))
+                .exceptionallyCompose(error -> {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                    if (!(cause instanceof HttpStatusException statusError)) {
+                        return CompletableFuture.failedFuture(cause);
+                    }
+
+                    int status = statusError.getStatusCode();
+                    if (status == 409) {
+                        // The server holds a different version than the delta is based on
+                        System.out.println("Graph version conflict, sending full snapshot");
+                    } else if (status == 404 || status == 405 || status == 501) {
+                        System.out.println("Microservice does not support graph deltas, sending full snapshots");
+                        deltaSyncSupported = false;
+                    } else {
+                        return CompletableFuture.failedFuture(cause);
+                    }
+                    graphDeltaTracker.reset();
+                    return sendFullGraph(graph, graphDeltaTracker.prepare(graph, true));
+                });
+    }
+
+    private CompletableFuture<String> sendFullGraph(DependencyGraph graph, GraphDeltaTracker.PendingSync sync) {
+        graph.setVersion(sync.version());
+        String idempotencyKey = project.getName() + "-graph-" + sync.session() + "-" + sync.version();
+        return postPayload(UploadOutbox.KIND_GRAPH, ANALYZE_ENDPOINT, format -> StreamingRequestBody.ofGraph(format, graph),
+                idempotencyKey, "Failed to send analysis.", graphDeliveryListener(sync));
+    }
+
+    /**
+     * A sync only becomes the delta base once the server has it, which may be much later when it was queued
+     */
+    private UploadOutbox.DeliveryListener graphDeliveryListener(GraphDeltaTracker.PendingSync sync) {
+        return new UploadOutbox.DeliveryListener() {
+            @Override
+            public void delivered(String responseBody) {
+                graphDeltaTracker.acknowledge(sync);
+            }
+
+            @Override
+            public void rejected(IOException error) {
+                // The server's version is unknown now, start over with a full snapshot
+                graphDeltaTracker.reset();
+                if (sync.isFullSnapshot() || !(error instanceof HttpStatusException statusError)) return;
+
+                // A queued delta the server could not apply, as in syncDependencyGraph
+                int status = statusError.getStatusCode();
+                if (status == 404 || status == 405 || status == 501) {
+                    deltaSyncSupported = false;
+                } else if (status != 409) {
+                    return;
+                }
+                System.out.println("Queued graph delta rejected with " + status + ", sending full snapshot");
+                sendDependencyAnalysisAsync();
+            }
+        };
+    }
+
+    /**
+     * Posts a payload, encoded in the negotiated format, through the shared transport and completes
+     * with the response body. Requests with an idempotency key may be retried by the transport.
+     * When the microservice is unreachable the payload goes to the upload outbox instead and the
+     * future completes with an empty body; the listener hears about the delivery either way.
+     * While the outbox still holds uploads new ones queue behind them, so they keep their order.
+     */
+    private CompletableFuture<String> postPayload(String kind, String endpoint, Function<PayloadFormat, RequestBody> body,
+                                                  @Nullable String idempotencyKey, String failureMessage,
+                                                  @Nullable UploadOutbox.DeliveryListener listener) {
+        MicroserviceTransport transport = MicroserviceTransport.getInstance();
+        String url = transport.url(endpoint);
+        PayloadFormat format = transport.getPayloadFormatNegotiator().select(url);
+        UploadOutbox outbox = UploadOutbox.getInstance(project);
+
+        if (outbox.hasPending()) {
+            return queuePayload(outbox, kind, url, body.apply(format), idempotencyKey, listener);
+        }
+
+        Request.Builder requestBuilder = new Request.Builder()
+                .url(url)
+                .post(body.apply(format));
+        if (idempotencyKey != null) {
+            requestBuilder.header("Idempotency-Key", idempotencyKey);
+        }
+
+        CompletableFuture<String> future = HttpFutures.enqueue(transport.getClient().newCall(requestBuilder.build()),
+                response -> HttpFutures.successfulBody(response, failureMessage));
+        pendingRequests.add(future);
+        future.whenComplete((responseBody, error) -> pendingRequests.remove(future));
+
+        return future.handle((responseBody, error) -> {
+            if (error == null) {
+                if (listener != null) listener.delivered(responseBody);
+                return CompletableFuture.completedFuture(responseBody);
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (!future.isCancelled() && UploadOutbox.isTransient(cause)) {
+                System.out.println("Microservice unavailable (" + cause.getMessage() + "), queueing " + kind + " upload");
+                return queuePayload(outbox, kind, url, body.apply(format), idempotencyKey, listener);
+            }
+            return CompletableFuture.<String>failedFuture(cause);
+        }).thenCompose(Function.identity());
+    }
+
+    private CompletableFuture<String> queuePayload(UploadOutbox outbox, String kind, String url, RequestBody body,
+                                                   @Nullable String idempotencyKey,
+                                                   @Nullable UploadOutbox.DeliveryListener listener) {
+        // Writing the payload to disk is blocking work, keep it off OkHttp's and the caller's threads
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                outbox.enqueue(kind, url, idempotencyKey, body, listener);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+            System.out.println("Queued " + kind + " upload for later delivery (" + outbox.getPendingCount() + " queued)");
+            return "";
+        }, AppExecutorUtil.getAppExecutorService());
+    }
+
+    @Override
+    public void dispose() {
+        sendScheduler.cancelAll();
+        for (CompletableFuture<?> request : pendingRequests) {
+            request.cancel(true);
+        }
+        pendingRequests.clear();
+    }
+
     // Getter methods for UI
     public Map<String, Set<String>> getDependencyGraph() {
         return new HashMap<>(dependencyGraph);
@@ -385,11 +1073,6 @@ public final class DependencyAnalysisService {
         return fileNodes.get(filePath);
     }
 
-    public void triggerAnalysis() {
-        analyzeDependencies();
-
-    }
-
     public Map<String, Object> getStatistics() {
         Map<String, Object> stats = new HashMap<>();
         stats.put("totalFiles", fileNodes.size());
@@ -410,16 +1093,243 @@ public final class DependencyAnalysisService {
         return stats;
     }
 
+    /**
+     * Subgraph of the files that depend on the seed files within dependentHops, plus the files the
+     * seed files depend on within dependencyHops. The two directions are walked separately, so the
+     * walk never turns around at a shared utility and pulls in its other users. Files are added
+     * nearest first until the neighborhood reaches its size limit. Only edges between files of the
+     * neighborhood are kept, also in the nodes: they are copies whose dependencies and imports are
+     * trimmed to the neighborhood, so the upload never shares nodes with a running analysis.
+     */
+    public DependencyGraph getImpactNeighborhood(Collection<String> seedFiles, int dependentHops, int dependencyHops) {
+        Set<String> neighborhood = new LinkedHashSet<>(seedFiles);
+        // The few dependencies go in first, so a large set of dependents cannot crowd them out
+        boolean complete = addWithinHops(seedFiles, dependencyGraph, dependencyHops, neighborhood)
+                & addWithinHops(seedFiles, dependentsGraph, dependentHops, neighborhood);
+        if (!complete) {
+            System.out.println("Impact neighborhood limited to " + MAX_IMPACT_NEIGHBORHOOD_FILES + " files");
+        }
+
+        Map<String, String> classToFileMap = buildClassToFileMap();
+        Map<String, String> packageToFileMap = buildPackageToFileMap();
+        List<FileNode> nodes = new ArrayList<>();
+        Map<String, Set<String>> edges = new HashMap<>();
+        for (String file : neighborhood) {
+            Set<String> targets = new HashSet<>();
+            for (String target : dependencyGraph.getOrDefault(file, Collections.emptySet())) {
+                if (neighborhood.contains(target)) targets.add(target);
+            }
+            if (!targets.isEmpty()) edges.put(file, targets);
+
+            FileNode node = fileNodes.get(file);
+            if (node == null) continue;
+            FileNode copy = new FileNode(node);
+            copy.setDependencies(targets);
+            Set<String> imports = new HashSet<>();
+            for (String importStatement : node.getImports()) {
+                String importedFile = findDependentFile(importStatement, classToFileMap, packageToFileMap);
+                if (importedFile != null && neighborhood.contains(importedFile)) imports.add(importStatement);
+            }
+            copy.setImports(imports);
+            nodes.add(copy);
+        }
+
+        DependencyGraph graph = new DependencyGraph();
+        graph.setNodes(nodes);
+        graph.setEdges(edges);
+        graph.setProjectName(project.getName());
+        graph.setGeneratedAt(System.currentTimeMillis());
+        // Lets the backend relate the neighborhood to the last full graph it received
+        graph.setVersion(graphDeltaTracker.getAcknowledgedVersion());
+        return graph;
+    }
+
+    /**
+     * Breadth-first walk along one direction of the graph; false if it stopped at the size limit
+     */
+    private static boolean addWithinHops(Collection<String> seedFiles, Map<String, Set<String>> graph, int hops,
+                                         Set<String> neighborhood) {
+        Collection<String> frontier = seedFiles;
+        for (int hop = 0; hop < hops && !frontier.isEmpty(); hop++) {
+            List<String> next = new ArrayList<>();
+            for (String file : frontier) {
+                for (String neighbor : graph.getOrDefault(file, Collections.emptySet())) {
+                    if (neighborhood.contains(neighbor)) continue;
+                    if (neighborhood.size() >= MAX_IMPACT_NEIGHBORHOOD_FILES) return false;
+                    neighborhood.add(neighbor);
+                    next.add(neighbor);
+                }
+            }
+            frontier = next;
+        }
+        return true;
+    }
+
     public Set<String> getFilesAffectedByChange(String changedFile) {
+        // Find all files that depend on the changed file
+        return new HashSet<>(dependentsGraph.getOrDefault(changedFile, Collections.emptySet()));
+    }
+
+    /**
+     * Every file that depends on the changed file directly or through other files
+     */
+    public Set<String> getFilesTransitivelyAffectedByChange(String changedFile) {
+        Set<String> affected = new HashSet<>();
+        Deque<String> queue = new ArrayDeque<>();
+        queue.add(changedFile);
+        while (!queue.isEmpty()) {
+            for (String dependent : dependentsGraph.getOrDefault(queue.poll(), Collections.emptySet())) {
+                if (!dependent.equals(changedFile) && affected.add(dependent)) queue.add(dependent);
+            }
+        }
+        return affected;
+    }
+
+    public FileSearchIndex getFileSearchIndex() {
+        return fileSearchIndex;
+    }
+
+    /**
+     * Direct dependents of a changed file that are actually affected by the changed symbols.
+     * Member-level changes only propagate to dependents that reference one of the members.
+     * Type-level changes, unknown symbols (null) and changes to private members, which reach
+     * other files only through the type's own members, propagate to every dependent, and so do
+     * members no dependent names, since they may be reached through inheritance.
+     */
+    public Set<String> getFilesAffectedBySymbols(String changedFile, Set<String> changedSymbols) {
+        Set<String> dependents = getFilesAffectedByChange(changedFile);
+        if (changedSymbols == null || dependents.isEmpty()) {
+            return dependents;
+        }
+
+        JavaSymbolIndex changedIndex = symbolIndexes.get(changedFile);
+        Set<String> memberNames = new HashSet<>();
+        for (String symbol : changedSymbols) {
+            int separator = symbol.indexOf('#');
+            if (separator < 0 || changedIndex == null || changedIndex.isPrivateMember(symbol)) {
+                return dependents;
+            }
+            memberNames.add(symbol.substring(separator + 1));
+        }
+        if (memberNames.isEmpty()) {
+            // Only blank lines or comments changed
+            return new HashSet<>();
+        }
+
         Set<String> affected = new HashSet<>();
+        for (String dependent : dependents) {
+            JavaSymbolIndex index = symbolIndexes.get(dependent);
+            if (index == null || index.referencesAnyMember(memberNames)) {
+                affected.add(dependent);
+            }
+        }
+        return affected.isEmpty() ? dependents : affected;
+    }
 
-        // Find all files that depend on the changed file
-        for (Map.Entry<String, Set<String>> entry : dependencyGraph.entrySet()) {
-            if (entry.getValue().contains(changedFile)) {
-                affected.add(entry.getKey());
+    /**
+     * Map the hunks of each changed file onto the declared types and members they touch
+     */
+    public void mapChangedSymbols(List<ChangedFile> changedFiles) {
+        for (ChangedFile changedFile : changedFiles) {
+            if (changedFile.hunks == null || changedFile.hunks.isEmpty()) continue;
+
+            String filePath = resolveFilePath(changedFile.path);
+            JavaSymbolIndex index = filePath != null ? symbolIndexes.get(filePath) : null;
+            if (index == null) continue;
+
+            Set<String> symbols = new LinkedHashSet<>();
+            for (DiffHunk hunk : changedFile.hunks) {
+                if (hunk.changedFrom < 0) continue;
+                symbols.addAll(index.symbolsForLines(hunk.changedFrom, hunk.changedTo));
             }
+            changedFile.changedSymbols = symbols;
         }
+    }
 
-        return affected;
+    /**
+     * Resolve changed files to graph nodes, walk their transitive dependents up to the configured
+     * depth and return the test classes reached, closest first. The first hop only follows
+     * dependents that use the changed symbols; test classes named after a changed class
+     * (FooTest, FooTests, FooIT, TestFoo) are selected even without an import edge.
+     */
+    public List<TestSelection> selectImpactedTests(List<ChangedFile> changedFiles) {
+        int maxDepth = GraphNetSettingsService.getInstance().getMaxDependencyDepth();
+        Map<String, TestSelection> selections = new HashMap<>();
+        Map<String, List<String>> testsByTestedClass = indexTestsByTestedClass();
+
+        for (ChangedFile changedFile : changedFiles) {
+            String filePath = resolveFilePath(changedFile.path);
+            if (filePath == null) continue;
+
+            // Breadth-first over dependents, remembering the hop count of each file
+            Map<String, Integer> distances = new HashMap<>();
+            distances.put(filePath, 0);
+            Deque<String> queue = new ArrayDeque<>();
+            queue.add(filePath);
+
+            while (!queue.isEmpty()) {
+                String current = queue.poll();
+                int distance = distances.get(current);
+                recordTestSelection(selections, current, distance, changedFile.path);
+
+                FileNode node = fileNodes.get(current);
+                if (node != null) {
+                    for (String test : testsByTestedClass.getOrDefault(node.getClassName(), Collections.emptyList())) {
+                        recordTestSelection(selections, test, distance + 1, changedFile.path);
+                    }
+                }
+
+                if (distance >= maxDepth) continue;
+                Set<String> dependents = distance == 0
+                        ? getFilesAffectedBySymbols(current, changedFile.changedSymbols)
+                        : dependentsGraph.getOrDefault(current, Collections.emptySet());
+                for (String dependent : dependents) {
+                    if (distances.putIfAbsent(dependent, distance + 1) == null) {
+                        queue.add(dependent);
+                    }
+                }
+            }
+        }
+
+        List<TestSelection> ranked = new ArrayList<>(selections.values());
+        ranked.sort(Comparator.comparingInt(TestSelection::getDistance)
+                .thenComparing(Comparator.comparingInt((TestSelection t) -> t.getChangedFiles().size()).reversed())
+                .thenComparing(TestSelection::getTestClassName));
+        return ranked;
+    }
+
+    private void recordTestSelection(Map<String, TestSelection> selections, String filePath, int distance, String changedFile) {
+        FileNode node = fileNodes.get(filePath);
+        if (node == null || !node.isTestSource()) return;
+
+        TestSelection selection = selections.computeIfAbsent(filePath, path -> {
+            TestSelection created = new TestSelection();
+            created.setTestFilePath(path);
+            created.setTestClassName(qualifiedClassName(node));
+            created.setDistance(distance);
+            created.setChangedFiles(new LinkedHashSet<>());
+            return created;
+        });
+        selection.setDistance(Math.min(selection.getDistance(), distance));
+        selection.getChangedFiles().add(changedFile);
+    }
+
+    private Map<String, List<String>> indexTestsByTestedClass() {
+        Map<String, List<String>> testsByTestedClass = new HashMap<>();
+        for (FileNode node : fileNodes.values()) {
+            if (!node.isTestSource()) continue;
+
+            Matcher matcher = TEST_CLASS_NAME_PATTERN.matcher(node.getClassName());
+            if (matcher.matches()) {
+                String testedClass = matcher.group(1) != null ? matcher.group(1) : matcher.group(2);
+                testsByTestedClass.computeIfAbsent(testedClass, k -> new ArrayList<>()).add(node.getFilePath());
+            }
+        }
+        return testsByTestedClass;
+    }
+
+    private static String qualifiedClassName(FileNode node) {
+        String packageName = node.getPackageName();
+        return packageName == null || packageName.isEmpty() ? node.getClassName() : packageName + "." + node.getClassName();
     }
 }
\ No newline at end of file
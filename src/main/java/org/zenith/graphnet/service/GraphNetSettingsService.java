@@ -13,11 +13,28 @@ import org.jetbrains.annotations.Nullable;
 public final class GraphNetSettingsService implements PersistentStateComponent<GraphNetSettingsService.State> {
 
     public static class State {
-        public String microserviceUrl = "http://localhost:8080/api/dependency-analysis";
+        public String microserviceUrl = "http://localhost:8000";
         public boolean enableAutoAnalysis = true;
         public boolean enableGitIntegration = true;
         public int maxDependencyDepth = 5;
         public boolean showOnlyProjectFiles = true;
+        public boolean twoPhaseDiff = true;
+        public int maxDiffLinesPerFile = 2000;
+        public boolean mergeRequestDiff = false;
+        public String targetBranch = "main";
+        public int maxDiffKbPerFile = 256;
+        public int maxDiffKbPerRequest = 8192;
+        public boolean gzipUploads = true;
+        public int gzipLevel = 6;
+        public int gzipMinKb = 1;
+        public String payloadFormat = "json";
+        public boolean attachImpactGraph = true;
+        public int impactDependencyHops = 1;
+        public int sendDebounceMs = 500;
+        public int exportNodeBudget = 300;
+        public String exportClustering = "package";
+        public int exportFocusHops = 2;
+        public boolean pruneTransitiveEdges = true;
     }
 
     private State state = new State();
@@ -76,4 +93,140 @@ public final class GraphNetSettingsService implements PersistentStateComponent<G
     public void setShowOnlyProjectFiles(boolean showOnly) {
         state.showOnlyProjectFiles = showOnly;
     }
-}
\ No newline at end of file
+
+    public boolean isTwoPhaseDiffEnabled() {
+        return state.twoPhaseDiff;
+    }
+
+    public void setTwoPhaseDiffEnabled(boolean enabled) {
+        state.twoPhaseDiff = enabled;
+    }
+
+    public int getMaxDiffLinesPerFile() {
+        return state.maxDiffLinesPerFile;
+    }
+
+    public void setMaxDiffLinesPerFile(int maxLines) {
+        state.maxDiffLinesPerFile = maxLines;
+    }
+
+    public boolean isMergeRequestDiffEnabled() {
+        return state.mergeRequestDiff;
+    }
+
+    public void setMergeRequestDiffEnabled(boolean enabled) {
+        state.mergeRequestDiff = enabled;
+    }
+
+    public String getTargetBranch() {
+        return state.targetBranch;
+    }
+
+    public void setTargetBranch(String targetBranch) {
+        state.targetBranch = targetBranch;
+    }
+
+    public int getMaxDiffKbPerFile() {
+        return state.maxDiffKbPerFile;
+    }
+
+    public void setMaxDiffKbPerFile(int maxKb) {
+        state.maxDiffKbPerFile = maxKb;
+    }
+
+    public int getMaxDiffKbPerRequest() {
+        return state.maxDiffKbPerRequest;
+    }
+
+    public void setMaxDiffKbPerRequest(int maxKb) {
+        state.maxDiffKbPerRequest = maxKb;
+    }
+
+    public boolean isGzipUploadsEnabled() {
+        return state.gzipUploads;
+    }
+
+    public void setGzipUploadsEnabled(boolean enabled) {
+        state.gzipUploads = enabled;
+    }
+
+    public int getGzipLevel() {
+        return state.gzipLevel;
+    }
+
+    public void setGzipLevel(int level) {
+        state.gzipLevel = level;
+    }
+
+    public int getGzipMinKb() {
+        return state.gzipMinKb;
+    }
+
+    public void setGzipMinKb(int minKb) {
+        state.gzipMinKb = minKb;
+    }
+
+    public String getPayloadFormat() {
+        return state.payloadFormat;
+    }
+
+    public void setPayloadFormat(String payloadFormat) {
+        state.payloadFormat = payloadFormat;
+    }
+
+    public boolean isAttachImpactGraphEnabled() {
+        return state.attachImpactGraph;
+    }
+
+    public void setAttachImpactGraphEnabled(boolean enabled) {
+        state.attachImpactGraph = enabled;
+    }
+
+    public int getImpactDependencyHops() {
+        return state.impactDependencyHops;
+    }
+
+    public void setImpactDependencyHops(int impactDependencyHops) {
+        state.impactDependencyHops = impactDependencyHops;
+    }
+
+    public int getSendDebounceMs() {
+        return state.sendDebounceMs;
+    }
+
+    public void setSendDebounceMs(int sendDebounceMs) {
+        state.sendDebounceMs = sendDebounceMs;
+    }
+
+    public int getExportNodeBudget() {
+        return state.exportNodeBudget;
+    }
+
+    public void setExportNodeBudget(int exportNodeBudget) {
+        state.exportNodeBudget = exportNodeBudget;
+    }
+
+    public String getExportClustering() {
+        return state.exportClustering;
+    }
+
+    public void setExportClustering(String exportClustering) {
+        state.exportClustering = exportClustering;
+    }
+
+    public int getExportFocusHops() {
+        return state.exportFocusHops;
+    }
+
+    public void setExportFocusHops(int exportFocusHops) {
+        state.exportFocusHops = exportFocusHops;
+    }
+
+    public boolean isPruneTransitiveEdgesEnabled() {
+        return state.pruneTransitiveEdges;
+    }
+
+    public void setPruneTransitiveEdgesEnabled(boolean enabled) {
+        state.pruneTransitiveEdges = enabled;
+    }
+}
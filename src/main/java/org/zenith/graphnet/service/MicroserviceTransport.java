@@ -0,0 +1,102 @@
+package org.zenith.graphnet.service;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.Service;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.zenith.graphnet.util.CircuitBreakerInterceptor;
+import org.zenith.graphnet.util.GzipRequestInterceptor;
+import org.zenith.graphnet.util.PayloadFormatNegotiator;
+import org.zenith.graphnet.util.RetryInterceptor;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The one HTTP client all microservice calls go through. Connections are pooled and kept
+ * alive. HTTP/2, where concurrent uploads share one connection, is only negotiated (through
+ * ALPN) with https backends; a plain http URL such as the default always uses HTTP/1.1,
+ * with up to MAX_REQUESTS_PER_HOST parallel connections. Prior-knowledge cleartext HTTP/2
+ * is not used because it cannot fall back to HTTP/1.1 for backends without it. Interceptors run in this order: payload format negotiation, retries of
+ * idempotent calls, the per-host circuit breaker, and gzip compression of request bodies.
+ * The base URL is read from the settings on every call.
+ */
+@Service(Service.Level.APP)
+public final class MicroserviceTransport implements Disposable {
+
+    private static final int MAX_IDLE_CONNECTIONS = 8;
+    private static final long KEEP_ALIVE_MINUTES = 5;
+    private static final int MAX_REQUESTS_PER_HOST = 16;
+    private static final int MAX_ATTEMPTS = 3;
+    private static final int CIRCUIT_FAILURE_THRESHOLD = 5;
+    private static final long CIRCUIT_OPEN_SECONDS = 30;
+
+    private final OkHttpClient client;
+    private final PayloadFormatNegotiator payloadFormatNegotiator;
+
+    public MicroserviceTransport() {
+        this.payloadFormatNegotiator = PayloadFormatNegotiator.fromSettings();
+        this.client = newClientBuilder(payloadFormatNegotiator, GzipRequestInterceptor.fromSettings()).build();
+    }
+
+    /**
+     * Client configuration and interceptor chain of the transport, for clients that run without
+     * the IDE such as the load harness
+     */
+    public static OkHttpClient.Builder newClientBuilder(PayloadFormatNegotiator payloadFormatNegotiator,
+                                                        GzipRequestInterceptor gzipRequestInterceptor) {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequestsPerHost(MAX_REQUESTS_PER_HOST);
+
+        return new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES))
+                .dispatcher(dispatcher)
+                // HTTP/2 only takes effect over https
+                .protocols(List.of(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                // Keeps idle HTTP/2 connections alive and detects dead ones
+                .pingInterval(30, TimeUnit.SECONDS)
+                // A backend that does not accept connections quickly is treated as down
+                .connectTimeout(5, TimeUnit.SECONDS)
+                .readTimeout(60, TimeUnit.SECONDS)
+                .writeTimeout(60, TimeUnit.SECONDS)
+                .callTimeout(120, TimeUnit.SECONDS)
+                .addInterceptor(payloadFormatNegotiator)
+                .addInterceptor(new RetryInterceptor(MAX_ATTEMPTS, 200, 5000, TimeUnit.MILLISECONDS))
+                .addInterceptor(new CircuitBreakerInterceptor(CIRCUIT_FAILURE_THRESHOLD, CIRCUIT_OPEN_SECONDS, TimeUnit.SECONDS))
+                .addInterceptor(gzipRequestInterceptor);
+    }
+
+    public static MicroserviceTransport getInstance() {
+        return ApplicationManager.getApplication().getService(MicroserviceTransport.class);
+    }
+
+    public OkHttpClient getClient() {
+        return client;
+    }
+
+    public PayloadFormatNegotiator getPayloadFormatNegotiator() {
+        return payloadFormatNegotiator;
+    }
+
+    /**
+     * Base URL of the microservice from the settings, without a trailing slash
+     */
+    public String getBaseUrl() {
+        String url = GraphNetSettingsService.getInstance().getMicroserviceUrl().trim();
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+
+    public String url(String endpoint) {
+        return getBaseUrl() + endpoint;
+    }
+
+    @Override
+    public void dispose() {
+        client.dispatcher().cancelAll();
+        client.dispatcher().executorService().shutdown();
+        client.connectionPool().evictAll();
+    }
+}
@@ -0,0 +1,521 @@
+package org.zenith.graphnet.service;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.project.Project;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okio.BufferedSink;
+import okio.Okio;
+import okio.Source;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.zenith.graphnet.util.HttpFutures;
+import org.zenith.graphnet.util.HttpStatusException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Disk-backed queue for uploads the microservice could not take. Payloads are appended to a log
+ * in the project's system directory and marked done by later records, so nothing is rewritten
+ * in place and a crash loses at most the record being written. A background task drains the
+ * log in batches, backing off while the backend stays unreachable. A queued graph upload
+ * supersedes the graph uploads queued before it, since the graph sync always sends everything
+ * since the last acknowledged version.
+ */
+@Service(Service.Level.PROJECT)
+public final class UploadOutbox implements Disposable {
+
+    public static final String KIND_GIT_DIFF = "git-diff";
+    public static final String KIND_GRAPH = "graph";
+
+    /**
+     * Told about the outcome of a queued upload; only called within the session that queued it
+     */
+    public interface DeliveryListener {
+        void delivered(String responseBody);
+
+        default void rejected(IOException error) {
+        }
+    }
+
+    private static final int MAGIC = 0x474E4F42;
+    private static final byte RECORD_PAYLOAD = 1;
+    private static final byte RECORD_DONE = 2;
+    // Magic, record type and id
+    private static final int RECORD_PREFIX_BYTES = 4 + 1 + 8;
+    private static final int DONE_RECORD_BYTES = RECORD_PREFIX_BYTES;
+    private static final int BATCH_SIZE = 16;
+    private static final long MIN_RETRY_MILLIS = 5_000;
+    private static final long MAX_RETRY_MILLIS = 300_000;
+    private static final long COMPACT_THRESHOLD_BYTES = 16L * 1024 * 1024;
+
+    private record Entry(long id, String kind, String url, String mediaType, String idempotencyKey,
+                         long recordOffset, long recordLength, long payloadOffset, long payloadLength) {
+    }
+
+    private final Project project;
+    private final Path logFile;
+    private final Object lock = new Object();
+    private final LinkedHashMap<Long, Entry> pending = new LinkedHashMap<>();
+    private final Map<Long, DeliveryListener> listeners = new HashMap<>();
+    private FileChannel channel;
+    private long nextId = 1;
+    private long liveBytes = 0;
+    private ScheduledFuture<?> scheduledDrain;
+    // A batch is being delivered; no second drain starts and the log is not compacted meanwhile
+    private boolean draining = false;
+    private long retryDelayMillis = MIN_RETRY_MILLIS;
+    private boolean disposed = false;
+
+    public UploadOutbox(@NotNull Project project) {
+        this(project, Paths.get(PathManager.getSystemPath(), "graphnet", project.getLocationHash(), "outbox.log"));
+    }
+
+    UploadOutbox(@NotNull Project project, @NotNull Path logFile) {
+        this.project = project;
+        this.logFile = logFile;
+    }
+
+    public static UploadOutbox getInstance(@NotNull Project project) {
+        return project.getService(UploadOutbox.class);
+    }
+
+    /**
+     * Recover the log and start delivering what is left from earlier sessions
+     */
+    public void start() {
+        synchronized (lock) {
+            try {
+                ensureOpen();
+            } catch (IOException e) {
+                System.err.println("Could not open upload outbox: " + e.getMessage());
+                return;
+            }
+            if (!pending.isEmpty()) {
+                System.out.println("Upload outbox has " + pending.size() + " queued uploads for " + project.getName());
+                scheduleDrain(0);
+            }
+        }
+    }
+
+    public boolean hasPending() {
+        synchronized (lock) {
+            return !pending.isEmpty();
+        }
+    }
+
+    public int getPendingCount() {
+        synchronized (lock) {
+            return pending.size();
+        }
+    }
+
+    /**
+     * Failures worth queueing for: the backend was unreachable or temporarily unable to answer
+     */
+    public static boolean isTransient(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof HttpStatusException statusError) {
+            int status = statusError.getStatusCode();
+            return status >= 500 || status == 408 || status == 429;
+        }
+        return cause instanceof IOException;
+    }
+
+    /**
+     * Write the body to the log and deliver it later. The body is written here, on the caller's thread.
+     */
+    public void enqueue(String kind, String url, @Nullable String idempotencyKey, RequestBody body,
+                        @Nullable DeliveryListener listener) throws IOException {
+        synchronized (lock) {
+            if (disposed) throw new IOException("Upload outbox is closed");
+            ensureOpen();
+
+            if (KIND_GRAPH.equals(kind)) {
+                supersedeGraphUploads();
+            }
+
+            MediaType contentType = body.contentType();
+            Entry entry = append(kind, url, contentType != null ? contentType.toString() : "application/octet-stream",
+                    idempotencyKey != null ? idempotencyKey : "", body);
+            pending.put(entry.id, entry);
+            liveBytes += entry.recordLength;
+            if (listener != null) {
+                listeners.put(entry.id, listener);
+            }
+            scheduleDrain(retryDelayMillis);
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (channel != null) return;
+
+        Files.createDirectories(logFile.getParent());
+        channel = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        recover();
+    }
+
+    /**
+     * Rebuild the pending entries from the log, cutting off a record that was only partly written
+     */
+    private void recover() throws IOException {
+        pending.clear();
+        liveBytes = 0;
+        long offset = 0;
+        // End of the last complete record
+        long validEnd = 0;
+
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel.position(0)), 64 * 1024));
+        try {
+            while (true) {
+                long recordOffset = offset;
+                int magic;
+                try {
+                    magic = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                if (magic != MAGIC) break;
+
+                byte type = in.readByte();
+                long id = in.readLong();
+                offset += RECORD_PREFIX_BYTES;
+                nextId = Math.max(nextId, id + 1);
+
+                if (type == RECORD_DONE) {
+                    Entry done = pending.remove(id);
+                    if (done != null) liveBytes -= done.recordLength;
+                    validEnd = offset;
+                    continue;
+                }
+                if (type != RECORD_PAYLOAD) break;
+
+                long payloadLength = in.readLong();
+                offset += 8;
+                String[] fields = new String[4];
+                for (int i = 0; i < fields.length; i++) {
+                    byte[] bytes = new byte[in.readInt()];
+                    in.readFully(bytes);
+                    fields[i] = new String(bytes, StandardCharsets.UTF_8);
+                    offset += 4 + bytes.length;
+                }
+                // -1 means the payload was never completed
+                if (payloadLength < 0) break;
+
+                long payloadOffset = offset;
+                CRC32 crc = new CRC32();
+                byte[] buffer = new byte[8192];
+                long remaining = payloadLength;
+                while (remaining > 0) {
+                    int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                    if (read < 0) throw new EOFException();
+                    crc.update(buffer, 0, read);
+                    remaining -= read;
+                }
+                if (in.readInt() != (int) crc.getValue()) break;
+                offset += payloadLength + 4;
+
+                Entry entry = new Entry(id, fields[0], fields[1], fields[2], fields[3],
+                        recordOffset, offset - recordOffset, payloadOffset, payloadLength);
+                pending.put(id, entry);
+                liveBytes += entry.recordLength;
+                validEnd = offset;
+            }
+        } catch (EOFException e) {
+            // Torn record at the end of the log
+        }
+
+        if (validEnd < channel.size()) {
+            System.out.println("Upload outbox: discarding " + (channel.size() - validEnd) + " bytes of an incomplete record");
+            channel.truncate(validEnd);
+        }
+        channel.position(channel.size());
+    }
+
+    private Entry append(String kind, String url, String mediaType, String idempotencyKey, RequestBody body) throws IOException {
+        long recordOffset = channel.size();
+        long id = nextId++;
+
+        List<byte[]> fields = List.of(kind.getBytes(StandardCharsets.UTF_8), url.getBytes(StandardCharsets.UTF_8),
+                mediaType.getBytes(StandardCharsets.UTF_8), idempotencyKey.getBytes(StandardCharsets.UTF_8));
+        int headerLength = RECORD_PREFIX_BYTES + 8;
+        for (byte[] field : fields) headerLength += 4 + field.length;
+
+        ByteBuffer header = ByteBuffer.allocate(headerLength);
+        header.putInt(MAGIC).put(RECORD_PAYLOAD).putLong(id).putLong(-1);
+        for (byte[] field : fields) header.putInt(field.length).put(field);
+        header.flip();
+
+        try {
+            channel.position(recordOffset);
+            while (header.hasRemaining()) channel.write(header);
+            long payloadOffset = recordOffset + headerLength;
+
+            // Stream the payload into the log; closing the sink would close the channel, so only flush
+            CRC32 crc = new CRC32();
+            OutputStream out = new CheckedOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024), crc);
+            BufferedSink sink = Okio.buffer(Okio.sink(out));
+            body.writeTo(sink);
+            sink.flush();
+            long payloadLength = channel.position() - payloadOffset;
+
+            ByteBuffer trailer = ByteBuffer.allocate(4).putInt((int) crc.getValue());
+            trailer.flip();
+            while (trailer.hasRemaining()) channel.write(trailer);
+
+            // The length is filled in last, a record without it is discarded on recovery
+            ByteBuffer length = ByteBuffer.allocate(8).putLong(payloadLength);
+            length.flip();
+            channel.write(length, recordOffset + RECORD_PREFIX_BYTES);
+            channel.force(false);
+
+            return new Entry(id, kind, url, mediaType, idempotencyKey, recordOffset,
+                    channel.position() - recordOffset, payloadOffset, payloadLength);
+        } catch (IOException | RuntimeException e) {
+            channel.truncate(recordOffset);
+            channel.position(recordOffset);
+            throw e;
+        }
+    }
+
+    private void markDone(Collection<Long> ids) throws IOException {
+        if (ids.isEmpty()) return;
+
+        ByteBuffer records = ByteBuffer.allocate(ids.size() * DONE_RECORD_BYTES);
+        for (long id : ids) {
+            records.putInt(MAGIC).put(RECORD_DONE).putLong(id);
+            Entry done = pending.remove(id);
+            if (done != null) liveBytes -= done.recordLength;
+            listeners.remove(id);
+        }
+        records.flip();
+        channel.position(channel.size());
+        while (records.hasRemaining()) channel.write(records);
+        channel.force(false);
+    }
+
+    private void supersedeGraphUploads() throws IOException {
+        List<Long> superseded = new ArrayList<>();
+        for (Entry entry : pending.values()) {
+            if (KIND_GRAPH.equals(entry.kind)) superseded.add(entry.id);
+        }
+        if (!superseded.isEmpty()) {
+            System.out.println("Upload outbox: replacing " + superseded.size() + " queued graph uploads");
+            markDone(superseded);
+        }
+    }
+
+    private void scheduleDrain(long delayMillis) {
+        if (disposed || draining || scheduledDrain != null) return;
+        scheduledDrain = AppExecutorUtil.getAppScheduledExecutorService().schedule(this::drain, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void drain() {
+        List<Entry> batch;
+        synchronized (lock) {
+            scheduledDrain = null;
+            if (disposed || draining || pending.isEmpty()) return;
+            batch = new ArrayList<>(pending.values()).subList(0, Math.min(BATCH_SIZE, pending.size()));
+            draining = true;
+        }
+
+        List<Long> done = new ArrayList<>();
+        Map<Entry, Object> outcomes = new LinkedHashMap<>();
+        boolean backendDown = false;
+        for (Entry entry : batch) {
+            try {
+                outcomes.put(entry, deliver(entry));
+                done.add(entry.id);
+            } catch (IOException e) {
+                if (isTransient(e)) {
+                    backendDown = true;
+                    break;
+                }
+                // The backend refused the payload itself, retrying will not help
+                System.err.println("Dropping queued " + entry.kind + " upload: " + e.getMessage());
+                outcomes.put(entry, e);
+                done.add(entry.id);
+            }
+        }
+
+        Map<Entry, DeliveryListener> notify = new LinkedHashMap<>();
+        synchronized (lock) {
+            draining = false;
+            for (Entry entry : outcomes.keySet()) {
+                DeliveryListener listener = listeners.get(entry.id);
+                if (listener != null) notify.put(entry, listener);
+            }
+            // Delivered entries are recorded even when the project is closing, or they would go out again
+            try {
+                markDone(done);
+                if (!disposed) compactIfNeeded();
+            } catch (IOException e) {
+                System.err.println("Could not update upload outbox: " + e.getMessage());
+            }
+            if (disposed) {
+                closeChannel();
+                return;
+            }
+
+            if (backendDown) {
+                long delay = retryDelayMillis + ThreadLocalRandom.current().nextLong(retryDelayMillis / 2 + 1);
+                retryDelayMillis = Math.min(MAX_RETRY_MILLIS, retryDelayMillis * 2);
+                System.out.println("Microservice unreachable, retrying " + pending.size() + " queued uploads in "
+                        + TimeUnit.MILLISECONDS.toSeconds(delay) + " s");
+                scheduleDrain(delay);
+            } else {
+                retryDelayMillis = MIN_RETRY_MILLIS;
+                if (!pending.isEmpty()) scheduleDrain(0);
+            }
+        }
+
+        if (!done.isEmpty()) {
+            System.out.println("Upload outbox delivered " + done.size() + " queued uploads");
+        }
+        for (Map.Entry<Entry, DeliveryListener> entry : notify.entrySet()) {
+            Object outcome = outcomes.get(entry.getKey());
+            if (outcome instanceof IOException error) {
+                entry.getValue().rejected(error);
+            } else {
+                entry.getValue().delivered((String) outcome);
+            }
+        }
+    }
+
+    private String deliver(Entry entry) throws IOException {
+        Request.Builder requestBuilder = new Request.Builder()
+                .url(entry.url)
+                .post(new LogRegionBody(logFile, MediaType.parse(entry.mediaType), entry.payloadOffset, entry.payloadLength));
+        if (!entry.idempotencyKey.isEmpty()) {
+            requestBuilder.header("Idempotency-Key", entry.idempotencyKey);
+        }
+
+        try (Response response = MicroserviceTransport.getInstance().getClient().newCall(requestBuilder.build()).execute()) {
+            return HttpFutures.successfulBody(response, "Failed to deliver queued " + entry.kind + " upload.");
+        }
+    }
+
+    /**
+     * Once nothing is pending the log is emptied; a large log that is mostly done is rewritten
+     */
+    private void compactIfNeeded() throws IOException {
+        if (pending.isEmpty()) {
+            channel.truncate(0);
+            channel.position(0);
+            liveBytes = 0;
+            return;
+        }
+
+        long size = channel.size();
+        if (size < COMPACT_THRESHOLD_BYTES || liveBytes * 4 > size) return;
+
+        Path compacted = logFile.resolveSibling("outbox.log.tmp");
+        LinkedHashMap<Long, Entry> moved = new LinkedHashMap<>();
+        try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (Entry entry : pending.values()) {
+                long newOffset = out.position();
+                long copied = 0;
+                while (copied < entry.recordLength) {
+                    copied += channel.transferTo(entry.recordOffset + copied, entry.recordLength - copied, out);
+                }
+                moved.put(entry.id, new Entry(entry.id, entry.kind, entry.url, entry.mediaType, entry.idempotencyKey,
+                        newOffset, entry.recordLength, entry.payloadOffset - entry.recordOffset + newOffset, entry.payloadLength));
+            }
+            out.force(true);
+        }
+
+        channel.close();
+        Files.move(compacted, logFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(logFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        pending.clear();
+        pending.putAll(moved);
+        System.out.println("Upload outbox compacted from " + size + " to " + channel.size() + " bytes");
+    }
+
+    @Override
+    public void dispose() {
+        synchronized (lock) {
+            disposed = true;
+            if (scheduledDrain != null) {
+                scheduledDrain.cancel(false);
+                scheduledDrain = null;
+            }
+            listeners.clear();
+            // A drain in flight still has to record what it delivered, it closes the log itself
+            if (!draining) closeChannel();
+        }
+    }
+
+    private void closeChannel() {
+        if (channel == null) return;
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // Nothing left to flush, every record was forced when written
+        }
+        channel = null;
+    }
+
+    /**
+     * Streams a queued payload from the log without loading it into memory
+     */
+    private static class LogRegionBody extends RequestBody {
+        private final Path file;
+        private final MediaType contentType;
+        private final long offset;
+        private final long length;
+
+        LogRegionBody(Path file, MediaType contentType, long offset, long length) {
+            this.file = file;
+            this.contentType = contentType;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public @Nullable MediaType contentType() {
+            return contentType;
+        }
+
+        @Override
+        public long contentLength() {
+            return length;
+        }
+
+        @Override
+        public void writeTo(@NotNull BufferedSink sink) throws IOException {
+            try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ);
+                 Source source = Okio.source(Channels.newInputStream(in.position(offset)))) {
+                sink.write(source, length);
+            }
+        }
+    }
+}
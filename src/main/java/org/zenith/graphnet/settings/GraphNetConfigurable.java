@@ -17,6 +17,23 @@ public class GraphNetConfigurable implements Configurable {
     private JCheckBox gitIntegrationCheckBox;
     private JSpinner maxDepthSpinner;
     private JCheckBox showOnlyProjectFilesCheckBox;
+    private JCheckBox twoPhaseDiffCheckBox;
+    private JSpinner maxDiffLinesSpinner;
+    private JCheckBox mergeRequestDiffCheckBox;
+    private JTextField targetBranchField;
+    private JSpinner maxDiffKbPerFileSpinner;
+    private JSpinner maxDiffKbPerRequestSpinner;
+    private JCheckBox gzipUploadsCheckBox;
+    private JSpinner gzipLevelSpinner;
+    private JSpinner gzipMinKbSpinner;
+    private JComboBox<String> payloadFormatComboBox;
+    private JCheckBox attachImpactGraphCheckBox;
+    private JSpinner impactDependencyHopsSpinner;
+    private JSpinner sendDebounceSpinner;
+    private JSpinner exportNodeBudgetSpinner;
+    private JComboBox<String> exportClusteringComboBox;
+    private JSpinner exportFocusHopsSpinner;
+    private JCheckBox pruneTransitiveEdgesCheckBox;
     private JPanel mainPanel;
 
     @Nls(capitalization = Nls.Capitalization.Title)
@@ -64,6 +81,119 @@ public class GraphNetConfigurable implements Configurable {
         showOnlyProjectFilesCheckBox = new JCheckBox("Show only project files in analysis");
         formPanel.add(showOnlyProjectFilesCheckBox, gbc);
 
+        // Two-phase diff collection
+        gbc.gridy = 5;
+        twoPhaseDiffCheckBox = new JCheckBox("Load diffs only for relevant files (two-phase diff)");
+        formPanel.add(twoPhaseDiffCheckBox, gbc);
+
+        // Max changed lines per file
+        gbc.gridx = 0; gbc.gridy = 6; gbc.gridwidth = 1;
+        formPanel.add(new JLabel("Max changed lines per diff file:"), gbc);
+
+        gbc.gridx = 1;
+        maxDiffLinesSpinner = new JSpinner(new SpinnerNumberModel(2000, 10, 1_000_000, 100));
+        formPanel.add(maxDiffLinesSpinner, gbc);
+
+        // Merge request diff against the target branch
+        gbc.gridx = 0; gbc.gridy = 7; gbc.gridwidth = 2;
+        mergeRequestDiffCheckBox = new JCheckBox("Diff HEAD against the merge-base with the target branch");
+        formPanel.add(mergeRequestDiffCheckBox, gbc);
+
+        gbc.gridx = 0; gbc.gridy = 8; gbc.gridwidth = 1;
+        formPanel.add(new JLabel("Target branch:"), gbc);
+
+        gbc.gridx = 1; gbc.fill = GridBagConstraints.HORIZONTAL;
+        targetBranchField = new JTextField(30);
+        formPanel.add(targetBranchField, gbc);
+
+        // Diff payload budgets
+        gbc.gridx = 0; gbc.gridy = 9; gbc.fill = GridBagConstraints.NONE;
+        formPanel.add(new JLabel("Max diff size per file (KB):"), gbc);
+
+        gbc.gridx = 1;
+        maxDiffKbPerFileSpinner = new JSpinner(new SpinnerNumberModel(256, 1, 1_048_576, 64));
+        formPanel.add(maxDiffKbPerFileSpinner, gbc);
+
+        gbc.gridx = 0; gbc.gridy = 10;
+        formPanel.add(new JLabel("Max diff size per request (KB):"), gbc);
+
+        gbc.gridx = 1;
+        maxDiffKbPerRequestSpinner = new JSpinner(new SpinnerNumberModel(8192, 1, 4_194_304, 1024));
+        formPanel.add(maxDiffKbPerRequestSpinner, gbc);
+
+        // Upload compression
+        gbc.gridx = 0; gbc.gridy = 11; gbc.gridwidth = 2;
+        gzipUploadsCheckBox = new JCheckBox("Compress uploads with gzip");
+        formPanel.add(gzipUploadsCheckBox, gbc);
+
+        gbc.gridx = 0; gbc.gridy = 12; gbc.gridwidth = 1;
+        formPanel.add(new JLabel("Gzip level (1-9):"), gbc);
+
+        gbc.gridx = 1;
+        gzipLevelSpinner = new JSpinner(new SpinnerNumberModel(6, 1, 9, 1));
+        formPanel.add(gzipLevelSpinner, gbc);
+
+        gbc.gridx = 0; gbc.gridy = 13;
+        formPanel.add(new JLabel("Compress uploads larger than (KB):"), gbc);
+
+        gbc.gridx = 1;
+        gzipMinKbSpinner = new JSpinner(new SpinnerNumberModel(1, 0, 1_048_576, 1));
+        formPanel.add(gzipMinKbSpinner, gbc);
+
+        // Wire format of uploads
+        gbc.gridx = 0; gbc.gridy = 14;
+        formPanel.add(new JLabel("Upload format:"), gbc);
+
+        gbc.gridx = 1;
+        payloadFormatComboBox = new JComboBox<>(new String[]{"json", "smile", "cbor", "auto"});
+        formPanel.add(payloadFormatComboBox, gbc);
+
+        // Impact neighborhood in the git diff upload
+        gbc.gridx = 0; gbc.gridy = 15; gbc.gridwidth = 2;
+        attachImpactGraphCheckBox = new JCheckBox("Send the dependency neighborhood of changed files with the git diff");
+        formPanel.add(attachImpactGraphCheckBox, gbc);
+
+        gbc.gridx = 0; gbc.gridy = 16; gbc.gridwidth = 1;
+        formPanel.add(new JLabel("Include dependencies of changed files within (hops):"), gbc);
+
+        gbc.gridx = 1;
+        impactDependencyHopsSpinner = new JSpinner(new SpinnerNumberModel(1, 0, 10, 1));
+        formPanel.add(impactDependencyHopsSpinner, gbc);
+
+        // Repeated sends within the window are merged into one upload
+        gbc.gridx = 0; gbc.gridy = 17;
+        formPanel.add(new JLabel("Merge sends within (ms):"), gbc);
+
+        gbc.gridx = 1;
+        sendDebounceSpinner = new JSpinner(new SpinnerNumberModel(500, 0, 60_000, 100));
+        formPanel.add(sendDebounceSpinner, gbc);
+
+        // Level of detail of exported diagrams, 0 exports every file
+        gbc.gridx = 0; gbc.gridy = 18;
+        formPanel.add(new JLabel("Max nodes per exported diagram:"), gbc);
+
+        gbc.gridx = 1;
+        exportNodeBudgetSpinner = new JSpinner(new SpinnerNumberModel(300, 0, 100_000, 50));
+        formPanel.add(exportNodeBudgetSpinner, gbc);
+
+        gbc.gridx = 0; gbc.gridy = 19;
+        formPanel.add(new JLabel("Collapse files above the limit by:"), gbc);
+
+        gbc.gridx = 1;
+        exportClusteringComboBox = new JComboBox<>(new String[]{"package", "scc"});
+        formPanel.add(exportClusteringComboBox, gbc);
+
+        gbc.gridx = 0; gbc.gridy = 20;
+        formPanel.add(new JLabel("Keep files around the current file expanded (hops):"), gbc);
+
+        gbc.gridx = 1;
+        exportFocusHopsSpinner = new JSpinner(new SpinnerNumberModel(2, 0, 10, 1));
+        formPanel.add(exportFocusHopsSpinner, gbc);
+
+        gbc.gridx = 0; gbc.gridy = 21; gbc.gridwidth = 2;
+        pruneTransitiveEdgesCheckBox = new JCheckBox("Leave out edges implied by longer dependency paths");
+        formPanel.add(pruneTransitiveEdgesCheckBox, gbc);
+
         mainPanel.add(formPanel, BorderLayout.NORTH);
 
         return mainPanel;
@@ -77,7 +207,24 @@ public class GraphNetConfigurable implements Configurable {
                 autoAnalysisCheckBox.isSelected() != settings.isAutoAnalysisEnabled() ||
                 gitIntegrationCheckBox.isSelected() != settings.isGitIntegrationEnabled() ||
                 !maxDepthSpinner.getValue().equals(settings.getMaxDependencyDepth()) ||
-                showOnlyProjectFilesCheckBox.isSelected() != settings.isShowOnlyProjectFiles();
+                showOnlyProjectFilesCheckBox.isSelected() != settings.isShowOnlyProjectFiles() ||
+                twoPhaseDiffCheckBox.isSelected() != settings.isTwoPhaseDiffEnabled() ||
+                !maxDiffLinesSpinner.getValue().equals(settings.getMaxDiffLinesPerFile()) ||
+                mergeRequestDiffCheckBox.isSelected() != settings.isMergeRequestDiffEnabled() ||
+                !targetBranchField.getText().equals(settings.getTargetBranch()) ||
+                !maxDiffKbPerFileSpinner.getValue().equals(settings.getMaxDiffKbPerFile()) ||
+                !maxDiffKbPerRequestSpinner.getValue().equals(settings.getMaxDiffKbPerRequest()) ||
+                gzipUploadsCheckBox.isSelected() != settings.isGzipUploadsEnabled() ||
+                !gzipLevelSpinner.getValue().equals(settings.getGzipLevel()) ||
+                !gzipMinKbSpinner.getValue().equals(settings.getGzipMinKb()) ||
+                !payloadFormatComboBox.getSelectedItem().equals(settings.getPayloadFormat()) ||
+                attachImpactGraphCheckBox.isSelected() != settings.isAttachImpactGraphEnabled() ||
+                !impactDependencyHopsSpinner.getValue().equals(settings.getImpactDependencyHops()) ||
+                !sendDebounceSpinner.getValue().equals(settings.getSendDebounceMs()) ||
+                !exportNodeBudgetSpinner.getValue().equals(settings.getExportNodeBudget()) ||
+                !exportClusteringComboBox.getSelectedItem().equals(settings.getExportClustering()) ||
+                !exportFocusHopsSpinner.getValue().equals(settings.getExportFocusHops()) ||
+                pruneTransitiveEdgesCheckBox.isSelected() != settings.isPruneTransitiveEdgesEnabled();
     }
 
     @Override
@@ -89,6 +236,23 @@ public class GraphNetConfigurable implements Configurable {
         settings.setGitIntegrationEnabled(gitIntegrationCheckBox.isSelected());
         settings.setMaxDependencyDepth((Integer) maxDepthSpinner.getValue());
         settings.setShowOnlyProjectFiles(showOnlyProjectFilesCheckBox.isSelected());
+        settings.setTwoPhaseDiffEnabled(twoPhaseDiffCheckBox.isSelected());
+        settings.setMaxDiffLinesPerFile((Integer) maxDiffLinesSpinner.getValue());
+        settings.setMergeRequestDiffEnabled(mergeRequestDiffCheckBox.isSelected());
+        settings.setTargetBranch(targetBranchField.getText().trim());
+        settings.setMaxDiffKbPerFile((Integer) maxDiffKbPerFileSpinner.getValue());
+        settings.setMaxDiffKbPerRequest((Integer) maxDiffKbPerRequestSpinner.getValue());
+        settings.setGzipUploadsEnabled(gzipUploadsCheckBox.isSelected());
+        settings.setGzipLevel((Integer) gzipLevelSpinner.getValue());
+        settings.setGzipMinKb((Integer) gzipMinKbSpinner.getValue());
+        settings.setPayloadFormat((String) payloadFormatComboBox.getSelectedItem());
+        settings.setAttachImpactGraphEnabled(attachImpactGraphCheckBox.isSelected());
+        settings.setImpactDependencyHops((Integer) impactDependencyHopsSpinner.getValue());
+        settings.setSendDebounceMs((Integer) sendDebounceSpinner.getValue());
+        settings.setExportNodeBudget((Integer) exportNodeBudgetSpinner.getValue());
+        settings.setExportClustering((String) exportClusteringComboBox.getSelectedItem());
+        settings.setExportFocusHops((Integer) exportFocusHopsSpinner.getValue());
+        settings.setPruneTransitiveEdgesEnabled(pruneTransitiveEdgesCheckBox.isSelected());
     }
 
     @Override
@@ -100,5 +264,22 @@ public class GraphNetConfigurable implements Configurable {
         gitIntegrationCheckBox.setSelected(settings.isGitIntegrationEnabled());
         maxDepthSpinner.setValue(settings.getMaxDependencyDepth());
         showOnlyProjectFilesCheckBox.setSelected(settings.isShowOnlyProjectFiles());
+        twoPhaseDiffCheckBox.setSelected(settings.isTwoPhaseDiffEnabled());
+        maxDiffLinesSpinner.setValue(settings.getMaxDiffLinesPerFile());
+        mergeRequestDiffCheckBox.setSelected(settings.isMergeRequestDiffEnabled());
+        targetBranchField.setText(settings.getTargetBranch());
+        maxDiffKbPerFileSpinner.setValue(settings.getMaxDiffKbPerFile());
+        maxDiffKbPerRequestSpinner.setValue(settings.getMaxDiffKbPerRequest());
+        gzipUploadsCheckBox.setSelected(settings.isGzipUploadsEnabled());
+        gzipLevelSpinner.setValue(settings.getGzipLevel());
+        gzipMinKbSpinner.setValue(settings.getGzipMinKb());
+        payloadFormatComboBox.setSelectedItem(settings.getPayloadFormat());
+        attachImpactGraphCheckBox.setSelected(settings.isAttachImpactGraphEnabled());
+        impactDependencyHopsSpinner.setValue(settings.getImpactDependencyHops());
+        sendDebounceSpinner.setValue(settings.getSendDebounceMs());
+        exportNodeBudgetSpinner.setValue(settings.getExportNodeBudget());
+        exportClusteringComboBox.setSelectedItem(settings.getExportClustering());
+        exportFocusHopsSpinner.setValue(settings.getExportFocusHops());
+        pruneTransitiveEdgesCheckBox.setSelected(settings.isPruneTransitiveEdgesEnabled());
     }
 }
\ No newline at end of file
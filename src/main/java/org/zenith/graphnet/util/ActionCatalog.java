@@ -0,0 +1,114 @@
+package org.zenith.graphnet.util;
+
+import com.intellij.openapi.actionSystem.ActionManager;
+import com.intellij.openapi.actionSystem.AnAction;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Snapshot of the registered IDE actions for the Action Discovery tab. Built once off the EDT:
+ * each entry keeps a lowercase search text and its diagram/UML classification, so filtering
+ * never touches the action manager or lowercases anything again.
+ */
+public final class ActionCatalog {
+
+    public enum Category { ALL, DIAGRAM, UML }
+
+    public record Entry(String id, String description, boolean available, String searchText,
+                        boolean diagram, boolean uml) {
+
+        public boolean in(Category category) {
+            return switch (category) {
+                case ALL -> true;
+                case DIAGRAM -> diagram;
+                case UML -> uml;
+            };
+        }
+
+        /**
+         * True when every whitespace-separated term occurs in the id or description
+         */
+        public boolean matches(String[] lowercaseTerms) {
+            for (String term : lowercaseTerms) {
+                if (!searchText.contains(term)) return false;
+            }
+            return true;
+        }
+    }
+
+    private final List<Entry> entries;
+
+    private ActionCatalog(List<Entry> entries) {
+        this.entries = Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * Read every registered action, sorted by id ignoring case
+     */
+    public static ActionCatalog build() {
+        long start = System.nanoTime();
+        ActionManager actionManager = ActionManager.getInstance();
+        String[] actionIds = actionManager.getActionIds("");
+
+        List<Entry> entries = new ArrayList<>(actionIds.length);
+        for (String actionId : actionIds) {
+            AnAction action = actionManager.getAction(actionId);
+            String description = action != null ? describe(action) : "N/A";
+            String lowerActionId = actionId.toLowerCase(Locale.ROOT);
+
+            entries.add(new Entry(actionId, description, action != null,
+                    lowerActionId + '\n' + description.toLowerCase(Locale.ROOT),
+                    isDiagramAction(lowerActionId), isUmlAction(lowerActionId)));
+        }
+        entries.sort((a, b) -> String.CASE_INSENSITIVE_ORDER.compare(a.id, b.id));
+
+        System.out.println("Cataloged " + entries.size() + " actions in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        return new ActionCatalog(entries);
+    }
+
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    public static String[] searchTerms(String query) {
+        String trimmed = query.trim().toLowerCase(Locale.ROOT);
+        return trimmed.isEmpty() ? new String[0] : trimmed.split("\\s+");
+    }
+
+    private static boolean isDiagramAction(String lowerActionId) {
+        return lowerActionId.contains("diagram") ||
+                lowerActionId.contains("dependency") ||
+                lowerActionId.contains("dependencies") ||
+                lowerActionId.contains("graph") ||
+                lowerActionId.contains("visualize") ||
+                lowerActionId.contains("provider") ||
+                lowerActionId.contains("show") && (lowerActionId.contains("structure") || lowerActionId.contains("hierarchy"));
+    }
+
+    private static boolean isUmlAction(String lowerActionId) {
+        return lowerActionId.contains("uml") ||
+                lowerActionId.contains("class") && lowerActionId.contains("diagram") ||
+                lowerActionId.contains("sequence") ||
+                lowerActionId.contains("hierarchy");
+    }
+
+    private static String describe(AnAction action) {
+        try {
+            String text = action.getTemplatePresentation().getText();
+            String description = action.getTemplatePresentation().getDescription();
+
+            if (text != null && !text.isEmpty()) {
+                return text;
+            } else if (description != null && !description.isEmpty()) {
+                return description;
+            } else {
+                return action.getClass().getSimpleName();
+            }
+        } catch (Exception e) {
+            return "Unknown";
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package org.zenith.graphnet.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import okhttp3.*;
+import okio.BufferedSink;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Uploads a file in fixed-size chunks so that a dropped connection only costs the chunk in flight.
+ * The upload is opened with the SHA-256 of the whole file, and reopening it for the same content
+ * returns the offset the server already holds. Every chunk carries its own SHA-256 and the server
+ * answers with the offset it holds afterwards; after a failure that offset is asked for and the
+ * upload resumes from there. The file is read with positional NIO reads through a fixed buffer.
+ *
+ * <pre>
+ * POST {endpoint}/uploads                     {fileName, size, sha256, chunkSize} -> {uploadId, offset}
+ * PUT  {endpoint}/uploads/{uploadId}          Content-Range, Chunk-SHA256 header  -> {offset}
+ * GET  {endpoint}/uploads/{uploadId}                                              -> {offset}
+ * POST {endpoint}/uploads/{uploadId}/complete
+ * </pre>
+ */
+public class ChunkedFileUpload {
+
+    public static final int DEFAULT_CHUNK_SIZE = 4 * 1024 * 1024;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_CONSECUTIVE_FAILURES = 5;
+    private static final long FAILURE_BACKOFF_MILLIS = 1_000;
+    private static final MediaType OCTET_STREAM = MediaType.get("application/octet-stream");
+    private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final OkHttpClient client;
+    private final String endpoint;
+    private final Path file;
+    private final int chunkSize;
+
+    public ChunkedFileUpload(OkHttpClient client, String endpoint, Path file, int chunkSize) {
+        this.client = client;
+        this.endpoint = endpoint;
+        this.file = file;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Upload the file, blocking until the server has all of it. Fails with an HttpStatusException
+     * from opening the upload when the server has no chunked upload endpoint.
+     */
+    public void upload(BooleanSupplier cancelled) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            String sha256 = digest(channel, 0, size);
+
+            JsonNode opened = open(size, sha256);
+            String uploadId = opened.path("uploadId").asText();
+            if (uploadId.isEmpty()) {
+                throw new IOException("Server did not return an upload id");
+            }
+            long offset = opened.path("offset").asLong(0);
+            if (offset > 0) {
+                System.out.println("Resuming upload of " + file.getFileName() + " at " + offset + " of " + size + " bytes");
+            }
+
+            int failures = 0;
+            while (offset < size) {
+                if (cancelled.getAsBoolean()) {
+                    throw new InterruptedIOException("Upload cancelled");
+                }
+
+                long length = Math.min(chunkSize, size - offset);
+                try {
+                    offset = putChunk(channel, uploadId, offset, length, size);
+                    failures = 0;
+                } catch (IOException e) {
+                    if (!isResumable(e) || ++failures >= MAX_CONSECUTIVE_FAILURES) throw e;
+
+                    System.out.println("Chunk at offset " + offset + " failed (" + e.getMessage() + "), resuming");
+                    pause(failures);
+                    try {
+                        offset = queryOffset(uploadId);
+                    } catch (IOException statusError) {
+                        // Try the same chunk again, it counts as another failure if it fails
+                        if (!isResumable(statusError)) throw statusError;
+                    }
+                }
+            }
+
+            complete(uploadId);
+        }
+    }
+
+    private JsonNode open(long size, String sha256) throws IOException {
+        ObjectNode request = MAPPER.createObjectNode()
+                .put("fileName", file.getFileName().toString())
+                .put("size", size)
+                .put("sha256", sha256)
+                .put("chunkSize", chunkSize);
+
+        // Opening twice for the same content is harmless, so the transport may retry it
+        return call(new Request.Builder()
+                .url(endpoint + "/uploads")
+                .header("Idempotency-Key", sha256)
+                .post(RequestBody.create(MAPPER.writeValueAsBytes(request), JSON))
+                .build(), "Failed to open chunked upload.");
+    }
+
+    private long putChunk(FileChannel channel, String uploadId, long offset, long length, long size) throws IOException {
+        String chunkSha256 = digest(channel, offset, length);
+        JsonNode response = call(new Request.Builder()
+                .url(endpoint + "/uploads/" + uploadId)
+                .header("Content-Range", "bytes " + offset + "-" + (offset + length - 1) + "/" + size)
+                .header("Chunk-SHA256", chunkSha256)
+                .put(new ChunkBody(channel, offset, length))
+                .build(), "Failed to upload chunk.");
+
+        long acknowledged = response.path("offset").asLong(offset + length);
+        if (acknowledged < offset) {
+            throw new IOException("Server went back to offset " + acknowledged);
+        }
+        return acknowledged;
+    }
+
+    private long queryOffset(String uploadId) throws IOException {
+        return call(new Request.Builder()
+                .url(endpoint + "/uploads/" + uploadId)
+                .get()
+                .build(), "Failed to read upload state.").path("offset").asLong(0);
+    }
+
+    private void complete(String uploadId) throws IOException {
+        call(new Request.Builder()
+                .url(endpoint + "/uploads/" + uploadId + "/complete")
+                .header("Idempotency-Key", uploadId)
+                .post(RequestBody.create(new byte[0], JSON))
+                .build(), "Failed to complete chunked upload.");
+    }
+
+    private JsonNode call(Request request, String failureMessage) throws IOException {
+        try (Response response = client.newCall(request).execute()) {
+            String body = HttpFutures.successfulBody(response, failureMessage);
+            return body.isBlank() ? MAPPER.createObjectNode() : MAPPER.readTree(body);
+        }
+    }
+
+    private String digest(FileChannel channel, long offset, long length) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        long position = offset;
+        long end = offset + length;
+        while (position < end) {
+            buffer.clear().limit((int) Math.min(BUFFER_SIZE, end - position));
+            int read = channel.read(buffer, position);
+            if (read < 0) throw new EOFException("File shrank during upload");
+            buffer.flip();
+            digest.update(buffer);
+            position += read;
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Connection problems, server errors and offset disagreements can be resumed from the server's offset
+     */
+    private static boolean isResumable(IOException error) {
+        if (error instanceof HttpStatusException statusError) {
+            int status = statusError.getStatusCode();
+            return status >= 500 || status == 408 || status == 409 || status == 416 || status == 429;
+        }
+        return !(error instanceof CircuitOpenException) && !(error instanceof InterruptedIOException);
+    }
+
+    private static void pause(int failures) throws InterruptedIOException {
+        try {
+            Thread.sleep(FAILURE_BACKOFF_MILLIS * failures);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Upload interrupted");
+        }
+    }
+
+    /**
+     * One chunk of the file, read again on every write so the transport can replay it
+     */
+    private static class ChunkBody extends RequestBody {
+        private final FileChannel channel;
+        private final long offset;
+        private final long length;
+
+        ChunkBody(FileChannel channel, long offset, long length) {
+            this.channel = channel;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public @Nullable MediaType contentType() {
+            return OCTET_STREAM;
+        }
+
+        @Override
+        public long contentLength() {
+            return length;
+        }
+
+        @Override
+        public void writeTo(@NotNull BufferedSink sink) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            long position = offset;
+            long end = offset + length;
+            while (position < end) {
+                buffer.clear().limit((int) Math.min(BUFFER_SIZE, end - position));
+                int read = channel.read(buffer, position);
+                if (read < 0) throw new EOFException("File shrank during upload");
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    sink.write(buffer);
+                }
+                position += read;
+            }
+        }
+    }
+}
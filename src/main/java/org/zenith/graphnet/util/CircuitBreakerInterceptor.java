@@ -0,0 +1,114 @@
+package org.zenith.graphnet.util;
+
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.Response;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-host circuit breaker. After a number of consecutive failures (I/O errors or 5xx
+ * responses) the circuit opens and requests fail immediately with CircuitOpenException
+ * instead of waiting for timeouts. Once the open period has passed a single trial request
+ * is let through; its outcome closes the circuit again or reopens it.
+ */
+public class CircuitBreakerInterceptor implements Interceptor {
+
+    private enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private static class Circuit {
+        State state = State.CLOSED;
+        int consecutiveFailures = 0;
+        long openedAtNanos = 0;
+    }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final Map<String, Circuit> circuits = new ConcurrentHashMap<>();
+
+    public CircuitBreakerInterceptor(int failureThreshold, long openDuration, TimeUnit unit) {
+        this.failureThreshold = failureThreshold;
+        this.openNanos = unit.toNanos(openDuration);
+    }
+
+    @Override
+    public @NotNull Response intercept(@NotNull Chain chain) throws IOException {
+        HttpUrl url = chain.request().url();
+        String key = url.host() + ":" + url.port();
+        Circuit circuit = circuits.computeIfAbsent(key, k -> new Circuit());
+
+        if (!tryAcquire(circuit)) {
+            throw new CircuitOpenException("Microservice at " + key + " is unavailable, not sending request");
+        }
+
+        Response response;
+        try {
+            response = chain.proceed(chain.request());
+        } catch (IOException e) {
+            if (!chain.call().isCanceled()) {
+                recordFailure(key, circuit);
+            } else {
+                release(circuit);
+            }
+            throw e;
+        }
+
+        if (response.code() >= 500) {
+            recordFailure(key, circuit);
+        } else {
+            recordSuccess(circuit);
+        }
+        return response;
+    }
+
+    private boolean tryAcquire(Circuit circuit) {
+        synchronized (circuit) {
+            switch (circuit.state) {
+                case CLOSED:
+                    return true;
+                case OPEN:
+                    if (System.nanoTime() - circuit.openedAtNanos < openNanos) return false;
+                    // Let one trial request through
+                    circuit.state = State.HALF_OPEN;
+                    return true;
+                default:
+                    // A trial request is already in flight
+                    return false;
+            }
+        }
+    }
+
+    private void recordSuccess(Circuit circuit) {
+        synchronized (circuit) {
+            circuit.state = State.CLOSED;
+            circuit.consecutiveFailures = 0;
+        }
+    }
+
+    private void recordFailure(String key, Circuit circuit) {
+        synchronized (circuit) {
+            circuit.consecutiveFailures++;
+            if (circuit.state == State.HALF_OPEN || circuit.consecutiveFailures >= failureThreshold) {
+                if (circuit.state != State.OPEN) {
+                    System.err.println("Opening circuit for " + key + " after " + circuit.consecutiveFailures + " failures");
+                }
+                circuit.state = State.OPEN;
+                circuit.openedAtNanos = System.nanoTime();
+            }
+        }
+    }
+
+    private void release(Circuit circuit) {
+        synchronized (circuit) {
+            // A cancelled trial says nothing about the backend, allow another one
+            if (circuit.state == State.HALF_OPEN) {
+                circuit.state = State.OPEN;
+                circuit.openedAtNanos = System.nanoTime() - openNanos;
+            }
+        }
+    }
+}
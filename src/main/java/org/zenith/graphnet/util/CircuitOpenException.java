@@ -0,0 +1,13 @@
+package org.zenith.graphnet.util;
+
+import java.io.IOException;
+
+/**
+ * A request was not sent because the circuit breaker for its host is open
+ */
+public class CircuitOpenException extends IOException {
+
+    public CircuitOpenException(String message) {
+        super(message);
+    }
+}
@@ -1,6 +1,7 @@
 package org.zenith.graphnet.util;
 
 import com.intellij.ide.DataManager;
+import com.intellij.ide.IdeEventQueue;
 import com.intellij.openapi.actionSystem.*;
 import com.intellij.openapi.actionSystem.impl.ActionButton;
 import com.intellij.openapi.actionSystem.impl.ActionToolbarImpl;
@@ -24,9 +25,13 @@ import org.zenith.graphnet.impl.HttpMicroserviceCommunicator;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.ContainerAdapter;
+import java.awt.event.ContainerEvent;
+import java.awt.event.ContainerListener;
 import java.awt.event.HierarchyEvent;
 import java.awt.event.HierarchyListener;
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
@@ -37,9 +42,10 @@ import java.util.concurrent.atomic.AtomicReference;
 
 public final class DiagramAutomationWithExportUtil {
     private static final Logger LOG = Logger.getInstance(DiagramAutomationWithExportUtil.class);
+    // One deadline for the whole workflow, from opening the diagram to the export
     private static final int MAX_WAIT_TIME_MS = 30000;
-    private static final int CHECK_INTERVAL_MS = 100;
-    private static final int RENDER_STABILIZATION_DELAY_MS = 1000; // Wait for rendering to stabilize
+    // The UI counts as settled once no events arrived for this long
+    private static final int SETTLE_TIME_MS = 300;
 
     private DiagramAutomationWithExportUtil() {
 
@@ -105,6 +111,11 @@ public final class DiagramAutomationWithExportUtil {
         private final AutomationConfig config;
         private final AtomicBoolean diagramFullyLoaded = new AtomicBoolean(false);
         private final AtomicBoolean workflowCompleted = new AtomicBoolean(false);
+        private final AtomicBoolean renderWaitStarted = new AtomicBoolean(false);
+        private final AtomicBoolean finished = new AtomicBoolean(false);
+        // Undoes the listeners registered while waiting, run on cleanup
+        private final List<Runnable> teardown = new ArrayList<>();
+        private Timer deadline;
         private final AtomicReference<FileEditor> diagramEditor = new AtomicReference<>();
         private MessageBusConnection connection;
         private HttpMicroserviceCommunicator communicator;
@@ -142,6 +153,10 @@ public final class DiagramAutomationWithExportUtil {
             return false;
         }
         void startListening(Runnable openDiagramAction) {
+            deadline = new Timer(MAX_WAIT_TIME_MS, e -> fail("Diagram was not ready within " + MAX_WAIT_TIME_MS + " ms"));
+            deadline.setRepeats(false);
+            deadline.start();
+
             connection = project.getMessageBus().connect();
             connection.subscribe(FileEditorManagerListener.FILE_EDITOR_MANAGER, new FileEditorManagerListener() {
                 @Override
@@ -193,58 +208,89 @@ public final class DiagramAutomationWithExportUtil {
             }
         }
 
+        /**
+         * Runs on the EDT once the editor is showing. The diagram counts as loaded when its toolbar
+         * has been populated and the UI has then settled; both are signalled, nothing is polled.
+         */
         private void waitForFullDiagramRender(JComponent editorComponent) {
-            ApplicationManager.getApplication().executeOnPooledThread(() -> {
-                long startTime = System.currentTimeMillis();
-                boolean previousLoadState = false;
-                int stableCount = 0;
-                System.out.println("Waiting for diagram to fully load...");
-                while (System.currentTimeMillis() - startTime < MAX_WAIT_TIME_MS) {
-                    boolean currentLoadState = isDiagramFullyLoaded(editorComponent);
-                    System.out.println("Diagram load state: " + currentLoadState);
-                    // Check if the state has been stable
-                    if (currentLoadState && currentLoadState == previousLoadState) {
-                        System.out.println("Diagram load state stable for " + (stableCount) + " checks");
-                        stableCount++;
-
-                        // If stable for multiple checks, consider it fully loaded
-                        if (stableCount >= 3) {
-                            System.out.println("Diagram rendering is stable and complete");
-                            diagramFullyLoaded.set(true);
-
-                            // Wait a bit more for any final rendering
-                            try {
-                                Thread.sleep(RENDER_STABILIZATION_DELAY_MS);
-                            } catch (InterruptedException e) {
-                                Thread.currentThread().interrupt();
-                                return;
-                            }
+            if (renderWaitStarted.getAndSet(true)) {
+                return; // Opening and selecting the editor both lead here
+            }
 
-                            // Execute workflow on EDT
-                            ApplicationManager.getApplication().invokeLater(this::executeWorkflow);
+            System.out.println("Waiting for diagram to fully load...");
+            whenToolbarPopulated(editorComponent, () -> whenSettled(() -> {
+                System.out.println("Diagram rendering is complete");
+                diagramFullyLoaded.set(true);
+                executeWorkflow();
+            }));
+        }
 
-                            return;
-                        }
-                    } else {
-                        stableCount = 0;
-                    }
+        /**
+         * Run the action as soon as the component tree holds a toolbar with buttons, watching
+         * containers as they are added instead of scanning the tree on a timer
+         */
+        private void whenToolbarPopulated(JComponent root, Runnable action) {
+            if (hasPopulatedToolbar(root)) {
+                action.run();
+                return;
+            }
 
-                    previousLoadState = currentLoadState;
+            List<Container> watched = new ArrayList<>();
+            ContainerListener listener = new ContainerAdapter() {
+                private boolean fired = false;
 
-                    try {
-                        Thread.sleep(CHECK_INTERVAL_MS);
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                        return;
+                @Override
+                public void componentAdded(ContainerEvent e) {
+                    if (fired) return;
+                    watch(e.getChild(), this, watched);
+                    if (hasPopulatedToolbar(root)) {
+                        fired = true;
+                        unwatch(this, watched);
+                        action.run();
                     }
                 }
+            };
+            watch(root, listener, watched);
+            teardown.add(() -> unwatch(listener, watched));
+        }
+
+        private static void watch(Component component, ContainerListener listener, List<Container> watched) {
+            if (!(component instanceof Container container)) return;
+
+            container.addContainerListener(listener);
+            watched.add(container);
+            for (Component child : container.getComponents()) {
+                watch(child, listener, watched);
+            }
+        }
+
+        private static void unwatch(ContainerListener listener, List<Container> watched) {
+            for (Container container : watched) {
+                container.removeContainerListener(listener);
+            }
+            watched.clear();
+        }
 
+        /**
+         * Run the action on the EDT once the IDE has been idle for the settle time,
+         * that is when layout and painting triggered by the last change are done
+         */
+        private void whenSettled(Runnable action) {
+            Runnable idleListener = new Runnable() {
+                private boolean fired = false;
 
-                cleanup();
-                if (config.onError != null) {
-                    ApplicationManager.getApplication().invokeLater(config.onError);
+                @Override
+                public void run() {
+                    if (fired) return;
+                    fired = true;
+                    ApplicationManager.getApplication().invokeLater(() -> {
+                        IdeEventQueue.getInstance().removeIdleListener(this);
+                        if (!finished.get()) action.run();
+                    });
                 }
-            });
+            };
+            IdeEventQueue.getInstance().addIdleListener(idleListener, SETTLE_TIME_MS);
+            teardown.add(() -> IdeEventQueue.getInstance().removeIdleListener(idleListener));
         }
 
         private void executeWorkflow() {
@@ -252,12 +298,12 @@ public final class DiagramAutomationWithExportUtil {
                 return; // Prevent duplicate execution
             }
 
+            boolean waitingForReRender = false;
             try {
                 System.out.println("Executing diagram automation workflow");
                 FileEditor editor = diagramEditor.get();
                 if (editor == null) {
-                    LOG.error("Diagram editor is null");
-                    if (config.onError != null) config.onError.run();
+                    fail("Diagram editor is null");
                     return;
                 }
 
@@ -270,11 +316,14 @@ public final class DiagramAutomationWithExportUtil {
                     if (toggled) {
                         // Wait for the diagram to re-render after toggling
                         System.out.println("Waiting for diagram to re-render after dependency toggle");
+                        waitingForReRender = true;
                         waitForReRender(() -> {
                             try {
                                 proceedToExport(editor);
                             } catch (Exception e) {
-                                throw new RuntimeException(e);
+                                fail("Diagram export failed: " + e.getMessage());
+                            } finally {
+                                cleanup();
                             }
                         });
                         return;
@@ -287,13 +336,17 @@ public final class DiagramAutomationWithExportUtil {
                 proceedToExport(editor);
 
             } catch (Exception e) {
-                throw new RuntimeException(e);
+                fail("Diagram export failed: " + e.getMessage());
             } finally {
-                cleanup();
+                if (!waitingForReRender) cleanup();
             }
         }
 
         private void proceedToExport(FileEditor editor) throws Exception {
+            if (finished.getAndSet(true)) {
+                return; // Timed out in the meantime
+            }
+
             // Step 2: Export to Mermaid if requested
             if (config.exportToMermaid) {
                 System.out.println("Exporting diagram to Mermaid");
@@ -306,17 +359,11 @@ public final class DiagramAutomationWithExportUtil {
             }
         }
 
+        /**
+         * The toggle re-lays out the diagram; it is done once the UI settles again
+         */
         private void waitForReRender(Runnable onComplete) {
-            ApplicationManager.getApplication().executeOnPooledThread(() -> {
-                try {
-                    // Wait for re-rendering to complete
-                    Thread.sleep(2000); // Give it time to re-render
-
-                    ApplicationManager.getApplication().invokeLater(onComplete);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                }
-            });
+            whenSettled(onComplete);
         }
 
         private void exportDiagramToMermaid(FileEditor editor) throws Exception {
@@ -361,7 +408,14 @@ public final class DiagramAutomationWithExportUtil {
                 exportAction.actionPerformed(event);
                 System.out.println("Executed Mermaid export");
                 // read the generated file and send its content
-                communicator.sendDependencyGraph(); // Placeholder for actual graph
+                // Upload in the background, this runs on the EDT
+                communicator.sendDependencyGraphAsync().whenComplete((result, error) -> {
+                    if (error != null) {
+                        LOG.warn("Failed to send dependency graph: " + error.getMessage());
+                    } else {
+                        System.out.println("Dependency graph sent to microservice");
+                    }
+                });
 
             } else {
                 LOG.error("Mermaid export action is not enabled");
@@ -393,11 +447,29 @@ public final class DiagramAutomationWithExportUtil {
             return false;
         }
 
+        private void fail(String message) {
+            if (finished.getAndSet(true)) {
+                return;
+            }
+            LOG.warn(message);
+            cleanup();
+            if (config.onError != null) {
+                config.onError.run();
+            }
+        }
+
         private void cleanup() {
+            if (deadline != null) {
+                deadline.stop();
+            }
+            for (Runnable undo : teardown) {
+                undo.run();
+            }
+            teardown.clear();
             if (connection != null) {
-                ApplicationManager.getApplication().invokeLater(() -> {
-                    connection.disconnect();
-                });
+                MessageBusConnection finishedConnection = connection;
+                connection = null;
+                ApplicationManager.getApplication().invokeLater(finishedConnection::disconnect);
             }
         }
 
@@ -412,27 +484,17 @@ public final class DiagramAutomationWithExportUtil {
             return className.contains("BorderLayoutPanel");
         }
 
-        private boolean isDiagramFullyLoaded(JComponent editorComponent) {
-            AtomicBoolean hasToolbar = new AtomicBoolean(false);
-
-            SwingUtilities.invokeLater(() -> {
-                // Check for toolbar with buttons
-                List<ActionToolbarImpl> toolbars = UIUtil.findComponentsOfType(editorComponent, ActionToolbarImpl.class);
-                for (ActionToolbar toolbar : toolbars) {
-                    if (toolbar.getComponent().getComponents().length > 0) {
-                        hasToolbar.set(true);
-                        break;
-                    }
+        /**
+         * Called on the EDT, so the component tree can be read directly
+         */
+        private static boolean hasPopulatedToolbar(JComponent editorComponent) {
+            List<ActionToolbarImpl> toolbars = UIUtil.findComponentsOfType(editorComponent, ActionToolbarImpl.class);
+            for (ActionToolbar toolbar : toolbars) {
+                if (toolbar.getComponent().getComponents().length > 0) {
+                    return true;
                 }
-            });
-
-            try {
-                SwingUtilities.invokeAndWait(() -> {});
-            } catch (Exception e) {
-                // Ignore
             }
-
-            return hasToolbar.get();
+            return false;
         }
     }
 
@@ -0,0 +1,53 @@
+package org.zenith.graphnet.util;
+
+/**
+ * Byte budgets for diff text kept in ChangedFile payloads.
+ * Each file may keep at most the per-file budget, and all files of one request
+ * share the per-request budget. Whole hunks are dropped once a budget is exhausted.
+ */
+public class DiffBudget {
+
+    private final long maxBytesPerFile;
+    private long remainingRequestBytes;
+
+    public DiffBudget(long maxBytesPerFile, long maxBytesPerRequest) {
+        this.maxBytesPerFile = maxBytesPerFile;
+        this.remainingRequestBytes = maxBytesPerRequest;
+    }
+
+    public static DiffBudget unlimited() {
+        return new DiffBudget(Long.MAX_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Bytes the next file may keep
+     */
+    public synchronized long allowanceForFile() {
+        return Math.max(0, Math.min(maxBytesPerFile, remainingRequestBytes));
+    }
+
+    public synchronized void consume(long bytes) {
+        remainingRequestBytes -= bytes;
+    }
+
+    /**
+     * UTF-8 encoded length of a line plus its line terminator, without encoding it
+     */
+    public static long utf8Length(CharSequence line) {
+        long bytes = 1;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c < 0x80) {
+                bytes += 1;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                bytes += 4;
+                i++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,60 @@
+package org.zenith.graphnet.util;
+
+import org.zenith.graphnet.model.ChangedFile;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Decides which changed files get their patch text loaded in two-phase diff collection.
+ * Vendored, generated and lock files are skipped, files known to the dependency graph
+ * are always loaded, other source files only while they stay below the line cap.
+ */
+public class DiffFilter implements Predicate<ChangedFile> {
+
+    private static final List<String> EXCLUDED_PATH_SEGMENTS = List.of(
+            "node_modules/", "vendor/", "generated/", "generated-sources/",
+            "build/", "target/", "dist/", "out/", ".gradle/", ".idea/"
+    );
+
+    private static final Set<String> LOCK_FILES = Set.of(
+            "package-lock.json", "yarn.lock", "pnpm-lock.yaml", "gradle.lockfile",
+            "Cargo.lock", "poetry.lock", "composer.lock", "Gemfile.lock", "go.sum"
+    );
+
+    private static final Set<String> SOURCE_EXTENSIONS = Set.of(
+            "java", "kt", "kts", "groovy", "scala", "xml", "yml", "yaml", "properties", "sql", "gradle"
+    );
+
+    private final Predicate<String> inImpactSet;
+    private final int maxLinesChanged;
+
+    public DiffFilter(Predicate<String> inImpactSet, int maxLinesChanged) {
+        this.inImpactSet = inImpactSet;
+        this.maxLinesChanged = maxLinesChanged;
+    }
+
+    @Override
+    public boolean test(ChangedFile file) {
+        // Deleted files only need their status, not their old content
+        if ("deleted".equals(file.status)) return false;
+        if (isExcluded(file.path)) return false;
+        if (inImpactSet.test(file.path)) return true;
+        return isSourceFile(file.path) && file.linesChanged <= maxLinesChanged;
+    }
+
+    private static boolean isExcluded(String path) {
+        String normalized = "/" + path;
+        for (String segment : EXCLUDED_PATH_SEGMENTS) {
+            if (normalized.contains("/" + segment)) return true;
+        }
+        String fileName = path.substring(path.lastIndexOf('/') + 1);
+        return LOCK_FILES.contains(fileName) || fileName.endsWith(".min.js");
+    }
+
+    private static boolean isSourceFile(String path) {
+        int dot = path.lastIndexOf('.');
+        return dot >= 0 && SOURCE_EXTENSIONS.contains(path.substring(dot + 1));
+    }
+}
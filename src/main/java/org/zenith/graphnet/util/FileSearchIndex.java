@@ -0,0 +1,185 @@
+package org.zenith.graphnet.util;
+
+import org.zenith.graphnet.model.FileNode;
+
+import java.util.*;
+
+/**
+ * Type-ahead index over the class and file names of the analyzed files. Queries of three or more
+ * characters intersect trigram posting lists and only verify the candidates left; shorter queries
+ * are answered from the names sorted for prefix lookups. Immutable once built, so it can be
+ * queried from any thread while the next analysis builds its successor.
+ */
+public final class FileSearchIndex {
+
+    public static final FileSearchIndex EMPTY = build(List.of());
+
+    public record Match(String filePath, String className, String packageName, String fileName) {
+        @Override
+        public String toString() {
+            String name = className.isEmpty() ? fileName : className;
+            return packageName.isEmpty() ? name : name + "  (" + packageName + ")";
+        }
+    }
+
+    private final Match[] matches;
+    // Lowercase simple name, then lowercase qualified name and file name, one per match
+    private final String[] names;
+    private final String[] searchTexts;
+    private final Map<Long, int[]> postings;
+    // Match ids ordered by lowercase simple name
+    private final int[] byName;
+
+    private FileSearchIndex(Match[] matches, String[] names, String[] searchTexts, Map<Long, int[]> postings, int[] byName) {
+        this.matches = matches;
+        this.names = names;
+        this.searchTexts = searchTexts;
+        this.postings = postings;
+        this.byName = byName;
+    }
+
+    public static FileSearchIndex build(Collection<FileNode> nodes) {
+        int size = nodes.size();
+        Match[] matches = new Match[size];
+        String[] names = new String[size];
+        String[] searchTexts = new String[size];
+        Map<Long, IntList> lists = new HashMap<>();
+
+        int id = 0;
+        for (FileNode node : nodes) {
+            String className = node.getClassName() != null ? node.getClassName() : "";
+            String packageName = node.getPackageName() != null ? node.getPackageName() : "";
+            String fileName = node.getFileName() != null ? node.getFileName() : "";
+            Match match = new Match(node.getFilePath(), className, packageName, fileName);
+
+            String name = (className.isEmpty() ? fileName : className).toLowerCase(Locale.ROOT);
+            String qualified = packageName.isEmpty() ? name : packageName.toLowerCase(Locale.ROOT) + '.' + name;
+            String searchText = qualified + '\n' + fileName.toLowerCase(Locale.ROOT);
+
+            matches[id] = match;
+            names[id] = name;
+            searchTexts[id] = searchText;
+            for (int i = 0; i + 3 <= searchText.length(); i++) {
+                if (searchText.charAt(i) == '\n' || searchText.charAt(i + 1) == '\n' || searchText.charAt(i + 2) == '\n') continue;
+                // Ids are added in increasing order, so a repeated trigram only needs the last id checked
+                lists.computeIfAbsent(trigram(searchText, i), k -> new IntList()).addIfLast(id);
+            }
+            id++;
+        }
+
+        Map<Long, int[]> postings = new HashMap<>(lists.size() * 2);
+        for (Map.Entry<Long, IntList> entry : lists.entrySet()) {
+            postings.put(entry.getKey(), entry.getValue().toArray());
+        }
+
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) order[i] = i;
+        Arrays.sort(order, Comparator.comparing((Integer i) -> names[i]));
+        int[] byName = new int[size];
+        for (int i = 0; i < size; i++) byName[i] = order[i];
+
+        return new FileSearchIndex(matches, names, searchTexts, postings, byName);
+    }
+
+    public int size() {
+        return matches.length;
+    }
+
+    /**
+     * Files whose class name, qualified name or file name contains the query, ignoring case.
+     * Exact name matches come first, then name prefixes, then names containing the query,
+     * then matches in the package or file name only.
+     */
+    public List<Match> search(String query, int limit) {
+        String lowerQuery = query.trim().toLowerCase(Locale.ROOT);
+        if (lowerQuery.isEmpty() || limit <= 0) return List.of();
+        if (lowerQuery.length() < 3) return searchPrefix(lowerQuery, limit);
+
+        int[] candidates = null;
+        for (int i = 0; i + 3 <= lowerQuery.length(); i++) {
+            int[] posting = postings.get(trigram(lowerQuery, i));
+            if (posting == null) return List.of();
+            candidates = candidates == null ? posting : intersect(candidates, posting);
+            if (candidates.length == 0) return List.of();
+        }
+
+        // Rank in buckets, and only order as many candidates as are returned
+        IntList[] buckets = {new IntList(), new IntList(), new IntList(), new IntList()};
+        for (int candidate : candidates) {
+            if (!searchTexts[candidate].contains(lowerQuery)) continue;
+
+            String name = names[candidate];
+            int rank = name.equals(lowerQuery) ? 0 : name.startsWith(lowerQuery) ? 1 : name.contains(lowerQuery) ? 2 : 3;
+            buckets[rank].addIfLast(candidate);
+        }
+
+        Comparator<Integer> byLength = Comparator.comparingInt((Integer i) -> names[i].length()).thenComparing(i -> names[i]);
+        List<Match> results = new ArrayList<>(Math.min(limit, candidates.length));
+        for (IntList bucket : buckets) {
+            int remaining = limit - results.size();
+            if (remaining == 0) break;
+
+            PriorityQueue<Integer> best = new PriorityQueue<>(remaining + 1, byLength.reversed());
+            for (int i = 0; i < bucket.size; i++) {
+                best.add(bucket.values[i]);
+                if (best.size() > remaining) best.poll();
+            }
+            Integer[] ordered = best.toArray(new Integer[0]);
+            Arrays.sort(ordered, byLength);
+            for (Integer candidate : ordered) {
+                results.add(matches[candidate]);
+            }
+        }
+        return results;
+    }
+
+    private List<Match> searchPrefix(String prefix, int limit) {
+        int low = 0;
+        int high = byName.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (names[byName[mid]].compareTo(prefix) < 0) low = mid + 1;
+            else high = mid;
+        }
+
+        List<Match> results = new ArrayList<>();
+        for (int i = low; i < byName.length && results.size() < limit && names[byName[i]].startsWith(prefix); i++) {
+            results.add(matches[byName[i]]);
+        }
+        return results;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int count = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+            if (a[i] < b[j]) i++;
+            else if (a[i] > b[j]) j++;
+            else {
+                result[count++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private static long trigram(String text, int offset) {
+        return ((long) text.charAt(offset) << 32) | ((long) text.charAt(offset + 1) << 16) | text.charAt(offset + 2);
+    }
+
+    private static class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void addIfLast(int value) {
+            if (size > 0 && values[size - 1] == value) return;
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package org.zenith.graphnet.util;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs git as an external process and hands its stdout to the caller as a stream.
+ * Stderr is drained on a separate thread so the process can never block on a full pipe,
+ * and the process is killed if it does not finish within the given timeout.
+ */
+public final class GitCommandRunner {
+
+    private static final int STDERR_TAIL_CHARS = 4096;
+
+    private GitCommandRunner() {
+    }
+
+    /**
+     * Consumes the stdout of a running git process
+     */
+    @FunctionalInterface
+    public interface OutputHandler<T> {
+        T handle(BufferedReader stdout) throws IOException;
+    }
+
+    public static <T> T run(File workingDir, long timeoutSeconds, OutputHandler<T> handler, String... args) throws IOException {
+        List<String> command = new ArrayList<>(args.length + 1);
+        command.add("git");
+        command.addAll(List.of(args));
+
+        Process process = new ProcessBuilder(command)
+                .directory(workingDir)
+                .start();
+        process.getOutputStream().close();
+
+        StringBuilder stderrTail = new StringBuilder();
+        Thread stderrDrainer = new Thread(() -> drain(process.getErrorStream(), stderrTail), "GraphNet git stderr");
+        stderrDrainer.setDaemon(true);
+        stderrDrainer.start();
+
+        // Kill the process once the deadline passes so a blocked read on stdout returns
+        AtomicBoolean timedOut = new AtomicBoolean(false);
+        CompletableFuture.delayedExecutor(timeoutSeconds, TimeUnit.SECONDS).execute(() -> {
+            if (process.isAlive()) {
+                timedOut.set(true);
+                process.destroyForcibly();
+            }
+        });
+
+        try (BufferedReader stdout = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            T result = handler.handle(stdout);
+
+            if (!process.waitFor(timeoutSeconds, TimeUnit.SECONDS)) {
+                timedOut.set(true);
+                process.destroyForcibly();
+            }
+            stderrDrainer.join(TimeUnit.SECONDS.toMillis(1));
+
+            if (timedOut.get()) {
+                throw new IOException("git " + String.join(" ", args) + " timed out after " + timeoutSeconds + "s");
+            }
+            if (process.exitValue() != 0) {
+                throw new IOException("git " + String.join(" ", args) + " failed with exit code "
+                        + process.exitValue() + ": " + stderrTail(stderrTail));
+            }
+            return result;
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for git", e);
+        } catch (IOException e) {
+            if (timedOut.get()) {
+                throw new IOException("git " + String.join(" ", args) + " timed out after " + timeoutSeconds + "s", e);
+            }
+            throw e;
+        } finally {
+            if (process.isAlive()) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    private static void drain(InputStream stream, StringBuilder tail) {
+        try (InputStreamReader reader = new InputStreamReader(stream, StandardCharsets.UTF_8)) {
+            char[] buffer = new char[1024];
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                synchronized (tail) {
+                    tail.append(buffer, 0, read);
+                    // Only the end of stderr is interesting for error messages
+                    if (tail.length() > STDERR_TAIL_CHARS) {
+                        tail.delete(0, tail.length() - STDERR_TAIL_CHARS);
+                    }
+                }
+            }
+        } catch (IOException ignored) {
+            // Process was destroyed, nothing left to drain
+        }
+    }
+
+    private static String stderrTail(StringBuilder tail) {
+        synchronized (tail) {
+            return tail.toString().trim();
+        }
+    }
+}
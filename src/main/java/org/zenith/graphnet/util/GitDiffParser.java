@@ -1,85 +1,270 @@
 package org.zenith.graphnet.util;
 
 import org.zenith.graphnet.model.ChangedFile;
+import org.zenith.graphnet.model.DiffHunk;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public class GitDiffParser {
 
+    private static final String FILE_HEADER = "diff --git ";
+    private static final Pattern PATH_PATTERN = Pattern.compile("diff --git a/(.*?) b/.*");
+    private static final Pattern HUNK_PATTERN = Pattern.compile("^@@ -(\\d+)(?:,(\\d+))? \\+(\\d+)(?:,(\\d+))? @@");
+
     public static List<ChangedFile> parseGitDiff(String gitDiffOutput) {
-        List<ChangedFile> changedFiles = new ArrayList<>();
+        return parseGitDiff(gitDiffOutput, DiffBudget.unlimited());
+    }
 
-        // Split by file headers (diff --git)
-        String[] fileBlocks = gitDiffOutput.split("(?=diff --git)");
+    public static List<ChangedFile> parseGitDiff(String gitDiffOutput, DiffBudget budget) {
+        List<ChangedFile> changedFiles = new ArrayList<>();
+        try {
+            parseGitDiff(new BufferedReader(new StringReader(gitDiffOutput)), changedFiles::add, budget);
+        } catch (IOException e) {
+            // Reading from a String cannot fail
+            throw new UncheckedIOException(e);
+        }
+        return changedFiles;
+    }
 
-        for (String fileBlock : fileBlocks) {
-            if (fileBlock.trim().isEmpty()) continue;
+    /**
+     * Parses git diff output line by line, emitting each file as soon as its block ends.
+     * Only the hunks of each file are kept (no extended headers), bounded by the budget;
+     * hunks that do not fit are dropped whole and recorded as a digest.
+     */
+    public static void parseGitDiff(BufferedReader reader, Consumer<ChangedFile> consumer, DiffBudget budget) throws IOException {
+        FileBlock current = null;
+        String line;
 
-            ChangedFile file = parseFileBlock(fileBlock);
-            if (file != null) {
-                changedFiles.add(file);
+        while ((line = reader.readLine()) != null) {
+            if (line.startsWith(FILE_HEADER)) {
+                if (current != null) {
+                    consumer.accept(current.toChangedFile());
+                }
+                current = new FileBlock(line, budget);
+            } else if (current != null) {
+                current.append(line);
             }
         }
 
-        return changedFiles;
+        if (current != null) {
+            consumer.accept(current.toChangedFile());
+        }
     }
 
-    private static ChangedFile parseFileBlock(String fileBlock) {
-        // Extract file path
-        Pattern pathPattern = Pattern.compile("diff --git a/(.*?) b/.*");
-        Matcher pathMatcher = pathPattern.matcher(fileBlock);
-        String filePath = "";
-        if (pathMatcher.find()) {
-            filePath = pathMatcher.group(1);
-        }
+    /**
+     * Parses the output of "git diff --raw --numstat -z" into summary entries without patch text.
+     * The raw section provides the status of each file, the numstat section the line counts.
+     */
+    public static List<ChangedFile> parseSummary(Reader reader) throws IOException {
+        Map<String, ChangedFile> summary = new LinkedHashMap<>();
+        String token;
 
-        // Determine status
-        String status = determineStatus(fileBlock);
+        while ((token = readToken(reader)) != null) {
+            if (token.isEmpty()) continue;
 
-        // Count additions and deletions
-        int additions = countLines(fileBlock, "^\\+(?!\\+\\+)");
-        int deletions = countLines(fileBlock, "^-(?!---)");
+            if (token.startsWith(":")) {
+                // ":100644 100644 abc123 def456 M" followed by the path (two paths for renames and copies)
+                String statusCode = token.substring(token.lastIndexOf(' ') + 1);
+                String path = readToken(reader);
+                if (statusCode.startsWith("R") || statusCode.startsWith("C")) {
+                    path = readToken(reader);
+                }
+                if (path != null) {
+                    summary.put(path, new ChangedFile(path, toStatus(statusCode), 0, 0));
+                }
+            } else {
+                // "additions<TAB>deletions<TAB>path", the path is empty for renames and followed by old and new path
+                String[] parts = token.split("\t", 3);
+                if (parts.length < 3) continue;
 
-        // Extract meaningful diff (just the actual changes)
-        String meaningfulDiff = extractMeaningfulDiff(fileBlock);
+                String path = parts[2];
+                if (path.isEmpty()) {
+                    readToken(reader);
+                    path = readToken(reader);
+                }
 
-        return new ChangedFile(filePath, status, additions, deletions, fileBlock);
-    }
+                ChangedFile file = summary.get(path);
+                if (file != null) {
+                    // Binary files are reported as "-"
+                    file.additions = parseCount(parts[0]);
+                    file.deletions = parseCount(parts[1]);
+                    file.linesChanged = file.additions + file.deletions;
+                }
+            }
+        }
 
-    private static String determineStatus(String fileBlock) {
-        if (fileBlock.contains("new file mode")) return "added";
-        if (fileBlock.contains("deleted file mode")) return "deleted";
-        if (fileBlock.contains("rename from")) return "renamed";
-        return "modified";
+        return new ArrayList<>(summary.values());
     }
 
-    private static int countLines(String content, String pattern) {
-        Pattern p = Pattern.compile(pattern, Pattern.MULTILINE);
-        Matcher m = p.matcher(content);
-        int count = 0;
-        while (m.find()) {
-            count++;
+    private static String readToken(Reader reader) throws IOException {
+        StringBuilder token = new StringBuilder();
+        int c;
+        while ((c = reader.read()) != -1) {
+            if (c == 0) return token.toString();
+            token.append((char) c);
         }
-        return count;
+        return token.length() > 0 ? token.toString() : null;
+    }
+
+    private static String toStatus(String statusCode) {
+        return switch (statusCode.charAt(0)) {
+            case 'A' -> "added";
+            case 'D' -> "deleted";
+            case 'R' -> "renamed";
+            default -> "modified";
+        };
     }
 
-    private static String extractMeaningfulDiff(String fileBlock) {
-        StringBuilder diff = new StringBuilder();
-        String[] lines = fileBlock.split("\n");
-        boolean inDiffSection = false;
+    private static int parseCount(String count) {
+        return "-".equals(count) ? 0 : Integer.parseInt(count);
+    }
+
+    /**
+     * Accumulates the hunks of a single "diff --git" block and counts its changes while reading
+     */
+    private static class FileBlock {
+        private final StringBuilder text = new StringBuilder();
+        private final StringBuilder hunkText = new StringBuilder();
+        private final List<DiffHunk> hunks = new ArrayList<>();
+        private final String filePath;
+        private final DiffBudget budget;
+        private final long allowance;
+        private String status = "modified";
+        private DiffHunk currentHunk = null;
+        private int newLine = 0;
+        private int additions = 0;
+        private int deletions = 0;
+        private long keptBytes = 0;
+        private long hunkBytes = 0;
+        private boolean omittingHunk = false;
+        private int omittedHunks = 0;
+        private long omittedBytes = 0;
+        private MessageDigest omittedDigest = null;
 
-        for (String line : lines) {
+        FileBlock(String headerLine, DiffBudget budget) {
+            Matcher pathMatcher = PATH_PATTERN.matcher(headerLine);
+            this.filePath = pathMatcher.find() ? pathMatcher.group(1) : "";
+            this.budget = budget;
+            this.allowance = budget.allowanceForFile();
+        }
+
+        void append(String line) {
             if (line.startsWith("@@")) {
-                diff.append(line).append("\n");
-                inDiffSection = true;
-            } else if (inDiffSection && (line.startsWith("+") || line.startsWith("-") || line.startsWith(" "))) {
-                diff.append(line).append("\n");
+                finishHunk();
+                currentHunk = parseHunkHeader(line);
+                if (currentHunk != null) {
+                    hunks.add(currentHunk);
+                    newLine = currentHunk.newStart;
+                    appendHunkLine(line);
+                }
+            } else if (currentHunk != null) {
+                appendHunkLine(line);
+
+                // Track new-file line numbers so hunks can be mapped to declarations
+                if (line.startsWith("+")) {
+                    additions++;
+                    currentHunk.markChanged(newLine++);
+                } else if (line.startsWith("-")) {
+                    deletions++;
+                    currentHunk.markChanged(newLine);
+                } else if (!line.startsWith("\\")) {
+                    newLine++;
+                }
+            } else {
+                // Extended header lines come before the first hunk
+                String headerStatus = determineStatus(line);
+                if (headerStatus != null) status = headerStatus;
             }
         }
 
-        return diff.toString().trim();
+        private void appendHunkLine(String line) {
+            long lineBytes = DiffBudget.utf8Length(line);
+            hunkBytes += lineBytes;
+
+            if (omittingHunk) {
+                digest(line);
+                return;
+            }
+
+            hunkText.append(line).append("\n");
+            if (keptBytes + hunkBytes > allowance) {
+                // The hunk no longer fits, stop buffering it
+                omittingHunk = true;
+                digest(hunkText);
+                hunkText.setLength(0);
+            }
+        }
+
+        private void finishHunk() {
+            if (currentHunk == null) return;
+
+            if (omittingHunk) {
+                omittedHunks++;
+                omittedBytes += hunkBytes;
+            } else {
+                text.append(hunkText);
+                keptBytes += hunkBytes;
+            }
+            hunkText.setLength(0);
+            hunkBytes = 0;
+            omittingHunk = false;
+        }
+
+        private void digest(CharSequence content) {
+            if (omittedDigest == null) {
+                try {
+                    omittedDigest = MessageDigest.getInstance("SHA-256");
+                } catch (NoSuchAlgorithmException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            omittedDigest.update(content.toString().getBytes(StandardCharsets.UTF_8));
+            omittedDigest.update((byte) '\n');
+        }
+
+        ChangedFile toChangedFile() {
+            finishHunk();
+            budget.consume(keptBytes);
+
+            ChangedFile file = new ChangedFile(filePath, status, additions, deletions, text.toString());
+            file.hunks = hunks;
+            if (omittedHunks > 0) {
+                file.truncated = true;
+                file.omittedHunks = omittedHunks;
+                file.omittedBytes = omittedBytes;
+                file.omittedDigest = HexFormat.of().formatHex(omittedDigest.digest());
+            }
+            return file;
+        }
+    }
+
+    private static DiffHunk parseHunkHeader(String line) {
+        Matcher matcher = HUNK_PATTERN.matcher(line);
+        if (!matcher.find()) return null;
+        return new DiffHunk(
+                Integer.parseInt(matcher.group(1)),
+                matcher.group(2) != null ? Integer.parseInt(matcher.group(2)) : 1,
+                Integer.parseInt(matcher.group(3)),
+                matcher.group(4) != null ? Integer.parseInt(matcher.group(4)) : 1
+        );
+    }
+
+    private static String determineStatus(String headerLine) {
+        if (headerLine.startsWith("new file mode")) return "added";
+        if (headerLine.startsWith("deleted file mode")) return "deleted";
+        if (headerLine.startsWith("rename from")) return "renamed";
+        return null;
     }
 
 //    // Usage example
@@ -0,0 +1,248 @@
+package org.zenith.graphnet.util;
+
+import org.jetbrains.annotations.Nullable;
+import org.zenith.graphnet.api.GraphExporter;
+import org.zenith.graphnet.model.DependencyGraph;
+import org.zenith.graphnet.model.FileNode;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Predicate;
+
+/**
+ * Exports one diagram per module from the analysis graph. A module is a set of files picked by a
+ * predicate, typically a source root or a package; its diagram holds the module's files and the
+ * files they depend on. Modules are rendered concurrently on the given executor, each file is
+ * written to a temporary file and moved into place, and a module whose subgraph hashes the same
+ * as at its last export is skipped. The hashes are kept next to the exports. A detail reducer
+ * can bound the size of each diagram; the hash covers the reduced subgraph.
+ */
+public class GraphBatchExporter {
+
+    public static final String HASH_INDEX_FILE = ".graphnet-export-hashes.properties";
+
+    public enum Status { WRITTEN, UNCHANGED, EMPTY, FAILED }
+
+    public record ModuleResult(String module, Path file, Status status, @Nullable String hash, @Nullable Exception error) {
+    }
+
+    private final GraphExporter exporter;
+    private final String extension;
+    private final Executor executor;
+    private final @Nullable GraphDetailReducer detailReducer;
+
+    /**
+     * @param extension file extension of the exports including the dot, it must be one the exporter accepts
+     */
+    public GraphBatchExporter(GraphExporter exporter, String extension, Executor executor) {
+        this(exporter, extension, executor, null);
+    }
+
+    public GraphBatchExporter(GraphExporter exporter, String extension, Executor executor,
+                              @Nullable GraphDetailReducer detailReducer) {
+        this.exporter = exporter;
+        this.extension = extension;
+        this.executor = executor;
+        this.detailReducer = detailReducer;
+    }
+
+    /**
+     * Export every module and wait for all of them. Failures of single modules are reported in
+     * their result rather than thrown.
+     */
+    public List<ModuleResult> export(DependencyGraph graph, Map<String, Predicate<String>> modules, Path outputDir) throws IOException {
+        Files.createDirectories(outputDir);
+        Path indexFile = outputDir.resolve(HASH_INDEX_FILE);
+        Properties hashes = loadHashes(indexFile);
+
+        Map<String, FileNode> nodesByPath = new HashMap<>();
+        for (FileNode node : graph.getNodes()) {
+            nodesByPath.put(node.getFilePath(), node);
+        }
+
+        List<CompletableFuture<ModuleResult>> exports = new ArrayList<>();
+        Set<String> fileNames = new HashSet<>();
+        for (Map.Entry<String, Predicate<String>> module : modules.entrySet()) {
+            String fileName = uniqueFileName(module.getKey(), fileNames);
+            Path target = outputDir.resolve(fileName);
+            String previousHash = hashes.getProperty(fileName);
+
+            exports.add(CompletableFuture.supplyAsync(
+                    () -> exportModule(graph, nodesByPath, module.getKey(), module.getValue(), target, previousHash), executor));
+        }
+
+        List<ModuleResult> results = new ArrayList<>();
+        for (CompletableFuture<ModuleResult> export : exports) {
+            results.add(export.join());
+        }
+
+        // Hashes of written modules replace the old ones, failed modules keep theirs
+        boolean indexChanged = false;
+        for (ModuleResult result : results) {
+            if (result.status == Status.WRITTEN) {
+                hashes.setProperty(result.file.getFileName().toString(), result.hash);
+                indexChanged = true;
+            }
+        }
+        if (indexChanged) {
+            writeAtomically(indexFile, out -> hashes.store(out, "Subgraph hashes of the exported modules"));
+        }
+        return results;
+    }
+
+    private ModuleResult exportModule(DependencyGraph graph, Map<String, FileNode> nodesByPath, String module,
+                                      Predicate<String> members, Path target, @Nullable String previousHash) {
+        try {
+            DependencyGraph moduleGraph = subgraph(graph, nodesByPath, members);
+            if (moduleGraph.getNodes().isEmpty()) {
+                return new ModuleResult(module, target, Status.EMPTY, null, null);
+            }
+            DependencyGraph subgraph = detailReducer != null ? detailReducer.reduce(moduleGraph, List.of()) : moduleGraph;
+
+            String hash = hash(subgraph);
+            if (hash.equals(previousHash) && Files.exists(target)) {
+                return new ModuleResult(module, target, Status.UNCHANGED, hash, null);
+            }
+
+            writeAtomically(target, out -> exporter.export(subgraph, out));
+            return new ModuleResult(module, target, Status.WRITTEN, hash, null);
+        } catch (IOException | RuntimeException e) {
+            return new ModuleResult(module, target, Status.FAILED, null, e);
+        }
+    }
+
+    /**
+     * The module's files with their outgoing edges, plus the nodes those edges lead to
+     */
+    private static DependencyGraph subgraph(DependencyGraph graph, Map<String, FileNode> nodesByPath, Predicate<String> members) {
+        List<FileNode> nodes = new ArrayList<>();
+        Map<String, Set<String>> edges = new TreeMap<>();
+        Set<String> included = new HashSet<>();
+
+        for (FileNode node : graph.getNodes()) {
+            if (members.test(node.getFilePath())) {
+                nodes.add(node);
+                included.add(node.getFilePath());
+            }
+        }
+        nodes.sort(Comparator.comparing(FileNode::getFilePath));
+
+        List<FileNode> external = new ArrayList<>();
+        for (FileNode node : nodes) {
+            Set<String> targets = graph.getEdges().get(node.getFilePath());
+            if (targets == null || targets.isEmpty()) continue;
+
+            edges.put(node.getFilePath(), new TreeSet<>(targets));
+            for (String target : targets) {
+                FileNode targetNode = nodesByPath.get(target);
+                if (targetNode != null && included.add(target)) {
+                    external.add(targetNode);
+                }
+            }
+        }
+        external.sort(Comparator.comparing(FileNode::getFilePath));
+        nodes.addAll(external);
+
+        DependencyGraph subgraph = new DependencyGraph();
+        subgraph.setProjectName(graph.getProjectName());
+        subgraph.setGeneratedAt(graph.getGeneratedAt());
+        subgraph.setVersion(graph.getVersion());
+        subgraph.setNodes(nodes);
+        subgraph.setEdges(edges);
+        return subgraph;
+    }
+
+    /**
+     * SHA-256 over what the diagram shows, in a fixed order; timestamps and versions are left out
+     */
+    private String hash(DependencyGraph subgraph) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        StringBuilder line = new StringBuilder(exporter.getName()).append('\n');
+        for (FileNode node : subgraph.getNodes()) {
+            line.append("N ").append(node.getFilePath())
+                    .append('|').append(node.getPackageName())
+                    .append('|').append(node.getClassName())
+                    .append('|').append(node.getFileName())
+                    .append('|').append(node.getLineCount())
+                    .append('|').append(node.isTestSource()).append('\n');
+            digest.update(line.toString().getBytes(StandardCharsets.UTF_8));
+            line.setLength(0);
+        }
+        for (Map.Entry<String, Set<String>> edge : subgraph.getEdges().entrySet()) {
+            for (String target : edge.getValue()) {
+                line.append("E ").append(edge.getKey()).append('>').append(target).append('\n');
+            }
+            digest.update(line.toString().getBytes(StandardCharsets.UTF_8));
+            line.setLength(0);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private String uniqueFileName(String module, Set<String> taken) {
+        String trimmed = module.replaceAll("[/\\\\]+$", "");
+        String base = trimmed.replaceAll("[^A-Za-z0-9._-]+", "_").replaceAll("^_+", "");
+        if (base.isEmpty()) base = "module";
+
+        String fileName = base + extension;
+        for (int i = 2; !taken.add(fileName); i++) {
+            fileName = base + "-" + i + extension;
+        }
+        return fileName;
+    }
+
+    private static Properties loadHashes(Path indexFile) {
+        Properties hashes = new Properties();
+        if (Files.exists(indexFile)) {
+            try (Reader in = Files.newBufferedReader(indexFile, StandardCharsets.UTF_8)) {
+                hashes.load(in);
+            } catch (IOException | IllegalArgumentException e) {
+                // A broken index only costs a full export
+                System.err.println("Ignoring unreadable export hash index: " + e.getMessage());
+                hashes.clear();
+            }
+        }
+        return hashes;
+    }
+
+    private interface WriterAction {
+        void write(Writer out) throws IOException;
+    }
+
+    /**
+     * Write to a temporary file in the target directory and move it over the target,
+     * so readers never see a partly written export
+     */
+    private static void writeAtomically(Path target, WriterAction action) throws IOException {
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            try (Writer out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                action.write(out);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package org.zenith.graphnet.util;
+
+import org.zenith.graphnet.model.DependencyGraph;
+import org.zenith.graphnet.model.FileNode;
+import org.zenith.graphnet.model.GraphDelta;
+
+import java.util.*;
+
+/**
+ * Remembers the dependency graph version the server last acknowledged and computes
+ * what changed since. Nodes are compared by a 64-bit fingerprint of their fields,
+ * edges by their target sets, so only changed files and edges go over the wire.
+ * Without an acknowledged version a full snapshot has to be sent.
+ * Versions restart at 1 after a reset and in every IDE session, so each numbering
+ * run carries a random session id that tells its versions apart from earlier ones.
+ */
+public class GraphDeltaTracker {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /**
+     * A sync in flight: the session and version it creates and the state the server has once it is
+     * acknowledged. The delta is null if a full snapshot has to be sent.
+     */
+    public record PendingSync(String session, long version, GraphDelta delta,
+                              Map<String, Long> nodeFingerprints, Map<String, Set<String>> edges) {
+        public boolean isFullSnapshot() {
+            return delta == null;
+        }
+    }
+
+    private String session = UUID.randomUUID().toString();
+    private long acknowledgedVersion = 0;
+    private Map<String, Long> acknowledgedNodes = Map.of();
+    private Map<String, Set<String>> acknowledgedEdges = Map.of();
+
+    public synchronized long getAcknowledgedVersion() {
+        return acknowledgedVersion;
+    }
+
+    /**
+     * Compare the graph with the acknowledged state. A full snapshot is prepared if nothing was
+     * acknowledged yet or the caller asks for one.
+     */
+    public synchronized PendingSync prepare(DependencyGraph graph, boolean fullSnapshot) {
+        long version = acknowledgedVersion + 1;
+
+        Map<String, Long> nodeFingerprints = new HashMap<>();
+        for (FileNode node : graph.getNodes()) {
+            nodeFingerprints.put(node.getFilePath(), fingerprint(node));
+        }
+        Map<String, Set<String>> edges = new HashMap<>();
+        for (Map.Entry<String, Set<String>> entry : graph.getEdges().entrySet()) {
+            edges.put(entry.getKey(), new HashSet<>(entry.getValue()));
+        }
+
+        if (fullSnapshot || acknowledgedVersion == 0) {
+            return new PendingSync(session, version, null, nodeFingerprints, edges);
+        }
+
+        GraphDelta delta = new GraphDelta();
+        delta.setProjectName(graph.getProjectName());
+        delta.setGeneratedAt(graph.getGeneratedAt());
+        delta.setBaseVersion(acknowledgedVersion);
+        delta.setVersion(version);
+
+        List<FileNode> upsertedNodes = new ArrayList<>();
+        for (FileNode node : graph.getNodes()) {
+            if (!nodeFingerprints.get(node.getFilePath()).equals(acknowledgedNodes.get(node.getFilePath()))) {
+                upsertedNodes.add(node);
+            }
+        }
+        List<String> removedNodes = new ArrayList<>();
+        for (String path : acknowledgedNodes.keySet()) {
+            if (!nodeFingerprints.containsKey(path)) removedNodes.add(path);
+        }
+        delta.setUpsertedNodes(upsertedNodes);
+        delta.setRemovedNodes(removedNodes);
+        delta.setAddedEdges(difference(edges, acknowledgedEdges));
+        delta.setRemovedEdges(difference(acknowledgedEdges, edges));
+
+        return new PendingSync(session, version, delta, nodeFingerprints, edges);
+    }
+
+    /**
+     * The server applied the sync, later deltas are based on it
+     */
+    public synchronized void acknowledge(PendingSync sync) {
+        // A sync prepared against an older version or before a reset must not roll the state back
+        if (!sync.session().equals(session) || sync.version() <= acknowledgedVersion) return;
+
+        acknowledgedVersion = sync.version();
+        acknowledgedNodes = sync.nodeFingerprints();
+        acknowledgedEdges = sync.edges();
+    }
+
+    /**
+     * Forget the acknowledged state, for example when the server reports a different version
+     */
+    public synchronized void reset() {
+        session = UUID.randomUUID().toString();
+        acknowledgedVersion = 0;
+        acknowledgedNodes = Map.of();
+        acknowledgedEdges = Map.of();
+    }
+
+    /**
+     * Edges in the first map that are missing from the second, per source file
+     */
+    private static Map<String, Set<String>> difference(Map<String, Set<String>> edges, Map<String, Set<String>> other) {
+        Map<String, Set<String>> difference = new HashMap<>();
+        for (Map.Entry<String, Set<String>> entry : edges.entrySet()) {
+            Set<String> otherTargets = other.getOrDefault(entry.getKey(), Set.of());
+            for (String target : entry.getValue()) {
+                if (!otherTargets.contains(target)) {
+                    difference.computeIfAbsent(entry.getKey(), key -> new HashSet<>()).add(target);
+                }
+            }
+        }
+        return difference;
+    }
+
+    private static long fingerprint(FileNode node) {
+        long hash = FNV_OFFSET;
+        hash = mix(hash, node.getFilePath());
+        hash = mix(hash, node.getFileName());
+        hash = mix(hash, node.getPackageName());
+        hash = mix(hash, node.getClassName());
+        hash = mix(hash, node.getImports());
+        hash = mix(hash, node.getDependencies());
+        hash = (hash ^ node.getLineCount()) * FNV_PRIME;
+        hash = (hash ^ (node.isTestSource() ? 1 : 0)) * FNV_PRIME;
+        return hash;
+    }
+
+    private static long mix(long hash, Set<String> values) {
+        if (values == null) return mix(hash, (String) null);
+
+        // Order independent, sets have no stable iteration order
+        long sum = 0;
+        for (String value : values) {
+            sum += mix(FNV_OFFSET, value);
+        }
+        return (hash ^ sum ^ values.size()) * FNV_PRIME;
+    }
+
+    private static long mix(long hash, String value) {
+        if (value == null) return (hash ^ 0xff) * FNV_PRIME;
+
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+        }
+        // Field separator, so "ab"+"c" and "a"+"bc" differ
+        return (hash ^ 0x1f) * FNV_PRIME;
+    }
+}
@@ -0,0 +1,377 @@
+package org.zenith.graphnet.util;
+
+import org.jetbrains.annotations.Nullable;
+import org.zenith.graphnet.model.DependencyGraph;
+import org.zenith.graphnet.model.FileNode;
+
+import java.util.*;
+
+/**
+ * Level-of-detail stage in front of the diagram exporters. When the graph has more nodes than the
+ * budget, files within a few hops of the focus files stay as they are, nearest first and up to half
+ * the budget, and the other files are collapsed into cluster nodes, by package or by dependency
+ * cycle (strongly connected component) first, with packages coarsened level by level until the
+ * budget holds. Edges of the budgeted graph that are implied by a longer path are then pruned,
+ * which keeps reachability but removes most of the clutter.
+ * Cluster nodes get a file path starting with {@link #CLUSTER_PREFIX}.
+ */
+public class GraphDetailReducer {
+
+    public enum Clustering { PACKAGE, SCC }
+
+    public static final String CLUSTER_PREFIX = "cluster:";
+    // Pruning checks every edge against the rest of the graph, beyond this it would take too long
+    private static final int MAX_EDGES_FOR_PRUNING = 5_000;
+
+    private final int nodeBudget;
+    private final Clustering clustering;
+    private final int focusHops;
+    private final boolean pruneTransitiveEdges;
+
+    /**
+     * A unit of files that is either shown as it is (one file) or collapsed as a whole
+     */
+    private record Unit(String key, String packageName, List<String> members, boolean cycle) {
+    }
+
+    public GraphDetailReducer(int nodeBudget, Clustering clustering, int focusHops, boolean pruneTransitiveEdges) {
+        this.nodeBudget = nodeBudget;
+        this.clustering = clustering;
+        this.focusHops = focusHops;
+        this.pruneTransitiveEdges = pruneTransitiveEdges;
+    }
+
+    public DependencyGraph reduce(DependencyGraph graph, Collection<String> focusFiles) {
+        Map<String, FileNode> nodes = new LinkedHashMap<>();
+        for (FileNode node : graph.getNodes()) {
+            nodes.put(node.getFilePath(), node);
+        }
+        Map<String, Set<String>> edges = new HashMap<>();
+        for (Map.Entry<String, Set<String>> edge : graph.getEdges().entrySet()) {
+            if (edge.getValue() == null || edge.getValue().isEmpty()) continue;
+            edges.put(edge.getKey(), edge.getValue());
+            nodes.computeIfAbsent(edge.getKey(), GraphDetailReducer::placeholder);
+            for (String target : edge.getValue()) {
+                nodes.computeIfAbsent(target, GraphDetailReducer::placeholder);
+            }
+        }
+
+        Map<String, String> renderedAs = new HashMap<>();
+        List<FileNode> renderedNodes = new ArrayList<>();
+        if (nodeBudget <= 0 || nodes.size() <= nodeBudget) {
+            for (String path : nodes.keySet()) renderedAs.put(path, path);
+            renderedNodes.addAll(nodes.values());
+        } else {
+            Set<String> expanded = neighborhood(focusFiles, nodes.keySet(), edges);
+            collapse(nodes, edges, expanded, renderedAs, renderedNodes);
+        }
+
+        Map<String, Set<String>> renderedEdges = new LinkedHashMap<>();
+        int edgeCount = 0;
+        for (Map.Entry<String, Set<String>> edge : edges.entrySet()) {
+            String from = renderedAs.get(edge.getKey());
+            for (String target : edge.getValue()) {
+                String to = renderedAs.get(target);
+                if (!from.equals(to) && renderedEdges.computeIfAbsent(from, f -> new LinkedHashSet<>()).add(to)) {
+                    edgeCount++;
+                }
+            }
+        }
+        // Without a budget the graph is exported as it is, however large
+        if (pruneTransitiveEdges && nodeBudget > 0 && edgeCount <= MAX_EDGES_FOR_PRUNING) {
+            int pruned = pruneTransitiveEdges(renderedEdges);
+            if (pruned > 0) {
+                System.out.println("Pruned " + pruned + " of " + edgeCount + " edges implied by longer paths");
+            }
+        }
+
+        DependencyGraph reduced = new DependencyGraph();
+        reduced.setProjectName(graph.getProjectName());
+        reduced.setGeneratedAt(graph.getGeneratedAt());
+        reduced.setVersion(graph.getVersion());
+        reduced.setNodes(renderedNodes);
+        reduced.setEdges(renderedEdges);
+        return reduced;
+    }
+
+    /**
+     * Files within the focus hops of a focus file, following edges in both directions. Files are
+     * taken hop by hop until half the node budget is used, the rest is left for the clusters.
+     */
+    private Set<String> neighborhood(Collection<String> focusFiles, Set<String> known, Map<String, Set<String>> edges) {
+        Set<String> expanded = new LinkedHashSet<>();
+        if (focusFiles.isEmpty()) return expanded;
+        int limit = Math.max(1, nodeBudget / 2);
+
+        Map<String, Set<String>> reverse = new HashMap<>();
+        for (Map.Entry<String, Set<String>> edge : edges.entrySet()) {
+            for (String target : edge.getValue()) {
+                reverse.computeIfAbsent(target, t -> new HashSet<>()).add(edge.getKey());
+            }
+        }
+
+        List<String> frontier = new ArrayList<>();
+        for (String focus : focusFiles) {
+            if (expanded.size() >= limit) return expanded;
+            if (known.contains(focus) && expanded.add(focus)) frontier.add(focus);
+        }
+        for (int hop = 0; hop < focusHops && !frontier.isEmpty(); hop++) {
+            List<String> next = new ArrayList<>();
+            for (String path : frontier) {
+                for (Set<String> neighbors : List.of(edges.getOrDefault(path, Set.of()), reverse.getOrDefault(path, Set.of()))) {
+                    for (String neighbor : neighbors) {
+                        if (expanded.contains(neighbor)) continue;
+                        if (expanded.size() >= limit) return expanded;
+                        expanded.add(neighbor);
+                        next.add(neighbor);
+                    }
+                }
+            }
+            frontier = next;
+        }
+        return expanded;
+    }
+
+    private void collapse(Map<String, FileNode> nodes, Map<String, Set<String>> edges, Set<String> expanded,
+                          Map<String, String> renderedAs, List<FileNode> renderedNodes) {
+        for (String path : expanded) {
+            renderedAs.put(path, path);
+            renderedNodes.add(nodes.get(path));
+        }
+
+        // Everything else starts as single files, or whole cycles in SCC mode
+        List<Unit> units = new ArrayList<>();
+        Set<String> assigned = new HashSet<>(expanded);
+        if (clustering == Clustering.SCC) {
+            int index = 0;
+            for (List<String> component : stronglyConnectedComponents(nodes.keySet(), edges)) {
+                List<String> members = new ArrayList<>();
+                for (String path : component) {
+                    if (!expanded.contains(path)) members.add(path);
+                }
+                if (members.size() > 1) {
+                    units.add(new Unit("scc" + index++, packageOf(nodes.get(members.get(0))), members, true));
+                    assigned.addAll(members);
+                }
+            }
+        }
+        for (Map.Entry<String, FileNode> node : nodes.entrySet()) {
+            if (assigned.add(node.getKey())) {
+                units.add(new Unit(node.getKey(), packageOf(node.getValue()), List.of(node.getKey()), false));
+            }
+        }
+
+        int budget = Math.max(1, nodeBudget - expanded.size());
+        Map<String, List<Unit>> groups = null;
+        if (units.size() > budget) {
+            // Coarsen packages until the groups fit, one package level at a time
+            int maxDepth = 0;
+            for (Unit unit : units) {
+                maxDepth = Math.max(maxDepth, depth(unit.packageName));
+            }
+            for (int depth = maxDepth; depth >= 0; depth--) {
+                groups = new LinkedHashMap<>();
+                for (Unit unit : units) {
+                    groups.computeIfAbsent(prefix(unit.packageName, depth), p -> new ArrayList<>()).add(unit);
+                }
+                if (groups.size() <= budget) break;
+            }
+        }
+
+        if (groups == null) {
+            for (Unit unit : units) {
+                render(unit, nodes, renderedAs, renderedNodes);
+            }
+            return;
+        }
+        for (Map.Entry<String, List<Unit>> group : groups.entrySet()) {
+            List<Unit> groupUnits = group.getValue();
+            if (groupUnits.size() == 1) {
+                render(groupUnits.get(0), nodes, renderedAs, renderedNodes);
+            } else {
+                renderPackage(group.getKey(), groupUnits, nodes, renderedAs, renderedNodes);
+            }
+        }
+    }
+
+    private static void render(Unit unit, Map<String, FileNode> nodes,
+                               Map<String, String> renderedAs, List<FileNode> renderedNodes) {
+        if (unit.members.size() == 1) {
+            String path = unit.members.get(0);
+            renderedAs.put(path, path);
+            renderedNodes.add(nodes.get(path));
+            return;
+        }
+
+        String label = "Cycle of " + unit.members.size() + " files" + (unit.packageName.isEmpty() ? "" : " in " + unit.packageName);
+        renderedNodes.add(cluster(CLUSTER_PREFIX + unit.key, label, unit.packageName.isEmpty() ? null : unit.packageName,
+                unit.members, nodes, renderedAs));
+    }
+
+    private static void renderPackage(String packagePrefix, List<Unit> units, Map<String, FileNode> nodes,
+                                      Map<String, String> renderedAs, List<FileNode> renderedNodes) {
+        List<String> members = new ArrayList<>();
+        for (Unit unit : units) members.addAll(unit.members);
+
+        String name = packagePrefix.isEmpty() ? "(other files)" : packagePrefix + ".*";
+        String label = name + " (" + members.size() + " files)";
+        // Shown inside the parent package, a package cluster would otherwise sit in a group of its own
+        renderedNodes.add(cluster(CLUSTER_PREFIX + "pkg:" + packagePrefix, label, parentPackage(packagePrefix),
+                members, nodes, renderedAs));
+    }
+
+    private static FileNode cluster(String path, String label, @Nullable String packageName, List<String> members,
+                                    Map<String, FileNode> nodes, Map<String, String> renderedAs) {
+        int lineCount = 0;
+        boolean allTests = true;
+        for (String member : members) {
+            renderedAs.put(member, path);
+            FileNode node = nodes.get(member);
+            lineCount += node.getLineCount();
+            allTests &= node.isTestSource();
+        }
+
+        FileNode cluster = new FileNode();
+        cluster.setFilePath(path);
+        cluster.setFileName(label);
+        cluster.setClassName(label);
+        cluster.setPackageName(packageName);
+        cluster.setLineCount(lineCount);
+        cluster.setTestSource(allTests);
+        return cluster;
+    }
+
+    /**
+     * Remove an edge u->v when v stays reachable from another successor of u without it.
+     * Edges are removed one at a time, each removal keeps the reachability of the graph.
+     */
+    private static int pruneTransitiveEdges(Map<String, Set<String>> edges) {
+        int pruned = 0;
+        for (Map.Entry<String, Set<String>> entry : edges.entrySet()) {
+            String from = entry.getKey();
+            Set<String> targets = entry.getValue();
+            for (Iterator<String> it = targets.iterator(); it.hasNext(); ) {
+                String to = it.next();
+                if (reachableAvoiding(edges, from, to)) {
+                    it.remove();
+                    pruned++;
+                }
+            }
+        }
+        return pruned;
+    }
+
+    private static boolean reachableAvoiding(Map<String, Set<String>> edges, String from, String to) {
+        Deque<String> stack = new ArrayDeque<>();
+        Set<String> visited = new HashSet<>();
+        visited.add(from);
+        for (String successor : edges.get(from)) {
+            if (!successor.equals(to) && visited.add(successor)) stack.push(successor);
+        }
+
+        while (!stack.isEmpty()) {
+            String current = stack.pop();
+            for (String next : edges.getOrDefault(current, Set.of())) {
+                if (next.equals(to)) return true;
+                // Paths back through the start would use the edge being checked
+                if (visited.add(next)) stack.push(next);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Tarjan's algorithm without recursion, deep dependency chains would overflow the stack
+     */
+    private static List<List<String>> stronglyConnectedComponents(Set<String> vertices, Map<String, Set<String>> edges) {
+        Map<String, Integer> index = new HashMap<>();
+        Map<String, Integer> lowLink = new HashMap<>();
+        Deque<String> componentStack = new ArrayDeque<>();
+        Set<String> onStack = new HashSet<>();
+        List<List<String>> components = new ArrayList<>();
+        int counter = 0;
+
+        for (String root : vertices) {
+            if (index.containsKey(root)) continue;
+
+            Deque<Iterator<String>> iterators = new ArrayDeque<>();
+            Deque<String> path = new ArrayDeque<>();
+            index.put(root, counter);
+            lowLink.put(root, counter++);
+            componentStack.push(root);
+            onStack.add(root);
+            path.push(root);
+            iterators.push(edges.getOrDefault(root, Set.of()).iterator());
+
+            while (!path.isEmpty()) {
+                String vertex = path.peek();
+                Iterator<String> successors = iterators.peek();
+                if (successors.hasNext()) {
+                    String next = successors.next();
+                    if (!index.containsKey(next)) {
+                        index.put(next, counter);
+                        lowLink.put(next, counter++);
+                        componentStack.push(next);
+                        onStack.add(next);
+                        path.push(next);
+                        iterators.push(edges.getOrDefault(next, Set.of()).iterator());
+                    } else if (onStack.contains(next)) {
+                        lowLink.put(vertex, Math.min(lowLink.get(vertex), index.get(next)));
+                    }
+                    continue;
+                }
+
+                path.pop();
+                iterators.pop();
+                if (!path.isEmpty()) {
+                    String parent = path.peek();
+                    lowLink.put(parent, Math.min(lowLink.get(parent), lowLink.get(vertex)));
+                }
+                if (lowLink.get(vertex).equals(index.get(vertex))) {
+                    List<String> component = new ArrayList<>();
+                    String member;
+                    do {
+                        member = componentStack.pop();
+                        onStack.remove(member);
+                        component.add(member);
+                    } while (!member.equals(vertex));
+                    components.add(component);
+                }
+            }
+        }
+        return components;
+    }
+
+    private static FileNode placeholder(String path) {
+        FileNode node = new FileNode();
+        node.setFilePath(path);
+        return node;
+    }
+
+    private static String packageOf(FileNode node) {
+        return node.getPackageName() != null ? node.getPackageName() : "";
+    }
+
+    private static int depth(String packageName) {
+        if (packageName.isEmpty()) return 0;
+        int depth = 1;
+        for (int i = 0; i < packageName.length(); i++) {
+            if (packageName.charAt(i) == '.') depth++;
+        }
+        return depth;
+    }
+
+    private static String prefix(String packageName, int depth) {
+        int end = -1;
+        for (int level = 0; level < depth; level++) {
+            end = packageName.indexOf('.', end + 1);
+            if (end < 0) return packageName;
+        }
+        return depth == 0 ? "" : packageName.substring(0, end);
+    }
+
+    private static @Nullable String parentPackage(String packageName) {
+        int dot = packageName.lastIndexOf('.');
+        return dot < 0 ? null : packageName.substring(0, dot);
+    }
+}
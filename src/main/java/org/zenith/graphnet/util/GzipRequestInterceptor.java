@@ -0,0 +1,148 @@
+package org.zenith.graphnet.util;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okio.BufferedSink;
+import okio.Okio;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.zenith.graphnet.service.GraphNetSettingsService;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compresses request bodies with gzip and marks them with "Content-Encoding: gzip".
+ * Bodies below the size threshold are sent as they are; bodies of unknown length
+ * (streamed JSON) are always compressed. A backend that rejects the encoding with
+ * 415 Unsupported Media Type (RFC 7694) gets the request again uncompressed; if that
+ * is accepted, later requests to that host are no longer compressed.
+ */
+public class GzipRequestInterceptor implements Interceptor {
+
+    /**
+     * Compression settings, read for every request so changes apply without a restart
+     */
+    public record Policy(boolean enabled, int level, long minBytes) {
+    }
+
+    private static final int HTTP_UNSUPPORTED_MEDIA_TYPE = 415;
+
+    private final Supplier<Policy> policy;
+    // Hosts that answered a gzip body with 415
+    private final Map<String, Boolean> uncompressedHosts = new ConcurrentHashMap<>();
+
+    public GzipRequestInterceptor(Supplier<Policy> policy) {
+        this.policy = policy;
+    }
+
+    public static GzipRequestInterceptor fromSettings() {
+        return new GzipRequestInterceptor(() -> {
+            GraphNetSettingsService settings = GraphNetSettingsService.getInstance();
+            return new Policy(settings.isGzipUploadsEnabled(), settings.getGzipLevel(), settings.getGzipMinKb() * 1024L);
+        });
+    }
+
+    @Override
+    public @NotNull Response intercept(@NotNull Chain chain) throws IOException {
+        Request request = chain.request();
+        if (!shouldCompress(request)) {
+            return chain.proceed(request);
+        }
+
+        Request compressed = request.newBuilder()
+                .header("Content-Encoding", "gzip")
+                .method(request.method(), new GzipBody(request.body(), policy.get().level()))
+                .build();
+
+        Response response = chain.proceed(compressed);
+        if (response.code() != HTTP_UNSUPPORTED_MEDIA_TYPE || request.body().isOneShot()) {
+            return response;
+        }
+
+        // The backend may not accept compressed bodies, retry without
+        response.close();
+        Response uncompressed = chain.proceed(request);
+        if (uncompressed.code() != HTTP_UNSUPPORTED_MEDIA_TYPE) {
+            // Only the encoding was rejected, not the payload format
+            System.out.println("Backend " + request.url().host() + " rejected gzip request body, sending uncompressed");
+            uncompressedHosts.put(request.url().host(), Boolean.TRUE);
+        }
+        return uncompressed;
+    }
+
+    private boolean shouldCompress(Request request) throws IOException {
+        RequestBody body = request.body();
+        if (body == null || request.header("Content-Encoding") != null) return false;
+        if (uncompressedHosts.containsKey(request.url().host())) return false;
+
+        Policy current = policy.get();
+        if (!current.enabled()) return false;
+
+        long length = body.contentLength();
+        return length < 0 || length >= current.minBytes();
+    }
+
+    /**
+     * Deflates the wrapped body while it is written to the connection
+     */
+    private static class GzipBody extends RequestBody {
+        private final RequestBody body;
+        private final int level;
+
+        GzipBody(RequestBody body, int level) {
+            this.body = body;
+            this.level = level;
+        }
+
+        @Override
+        public @Nullable MediaType contentType() {
+            return body.contentType();
+        }
+
+        @Override
+        public long contentLength() {
+            // Compressed size is only known once written
+            return -1;
+        }
+
+        @Override
+        public boolean isOneShot() {
+            return body.isOneShot();
+        }
+
+        @Override
+        public void writeTo(@NotNull BufferedSink sink) throws IOException {
+            LevelGzipOutputStream gzip = new LevelGzipOutputStream(sink.outputStream(), level);
+            try {
+                BufferedSink gzipSink = Okio.buffer(Okio.sink(gzip));
+                body.writeTo(gzipSink);
+                gzipSink.emit();
+                gzip.finish();
+            } finally {
+                gzip.release();
+            }
+        }
+    }
+
+    /**
+     * GZIPOutputStream with a configurable level that can be finished without closing the connection
+     */
+    private static class LevelGzipOutputStream extends GZIPOutputStream {
+        LevelGzipOutputStream(OutputStream out, int level) throws IOException {
+            super(out, 8192);
+            def.setLevel(level);
+        }
+
+        void release() {
+            def.end();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package org.zenith.graphnet.util;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Response;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Adapts OkHttp's asynchronous calls to CompletableFuture.
+ * Calls run on the client's dispatcher, so several uploads can be in flight at once,
+ * and cancelling the returned future cancels the underlying call.
+ */
+public final class HttpFutures {
+
+    private HttpFutures() {
+    }
+
+    /**
+     * Reads the response of a call on the dispatcher thread; the response is closed afterwards
+     */
+    @FunctionalInterface
+    public interface ResponseHandler<T> {
+        T handle(Response response) throws IOException;
+    }
+
+    public static <T> CompletableFuture<T> enqueue(Call call, ResponseHandler<T> handler) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+
+        // Completing the future early (cancel or timeout) aborts the request
+        future.whenComplete((result, error) -> {
+            if (future.isCancelled() || error != null) {
+                call.cancel();
+            }
+        });
+
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(@NotNull Call call, @NotNull IOException e) {
+                future.completeExceptionally(e);
+            }
+
+            @Override
+            public void onResponse(@NotNull Call call, @NotNull Response response) {
+                try (response) {
+                    if (!future.isDone()) {
+                        future.complete(handler.handle(response));
+                    }
+                } catch (Exception e) {
+                    future.completeExceptionally(e);
+                }
+            }
+        });
+
+        return future;
+    }
+
+    /**
+     * Reads the body of a successful response, or fails with the status code and body
+     */
+    public static String successfulBody(Response response, String failureMessage) throws IOException {
+        String body = response.body() != null ? response.body().string() : "";
+        if (!response.isSuccessful()) {
+            throw new HttpStatusException(response.code(),
+                    failureMessage + " Status: " + response.code() + (body.isEmpty() ? "" : ", response: " + body));
+        }
+        return body;
+    }
+}
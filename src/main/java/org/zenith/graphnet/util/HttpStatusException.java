@@ -0,0 +1,20 @@
+package org.zenith.graphnet.util;
+
+import java.io.IOException;
+
+/**
+ * A request reached the server but was answered with an unsuccessful status
+ */
+public class HttpStatusException extends IOException {
+
+    private final int statusCode;
+
+    public HttpStatusException(int statusCode, String message) {
+        super(message);
+        this.statusCode = statusCode;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+}
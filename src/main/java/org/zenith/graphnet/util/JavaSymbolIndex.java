@@ -0,0 +1,333 @@
+package org.zenith.graphnet.util;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Line-offset index of the type and member declarations of a Java source file.
+ * Built once while the file is parsed for dependency analysis, then used to map
+ * diff line ranges onto the declarations they touch.
+ * Types are reported as "Outer.Inner", members as "Outer.Inner#member".
+ * The same pass records which members are private and the member names the file
+ * refers to (after "." or "::", or called), to find the dependents a member change reaches.
+ */
+public class JavaSymbolIndex {
+
+    private static final Pattern TYPE_HEADER = Pattern.compile("\\b(class|interface|enum|record)\\s+([A-Za-z_$][\\w$]*)");
+    private static final Pattern METHOD_HEADER = Pattern.compile("([A-Za-z_$][\\w$]*)\\s*\\((?s:.*)\\)\\s*(?:throws\\s+[\\w$.,\\s]+)?$");
+    private static final Pattern FIELD_HEADER = Pattern.compile("([A-Za-z_$][\\w$]*)\\s*(?:\\[\\s*])*\\s*$");
+    private static final Pattern ANNOTATION = Pattern.compile("@[\\w$.]+(?:\\s*\\([^()]*\\))?");
+    private static final Pattern PRIVATE_MODIFIER = Pattern.compile("\\bprivate\\b");
+    // Large ranges (new files, rewrites) are attributed to whole types without a per-line lookup
+    private static final int MAX_LINES_FOR_MEMBER_LOOKUP = 200;
+
+    private final int[] lineOffsets;
+    private final List<Declaration> declarations;
+    // Lines holding code; blank and comment-only lines do not change behaviour
+    private final BitSet codeLines;
+    private final Set<String> privateMembers;
+    private final Set<String> memberReferences;
+
+    private record Declaration(String symbol, boolean type, int startLine, int endLine) {
+        boolean contains(int line) {
+            return line >= startLine && line <= endLine;
+        }
+    }
+
+    private enum FrameKind { TYPE, MEMBER, OTHER }
+
+    private record Frame(FrameKind kind, String name, int startOffset) {
+    }
+
+    private JavaSymbolIndex(int[] lineOffsets, List<Declaration> declarations, BitSet codeLines,
+                            Set<String> privateMembers, Set<String> memberReferences) {
+        this.lineOffsets = lineOffsets;
+        this.declarations = declarations;
+        this.codeLines = codeLines;
+        this.privateMembers = privateMembers;
+        this.memberReferences = memberReferences;
+    }
+
+    public static JavaSymbolIndex build(String content) {
+        int[] lineOffsets = computeLineOffsets(content);
+        List<Declaration> declarations = new ArrayList<>();
+        BitSet codeLines = new BitSet(lineOffsets.length + 1);
+        Set<String> privateMembers = new HashSet<>();
+        Set<String> memberReferences = new HashSet<>();
+        new Scanner(content, lineOffsets, declarations, codeLines, privateMembers, memberReferences).scan();
+        return new JavaSymbolIndex(lineOffsets, declarations, codeLines, privateMembers, memberReferences);
+    }
+
+    public int getLineCount() {
+        return lineOffsets.length;
+    }
+
+    /**
+     * Whether the member symbol ("Type#member") is declared private in this file
+     */
+    public boolean isPrivateMember(String symbol) {
+        return privateMembers.contains(symbol);
+    }
+
+    /**
+     * Whether the file refers to a member with one of the given names
+     */
+    public boolean referencesAnyMember(Collection<String> memberNames) {
+        for (String name : memberNames) {
+            if (memberReferences.contains(name)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Symbols touched by the given 1-based, inclusive line range. A line inside a member maps to
+     * that member, a line inside a type but outside its members maps to the type itself.
+     */
+    public Set<String> symbolsForLines(int fromLine, int toLine) {
+        Set<String> symbols = new LinkedHashSet<>();
+        if (toLine < fromLine) return symbols;
+
+        if (toLine - fromLine > MAX_LINES_FOR_MEMBER_LOOKUP) {
+            for (Declaration declaration : declarations) {
+                if (declaration.type && declaration.startLine <= toLine && declaration.endLine >= fromLine) {
+                    symbols.add(declaration.symbol);
+                }
+            }
+            return symbols;
+        }
+
+        for (int line = fromLine; line <= toLine; line++) {
+            if (!codeLines.get(line)) continue;
+
+            Declaration innermost = null;
+            for (Declaration declaration : declarations) {
+                if (declaration.contains(line) && (innermost == null
+                        || declaration.endLine - declaration.startLine < innermost.endLine - innermost.startLine)) {
+                    innermost = declaration;
+                }
+            }
+            if (innermost != null) {
+                symbols.add(innermost.symbol);
+            }
+        }
+        return symbols;
+    }
+
+    private static int[] computeLineOffsets(String content) {
+        int count = 1;
+        for (int i = 0; i < content.length(); i++) {
+            if (content.charAt(i) == '\n') count++;
+        }
+
+        int[] offsets = new int[count];
+        int line = 1;
+        for (int i = 0; i < content.length(); i++) {
+            if (content.charAt(i) == '\n') offsets[line++] = i + 1;
+        }
+        return offsets;
+    }
+
+    private static int lineOf(int[] lineOffsets, int offset) {
+        int index = Arrays.binarySearch(lineOffsets, offset);
+        return (index >= 0 ? index : -index - 2) + 1;
+    }
+
+    /**
+     * Single pass over the source that tracks braces while skipping comments and literals
+     */
+    private static class Scanner {
+        private final String content;
+        private final int[] lineOffsets;
+        private final List<Declaration> declarations;
+        private final BitSet codeLines;
+        private final Set<String> privateMembers;
+        private final Set<String> memberReferences;
+        private final Deque<Frame> stack = new ArrayDeque<>();
+        private final StringBuilder header = new StringBuilder();
+        private int declarationStart = -1;
+        private int markedLineEnd = 0;
+
+        Scanner(String content, int[] lineOffsets, List<Declaration> declarations, BitSet codeLines,
+                Set<String> privateMembers, Set<String> memberReferences) {
+            this.content = content;
+            this.lineOffsets = lineOffsets;
+            this.declarations = declarations;
+            this.codeLines = codeLines;
+            this.privateMembers = privateMembers;
+            this.memberReferences = memberReferences;
+        }
+
+        void scan() {
+            int length = content.length();
+            int i = 0;
+
+            while (i < length) {
+                char c = content.charAt(i);
+
+                if (c == '/' && i + 1 < length && content.charAt(i + 1) == '/') {
+                    markStart(i);
+                    int end = content.indexOf('\n', i);
+                    i = end < 0 ? length : end;
+                } else if (c == '/' && i + 1 < length && content.charAt(i + 1) == '*') {
+                    markStart(i);
+                    int end = content.indexOf("*/", i + 2);
+                    i = end < 0 ? length : end + 2;
+                } else if (content.startsWith("\"\"\"", i)) {
+                    markStart(i);
+                    markCode(i);
+                    int end = content.indexOf("\"\"\"", i + 3);
+                    header.append("\"\"");
+                    i = end < 0 ? length : end + 3;
+                } else if (c == '"' || c == '\'') {
+                    markStart(i);
+                    markCode(i);
+                    i = skipLiteral(i, c);
+                    header.append(c).append(c);
+                } else if (c == '{') {
+                    markCode(i);
+                    openBlock(i);
+                    i++;
+                } else if (c == '}') {
+                    markCode(i);
+                    closeBlock(i);
+                    i++;
+                } else if (c == ';') {
+                    markCode(i);
+                    endStatement(i);
+                    i++;
+                } else if (Character.isJavaIdentifierStart(c) && (i == 0 || !Character.isJavaIdentifierPart(content.charAt(i - 1)))) {
+                    markStart(i);
+                    markCode(i);
+                    int end = i + 1;
+                    while (end < length && Character.isJavaIdentifierPart(content.charAt(end))) end++;
+                    if (isMemberReference(i, end)) memberReferences.add(content.substring(i, end).intern());
+                    header.append(content, i, end);
+                    i = end;
+                } else {
+                    if (!Character.isWhitespace(c)) {
+                        markStart(i);
+                        markCode(i);
+                    }
+                    if (declarationStart >= 0) header.append(c);
+                    i++;
+                }
+            }
+        }
+
+        /**
+         * An identifier after "." or "::", or followed by an argument list
+         */
+        private boolean isMemberReference(int start, int end) {
+            int before = start - 1;
+            while (before >= 0 && Character.isWhitespace(content.charAt(before))) before--;
+            if (before >= 0 && (content.charAt(before) == '.' || content.startsWith("::", before - 1))) return true;
+
+            int after = end;
+            while (after < content.length() && Character.isWhitespace(content.charAt(after))) after++;
+            return after < content.length() && content.charAt(after) == '(';
+        }
+
+        private void markStart(int offset) {
+            if (declarationStart < 0) declarationStart = offset;
+        }
+
+        private void markCode(int offset) {
+            // One lookup per line rather than per character
+            if (offset < markedLineEnd) return;
+            int line = lineOf(lineOffsets, offset);
+            codeLines.set(line);
+            markedLineEnd = line < lineOffsets.length ? lineOffsets[line] : Integer.MAX_VALUE;
+        }
+
+        private int skipLiteral(int start, char quote) {
+            int i = start + 1;
+            while (i < content.length()) {
+                char c = content.charAt(i);
+                if (c == '\\') {
+                    i += 2;
+                } else if (c == quote || c == '\n') {
+                    return i + 1;
+                } else {
+                    i++;
+                }
+            }
+            return i;
+        }
+
+        private void openBlock(int offset) {
+            String text = stripAnnotations(header.toString()).trim();
+            int start = declarationStart >= 0 ? declarationStart : offset;
+            Frame parent = stack.peek();
+            Frame frame = new Frame(FrameKind.OTHER, null, start);
+
+            if (parent == null || parent.kind == FrameKind.TYPE) {
+                Matcher typeMatcher = TYPE_HEADER.matcher(text);
+                if (typeMatcher.find() && !text.contains("=") && !text.contains("new ")) {
+                    String name = parent == null ? typeMatcher.group(2) : parent.name + "." + typeMatcher.group(2);
+                    frame = new Frame(FrameKind.TYPE, name, start);
+                } else if (parent != null) {
+                    String member = memberName(text);
+                    if (member != null) {
+                        frame = new Frame(FrameKind.MEMBER, parent.name + "#" + member, start);
+                        if (PRIVATE_MODIFIER.matcher(text).find()) privateMembers.add(frame.name);
+                    }
+                }
+            }
+
+            stack.push(frame);
+            resetHeader();
+        }
+
+        private void closeBlock(int offset) {
+            Frame frame = stack.poll();
+            if (frame != null && frame.kind != FrameKind.OTHER) {
+                declarations.add(new Declaration(frame.name, frame.kind == FrameKind.TYPE,
+                        lineOf(lineOffsets, frame.startOffset), lineOf(lineOffsets, offset)));
+            }
+            resetHeader();
+        }
+
+        private void endStatement(int offset) {
+            Frame parent = stack.peek();
+            if (parent != null && parent.kind == FrameKind.TYPE && declarationStart >= 0) {
+                // Fields and abstract/interface methods end with a semicolon at member level
+                String text = stripAnnotations(header.toString()).trim();
+                String member = memberName(text);
+                if (member != null) {
+                    declarations.add(new Declaration(parent.name + "#" + member, false,
+                            lineOf(lineOffsets, declarationStart), lineOf(lineOffsets, offset)));
+                    if (PRIVATE_MODIFIER.matcher(text).find()) privateMembers.add(parent.name + "#" + member);
+                }
+            }
+            resetHeader();
+        }
+
+        private void resetHeader() {
+            header.setLength(0);
+            declarationStart = -1;
+        }
+
+        private static String memberName(String text) {
+            if (text.isEmpty()) return null;
+
+            int assignment = text.indexOf('=');
+            if (assignment >= 0) {
+                Matcher fieldMatcher = FIELD_HEADER.matcher(text.substring(0, assignment));
+                return fieldMatcher.find() ? fieldMatcher.group(1) : null;
+            }
+
+            Matcher methodMatcher = METHOD_HEADER.matcher(text);
+            if (methodMatcher.find()) {
+                return methodMatcher.group(1);
+            }
+
+            Matcher fieldMatcher = FIELD_HEADER.matcher(text);
+            return fieldMatcher.find() ? fieldMatcher.group(1) : null;
+        }
+
+        private static String stripAnnotations(String text) {
+            return ANNOTATION.matcher(text).replaceAll(" ");
+        }
+    }
+}
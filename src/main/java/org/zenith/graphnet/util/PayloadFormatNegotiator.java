@@ -0,0 +1,107 @@
+package org.zenith.graphnet.util;
+
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.jetbrains.annotations.NotNull;
+import org.zenith.graphnet.api.PayloadFormat;
+import org.zenith.graphnet.impl.JacksonPayloadFormat;
+import org.zenith.graphnet.service.GraphNetSettingsService;
+
+import java.io.IOException;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Chooses the wire format of uploads and falls back to JSON when the backend rejects it.
+ * With the "auto" setting the preferred format the backend advertised (through an
+ * "Accept-Post" header on any response, or "Accept" on a 415) is used, JSON until then.
+ * A fixed setting always uses that format. A 415 Unsupported Media Type response to a
+ * binary upload is answered by resending the payload as JSON.
+ */
+public class PayloadFormatNegotiator implements Interceptor {
+
+    public static final String AUTO = "auto";
+
+    private static final int HTTP_UNSUPPORTED_MEDIA_TYPE = 415;
+
+    private final Supplier<String> configuredFormat;
+    // Formats each host advertised, in the order they were listed
+    private final Map<String, Set<PayloadFormat>> advertisedFormats = new ConcurrentHashMap<>();
+    // Hosts that rejected a binary upload
+    private final Set<String> jsonOnlyHosts = ConcurrentHashMap.newKeySet();
+
+    public PayloadFormatNegotiator(Supplier<String> configuredFormat) {
+        this.configuredFormat = configuredFormat;
+    }
+
+    public static PayloadFormatNegotiator fromSettings() {
+        return new PayloadFormatNegotiator(() -> GraphNetSettingsService.getInstance().getPayloadFormat());
+    }
+
+    /**
+     * Format to encode the next upload to the given URL with
+     */
+    public PayloadFormat select(HttpUrl url) {
+        if (jsonOnlyHosts.contains(url.host())) return JacksonPayloadFormat.JSON;
+
+        String configured = configuredFormat.get();
+        if (!AUTO.equalsIgnoreCase(configured)) {
+            JacksonPayloadFormat format = JacksonPayloadFormat.forName(configured);
+            return format != null ? format : JacksonPayloadFormat.JSON;
+        }
+
+        Set<PayloadFormat> advertised = advertisedFormats.get(url.host());
+        if (advertised != null) {
+            for (JacksonPayloadFormat format : JacksonPayloadFormat.all()) {
+                if (advertised.contains(format)) return format;
+            }
+        }
+        return JacksonPayloadFormat.JSON;
+    }
+
+    public PayloadFormat select(String url) {
+        HttpUrl httpUrl = HttpUrl.parse(url);
+        return httpUrl != null ? select(httpUrl) : JacksonPayloadFormat.JSON;
+    }
+
+    @Override
+    public @NotNull Response intercept(@NotNull Chain chain) throws IOException {
+        Request request = chain.request();
+        Response response = chain.proceed(request);
+        String host = request.url().host();
+
+        recordAdvertised(host, response.header("Accept-Post"));
+
+        if (response.code() == HTTP_UNSUPPORTED_MEDIA_TYPE
+                && request.body() instanceof StreamingRequestBody body
+                && body.getFormat() != JacksonPayloadFormat.JSON) {
+            recordAdvertised(host, response.header("Accept"));
+            System.out.println("Backend " + host + " rejected " + body.getFormat().getName() + " payload, sending JSON");
+            jsonOnlyHosts.add(host);
+            response.close();
+
+            return chain.proceed(request.newBuilder()
+                    .method(request.method(), body.withFormat(JacksonPayloadFormat.JSON))
+                    .build());
+        }
+        return response;
+    }
+
+    private void recordAdvertised(String host, String header) {
+        if (header == null || header.isBlank()) return;
+
+        Set<PayloadFormat> formats = new LinkedHashSet<>();
+        for (String mediaType : header.split(",")) {
+            JacksonPayloadFormat format = JacksonPayloadFormat.forMediaType(mediaType);
+            if (format != null) formats.add(format);
+        }
+        if (!formats.isEmpty()) {
+            advertisedFormats.put(host, formats);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package org.zenith.graphnet.util;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Retries idempotent requests on I/O errors and transient statuses with exponential
+ * backoff and full jitter. A request is idempotent if its method is, or if it carries an
+ * Idempotency-Key header. Requests rejected by an open circuit breaker are not retried.
+ */
+public class RetryInterceptor implements Interceptor {
+
+    private static final Set<String> IDEMPOTENT_METHODS = Set.of("GET", "HEAD", "PUT", "DELETE", "OPTIONS");
+    private static final Set<Integer> TRANSIENT_STATUSES = Set.of(408, 429, 502, 503, 504);
+
+    private final int maxAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+
+    public RetryInterceptor(int maxAttempts, long baseDelay, long maxDelay, TimeUnit unit) {
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMillis = unit.toMillis(baseDelay);
+        this.maxDelayMillis = unit.toMillis(maxDelay);
+    }
+
+    @Override
+    public @NotNull Response intercept(@NotNull Chain chain) throws IOException {
+        Request request = chain.request();
+        if (!isRetryable(request)) {
+            return chain.proceed(request);
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            long delayMillis = backoff(attempt);
+            try {
+                Response response = chain.proceed(request);
+                if (!TRANSIENT_STATUSES.contains(response.code()) || attempt >= maxAttempts) {
+                    return response;
+                }
+                delayMillis = Math.max(delayMillis, retryAfterMillis(response));
+                response.close();
+            } catch (CircuitOpenException e) {
+                throw e;
+            } catch (IOException e) {
+                if (chain.call().isCanceled() || attempt >= maxAttempts) throw e;
+            }
+
+            System.out.println("Retrying " + request.method() + " " + request.url().encodedPath()
+                    + " in " + delayMillis + " ms (attempt " + (attempt + 1) + " of " + maxAttempts + ")");
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting to retry");
+            }
+        }
+    }
+
+    private static boolean isRetryable(Request request) {
+        if (request.body() != null && request.body().isOneShot()) return false;
+        return IDEMPOTENT_METHODS.contains(request.method()) || request.header("Idempotency-Key") != null;
+    }
+
+    private long backoff(int attempt) {
+        // Full jitter: uniformly random up to the exponential bound
+        long bound = Math.min(maxDelayMillis, baseDelayMillis << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(bound + 1);
+    }
+
+    private long retryAfterMillis(Response response) {
+        String retryAfter = response.header("Retry-After");
+        if (retryAfter == null) return 0;
+        try {
+            return Math.min(maxDelayMillis, TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim())));
+        } catch (NumberFormatException e) {
+            // HTTP-date form, fall back to the computed backoff
+            return 0;
+        }
+    }
+}
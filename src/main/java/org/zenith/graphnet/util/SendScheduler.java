@@ -0,0 +1,170 @@
+package org.zenith.graphnet.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces bursts of uploads per kind. A request waits out the debounce window, and every request
+ * that joins it restarts the window, so a burst is sent once it has been quiet for a window; a run
+ * never waits more than {@link #MAX_WAIT_WINDOWS} windows after its first request. The task of the
+ * latest request is the one that runs. A kind never has more than one upload running, requests made
+ * while one runs are folded into a single run that starts once it finishes. Tasks are started
+ * outside the scheduler's lock.
+ */
+public class SendScheduler {
+
+    private static final int MAX_WAIT_WINDOWS = 4;
+
+    private final ScheduledExecutorService executor;
+    private final LongSupplier debounceMillis;
+    private final Map<String, Slot> slots = new HashMap<>();
+
+    private static class Slot {
+        // Identifies the upload currently running, null when idle
+        Object running;
+        // Next run, shared by every request that joins it
+        CompletableFuture<Object> queued;
+        Supplier<? extends CompletableFuture<?>> task;
+        boolean debounced;
+        long firstRequestNanos;
+        // Latest debounce timer; a timer that was replaced but still fires finds another token here
+        ScheduledFuture<?> timer;
+        Object timerToken;
+    }
+
+    /**
+     * A run taken out of its slot under the lock, started after the lock is released
+     */
+    private record Launch(Object run, CompletableFuture<Object> result, Supplier<? extends CompletableFuture<?>> task) {
+    }
+
+    public SendScheduler(ScheduledExecutorService executor, LongSupplier debounceMillis) {
+        this.executor = executor;
+        this.debounceMillis = debounceMillis;
+    }
+
+    /**
+     * Run the task once the debounce window has passed without another request of the same kind,
+     * or join the run of that kind that is still waiting. Tasks of one kind must complete with the same type.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <T> CompletableFuture<T> submit(String kind, Supplier<CompletableFuture<T>> task) {
+        Slot slot = slots.computeIfAbsent(kind, k -> new Slot());
+        slot.task = task;
+
+        if (slot.queued != null) {
+            System.out.println("Coalesced " + kind + " upload with the one already waiting");
+            // A run whose window passed only waits for the upload in flight
+            if (!slot.debounced) schedule(kind, slot);
+            return (CompletableFuture<T>) slot.queued;
+        }
+
+        slot.queued = new CompletableFuture<>();
+        slot.debounced = false;
+        slot.firstRequestNanos = System.nanoTime();
+        schedule(kind, slot);
+        return (CompletableFuture<T>) slot.queued;
+    }
+
+    /**
+     * Fail every waiting run; uploads already running are left to their owner
+     */
+    public synchronized void cancelAll() {
+        for (Slot slot : slots.values()) {
+            if (slot.queued != null) {
+                slot.queued.completeExceptionally(new CancellationException("Upload cancelled"));
+                slot.queued = null;
+                slot.task = null;
+            }
+            cancelTimer(slot);
+        }
+    }
+
+    private void schedule(String kind, Slot slot) {
+        cancelTimer(slot);
+
+        long debounce = Math.max(0, debounceMillis.getAsLong());
+        long waited = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - slot.firstRequestNanos);
+        long delay = Math.max(0, Math.min(debounce, debounce * MAX_WAIT_WINDOWS - waited));
+
+        Object token = new Object();
+        slot.timerToken = token;
+        slot.timer = executor.schedule(() -> debounceElapsed(kind, token), delay, TimeUnit.MILLISECONDS);
+    }
+
+    private static void cancelTimer(Slot slot) {
+        if (slot.timer != null) slot.timer.cancel(false);
+        slot.timer = null;
+        slot.timerToken = null;
+    }
+
+    private void debounceElapsed(String kind, Object token) {
+        Launch launch;
+        synchronized (this) {
+            Slot slot = slots.get(kind);
+            if (slot == null || slot.timerToken != token) return;
+
+            slot.timer = null;
+            slot.timerToken = null;
+            slot.debounced = true;
+            if (slot.running != null) return;
+            launch = take(slot);
+        }
+        start(kind, launch);
+    }
+
+    private static Launch take(Slot slot) {
+        Launch launch = new Launch(new Object(), slot.queued, slot.task);
+        slot.running = launch.run;
+        slot.queued = null;
+        slot.task = null;
+        slot.debounced = false;
+        return launch;
+    }
+
+    /**
+     * Called without the lock, building the upload may take a while
+     */
+    private void start(String kind, Launch launch) {
+        CompletableFuture<?> running;
+        try {
+            running = launch.task.get();
+        } catch (RuntimeException e) {
+            running = CompletableFuture.failedFuture(e);
+        }
+
+        running.whenComplete((value, error) -> {
+            if (error != null) {
+                launch.result.completeExceptionally(error);
+            } else {
+                launch.result.complete(value);
+            }
+            finished(kind, launch.run);
+        });
+    }
+
+    private void finished(String kind, Object run) {
+        Launch next;
+        synchronized (this) {
+            Slot slot = slots.get(kind);
+            if (slot == null || slot.running != run) return;
+
+            slot.running = null;
+            if (slot.queued == null) {
+                slots.remove(kind);
+                return;
+            }
+            // Requests made while this run was in flight, once their window has passed
+            if (!slot.debounced) return;
+            next = take(slot);
+        }
+        start(kind, next);
+    }
+}
@@ -0,0 +1,110 @@
+package org.zenith.graphnet.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.zenith.graphnet.api.PayloadFormat;
+import org.zenith.graphnet.model.DependencyGraph;
+import org.zenith.graphnet.model.FileNode;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Request body that serializes a payload straight into the connection's sink while the request is written.
+ * No String or byte[] copy of the payload is built, so upload memory does not grow with the payload.
+ * The body is sent chunked and is serialized again if OkHttp has to retry the request, possibly
+ * in another format (see {@link #withFormat(PayloadFormat)}).
+ */
+public class StreamingRequestBody extends RequestBody {
+
+    /**
+     * Writes the document through the format-neutral generator; values can be delegated to the given writer
+     */
+    @FunctionalInterface
+    public interface PayloadWriter {
+        void write(JsonGenerator generator, ObjectWriter valueWriter) throws IOException;
+    }
+
+    private final PayloadFormat format;
+    private final PayloadWriter writer;
+
+    public StreamingRequestBody(PayloadFormat format, PayloadWriter writer) {
+        this.format = format;
+        this.writer = writer;
+    }
+
+    public static StreamingRequestBody of(PayloadFormat format, Object value) {
+        return new StreamingRequestBody(format, (generator, valueWriter) -> valueWriter.writeValue(generator, value));
+    }
+
+    /**
+     * Writes the graph node by node and edge list by edge list, with the same fields as DependencyGraph
+     */
+    public static StreamingRequestBody ofGraph(PayloadFormat format, DependencyGraph graph) {
+        return new StreamingRequestBody(format, (generator, valueWriter) -> {
+            generator.writeStartObject();
+            generator.writeStringField("projectName", graph.getProjectName());
+            generator.writeNumberField("generatedAt", graph.getGeneratedAt());
+            generator.writeNumberField("version", graph.getVersion());
+
+            generator.writeArrayFieldStart("nodes");
+            for (FileNode node : graph.getNodes()) {
+                valueWriter.writeValue(generator, node);
+            }
+            generator.writeEndArray();
+
+            generator.writeObjectFieldStart("edges");
+            for (Map.Entry<String, Set<String>> entry : graph.getEdges().entrySet()) {
+                generator.writeArrayFieldStart(entry.getKey());
+                for (String target : entry.getValue()) {
+                    generator.writeString(target);
+                }
+                generator.writeEndArray();
+            }
+            generator.writeEndObject();
+
+            generator.writeEndObject();
+        });
+    }
+
+    public PayloadFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * The same payload encoded in another format
+     */
+    public StreamingRequestBody withFormat(PayloadFormat otherFormat) {
+        return new StreamingRequestBody(otherFormat, writer);
+    }
+
+    @Override
+    public @Nullable MediaType contentType() {
+        return MediaType.get(format.getMediaType());
+    }
+
+    @Override
+    public long contentLength() {
+        // Unknown until written, sent with chunked transfer encoding
+        return -1;
+    }
+
+    @Override
+    public void writeTo(@NotNull BufferedSink sink) throws IOException {
+        // Flushing after every value would push each node to the socket separately
+        ObjectWriter valueWriter = format.getObjectMapper().writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        JsonGenerator generator = format.getObjectMapper().getFactory().createGenerator(sink.outputStream());
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        try (generator) {
+            writer.write(generator, valueWriter);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package org.zenith.graphnet.service;
+
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import org.zenith.graphnet.tools.MockMicroservice;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Queues uploads in one outbox, then recovers the log in a second one the way the next IDE session
+ * would, and lets it deliver to the mock microservice.
+ */
+public class UploadOutboxTest extends BasePlatformTestCase {
+
+    private static final MediaType JSON = MediaType.get("application/json");
+
+    private MockMicroservice mock;
+    private Path logFile;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mock = new MockMicroservice(0, 1);
+        mock.start();
+        logFile = Files.createTempDirectory("graphnet-outbox").resolve("outbox.log");
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        try {
+            mock.stop();
+        } finally {
+            super.tearDown();
+        }
+    }
+
+    public void testQueuedUploadsAreDeliveredAfterRestart() throws Exception {
+        UploadOutbox first = new UploadOutbox(getProject(), logFile);
+        for (int i = 0; i < 3; i++) {
+            first.enqueue(UploadOutbox.KIND_GIT_DIFF, mock.getBaseUrl() + "/git-diff", "diff-" + i, body("{\"n\":" + i + "}"), null);
+        }
+        assertEquals(3, first.getPendingCount());
+        // The first drain waits for the retry delay, closing before it keeps everything queued
+        first.dispose();
+
+        UploadOutbox second = new UploadOutbox(getProject(), logFile);
+        try {
+            second.start();
+            awaitDelivered(second);
+        } finally {
+            second.dispose();
+        }
+
+        assertEquals(3, mock.getRequestCount("/git-diff"));
+        assertEquals(0, Files.size(logFile));
+    }
+
+    public void testTornRecordIsDiscardedOnRecovery() throws Exception {
+        UploadOutbox first = new UploadOutbox(getProject(), logFile);
+        first.enqueue(UploadOutbox.KIND_GIT_DIFF, mock.getBaseUrl() + "/git-diff", "diff", body("{}"), null);
+        first.dispose();
+
+        // A record cut off by a crash while its header was being written
+        try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0x47, 0x4E, 0x4F, 0x42, 1, 0, 0}));
+        }
+
+        UploadOutbox second = new UploadOutbox(getProject(), logFile);
+        try {
+            second.start();
+            awaitDelivered(second);
+        } finally {
+            second.dispose();
+        }
+
+        assertEquals(1, mock.getRequestCount("/git-diff"));
+        assertEquals(0, Files.size(logFile));
+    }
+
+    public void testNewerGraphUploadSupersedesQueuedOnes() throws Exception {
+        UploadOutbox first = new UploadOutbox(getProject(), logFile);
+        first.enqueue(UploadOutbox.KIND_GRAPH, mock.getBaseUrl() + "/analyze", null, body("{\"v\":1}"), null);
+        first.enqueue(UploadOutbox.KIND_GIT_DIFF, mock.getBaseUrl() + "/git-diff", "diff", body("{}"), null);
+        first.enqueue(UploadOutbox.KIND_GRAPH, mock.getBaseUrl() + "/analyze", null, body("{\"v\":2}"), null);
+        assertEquals(2, first.getPendingCount());
+        first.dispose();
+
+        UploadOutbox second = new UploadOutbox(getProject(), logFile);
+        try {
+            second.start();
+            awaitDelivered(second);
+        } finally {
+            second.dispose();
+        }
+
+        assertEquals(1, mock.getRequestCount("/analyze"));
+        assertEquals(1, mock.getRequestCount("/git-diff"));
+    }
+
+    public void testTransientFailuresAreQueuedAndPermanentOnesAreNot() {
+        assertTrue(UploadOutbox.isTransient(new IOException("connection refused")));
+        assertFalse(UploadOutbox.isTransient(new IllegalStateException("bug")));
+    }
+
+    private static RequestBody body(String json) {
+        return RequestBody.create(json.getBytes(StandardCharsets.UTF_8), JSON);
+    }
+
+    private static void awaitDelivered(UploadOutbox outbox) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (outbox.hasPending()) {
+            assertTrue("Queued uploads were not delivered", System.currentTimeMillis() < deadline);
+            Thread.sleep(20);
+        }
+    }
+}
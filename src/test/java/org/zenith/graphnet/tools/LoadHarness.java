@@ -0,0 +1,262 @@
+package org.zenith.graphnet.tools;
+
+import com.sun.management.ThreadMXBean;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import org.zenith.graphnet.api.PayloadFormat;
+import org.zenith.graphnet.model.ChangedFile;
+import org.zenith.graphnet.model.DependencyGraph;
+import org.zenith.graphnet.model.FileNode;
+import org.zenith.graphnet.model.GitDiffData;
+import org.zenith.graphnet.service.MicroserviceTransport;
+import org.zenith.graphnet.util.GzipRequestInterceptor;
+import org.zenith.graphnet.util.HttpFutures;
+import org.zenith.graphnet.util.PayloadFormatNegotiator;
+import org.zenith.graphnet.util.StreamingRequestBody;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Measures the graph and git diff upload paths against a {@link MockMicroservice}, without the IDE.
+ * Uploads go through a client with the transport's configuration and interceptor chain and are
+ * encoded the way the plugin encodes them. Reports uploads per second, p50/p99 latency and the
+ * bytes allocated per upload by the harness's own worker threads, which encode and send each
+ * payload; the mock server's threads and OkHttp's pool threads are not counted.
+ *
+ * <pre>
+ * LoadHarness [--uploads N] [--concurrency N] [--nodes N] [--files N] [--format json|smile|cbor]
+ *             [--gzip true|false] [--latency ms] [--jitter ms] [--failure-rate 0..1] [--url baseUrl]
+ * </pre>
+ * Without --url an embedded mock server is started; with it the given backend is measured instead.
+ */
+public class LoadHarness {
+
+    private static final String GRAPH_ENDPOINT = "/analyze";
+    private static final String GIT_DIFF_ENDPOINT = "/repository/perform-mr-metrics";
+    private static final int WARMUP_UPLOADS = 20;
+
+    private final OkHttpClient client;
+    private final PayloadFormatNegotiator negotiator;
+    private final String baseUrl;
+    private final ThreadPoolExecutor workers;
+    private final Set<Long> workerThreadIds = ConcurrentHashMap.newKeySet();
+
+    public record Result(String name, int uploads, int failed, double uploadsPerSecond,
+                         double p50Millis, double p99Millis, long bytesAllocatedPerUpload) {
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%-9s %6d uploads  %4d failed  %9.1f/s  p50 %8.2f ms  p99 %8.2f ms  %,12d B/upload",
+                    name, uploads, failed, uploadsPerSecond, p50Millis, p99Millis, bytesAllocatedPerUpload);
+        }
+    }
+
+    public LoadHarness(String baseUrl, String format, boolean gzip, int concurrency) {
+        this.baseUrl = baseUrl;
+        // One pool for the whole run, so the allocation counters of its threads can be read before and after
+        AtomicInteger workerNumber = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(concurrency, concurrency, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), task -> {
+            Thread thread = new Thread(task, "load-harness-" + workerNumber.incrementAndGet());
+            thread.setDaemon(true);
+            workerThreadIds.add(thread.getId());
+            return thread;
+        });
+        workers.prestartAllCoreThreads();
+        this.negotiator = new PayloadFormatNegotiator(() -> format);
+        GzipRequestInterceptor gzipInterceptor = new GzipRequestInterceptor(() -> new GzipRequestInterceptor.Policy(gzip, 6, 1024));
+        this.client = MicroserviceTransport.newClientBuilder(negotiator, gzipInterceptor).build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        int uploads = Integer.parseInt(options.getOrDefault("uploads", "500"));
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "8"));
+        int nodes = Integer.parseInt(options.getOrDefault("nodes", "2000"));
+        int files = Integer.parseInt(options.getOrDefault("files", "50"));
+        String format = options.getOrDefault("format", "json");
+        boolean gzip = Boolean.parseBoolean(options.getOrDefault("gzip", "true"));
+
+        MockMicroservice mock = null;
+        String baseUrl = options.get("url");
+        if (baseUrl == null) {
+            mock = new MockMicroservice(0, 42);
+            mock.setLatency(Long.parseLong(options.getOrDefault("latency", "0")), Long.parseLong(options.getOrDefault("jitter", "0")));
+            mock.setFailureRate(Double.parseDouble(options.getOrDefault("failure-rate", "0")));
+            mock.start();
+            baseUrl = mock.getBaseUrl();
+        }
+
+        LoadHarness harness = new LoadHarness(baseUrl, format, gzip, concurrency);
+        try {
+            DependencyGraph graph = syntheticGraph(nodes);
+            GitDiffData diff = syntheticDiff(files);
+            System.out.println("Target " + baseUrl + ", format " + format + ", gzip " + gzip + ", concurrency " + concurrency
+                    + ", graph of " + nodes + " nodes, diff of " + files + " files");
+
+            System.out.println(harness.run("graph", GRAPH_ENDPOINT, uploads, f -> StreamingRequestBody.ofGraph(f, graph)));
+            System.out.println(harness.run("git-diff", GIT_DIFF_ENDPOINT, uploads, f -> StreamingRequestBody.of(f, diff)));
+            if (mock != null) {
+                System.out.println("Mock received " + mock.getBytesReceived() + " bytes, injected "
+                        + mock.getFailuresInjected() + " failures");
+            }
+        } finally {
+            harness.shutdown();
+            if (mock != null) mock.stop();
+        }
+    }
+
+    /**
+     * Upload the payload the given number of times after a short warm-up and measure the run
+     */
+    public Result run(String name, String endpoint, int uploads, Function<PayloadFormat, RequestBody> payload) throws Exception {
+        String url = baseUrl + endpoint;
+        runBatch(url, WARMUP_UPLOADS, payload);
+
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long[] ids = workerThreadIds.stream().mapToLong(Long::longValue).toArray();
+        long[] allocatedBefore = threads.getThreadAllocatedBytes(ids);
+        long start = System.nanoTime();
+        long[] latencies = runBatch(url, uploads, payload);
+        long elapsed = System.nanoTime() - start;
+        long allocated = allocatedSince(ids, allocatedBefore, threads.getThreadAllocatedBytes(ids));
+
+        int failed = 0;
+        List<Long> succeeded = new ArrayList<>(latencies.length);
+        for (long latency : latencies) {
+            if (latency < 0) failed++;
+            else succeeded.add(latency);
+        }
+        Collections.sort(succeeded);
+
+        return new Result(name, uploads, failed,
+                uploads / (elapsed / 1e9),
+                percentile(succeeded, 0.50) / 1e6,
+                percentile(succeeded, 0.99) / 1e6,
+                allocated / Math.max(1, uploads));
+    }
+
+    public void shutdown() {
+        workers.shutdown();
+        client.dispatcher().executorService().shutdown();
+        client.connectionPool().evictAll();
+    }
+
+    /**
+     * Latency of each upload in nanoseconds, negative for uploads that failed
+     */
+    private long[] runBatch(String url, int uploads, Function<PayloadFormat, RequestBody> payload) throws Exception {
+        long[] latencies = new long[uploads];
+        List<Future<?>> futures = new ArrayList<>(uploads);
+        for (int i = 0; i < uploads; i++) {
+            int index = i;
+            futures.add(workers.submit(() -> latencies[index] = upload(url, payload)));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        return latencies;
+    }
+
+    private long upload(String url, Function<PayloadFormat, RequestBody> payload) {
+        Request request = new Request.Builder()
+                .url(url)
+                .post(payload.apply(negotiator.select(url)))
+                .build();
+
+        long start = System.nanoTime();
+        try (Response response = client.newCall(request).execute()) {
+            HttpFutures.successfulBody(response, "Upload failed.");
+            return System.nanoTime() - start;
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Bytes the worker threads allocated between the two readings; a thread reported as gone (-1) is left out
+     */
+    private static long allocatedSince(long[] ids, long[] before, long[] after) {
+        long total = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (before[i] >= 0 && after[i] >= before[i]) total += after[i] - before[i];
+        }
+        return total;
+    }
+
+    private static double percentile(List<Long> sorted, double percentile) {
+        if (sorted.isEmpty()) return Double.NaN;
+        int index = (int) Math.ceil(percentile * sorted.size()) - 1;
+        return sorted.get(Math.max(0, Math.min(sorted.size() - 1, index)));
+    }
+
+    private static DependencyGraph syntheticGraph(int nodeCount) {
+        Random random = new Random(7);
+        List<FileNode> nodes = new ArrayList<>(nodeCount);
+        Map<String, Set<String>> edges = new HashMap<>();
+
+        for (int i = 0; i < nodeCount; i++) {
+            String path = "src/main/java/com/example/module" + (i % 20) + "/Type" + i + ".java";
+            FileNode node = new FileNode();
+            node.setFilePath(path);
+            node.setFileName("Type" + i + ".java");
+            node.setPackageName("com.example.module" + (i % 20));
+            node.setClassName("Type" + i);
+            node.setLineCount(50 + random.nextInt(500));
+            node.setImports(new HashSet<>());
+            node.setDependencies(new HashSet<>());
+            nodes.add(node);
+        }
+        for (int i = 0; i < nodeCount; i++) {
+            Set<String> targets = new HashSet<>();
+            for (int j = 0; j < 5; j++) {
+                targets.add(nodes.get(random.nextInt(nodeCount)).getFilePath());
+            }
+            edges.put(nodes.get(i).getFilePath(), targets);
+        }
+
+        DependencyGraph graph = new DependencyGraph();
+        graph.setProjectName("load-harness");
+        graph.setGeneratedAt(System.currentTimeMillis());
+        graph.setNodes(nodes);
+        graph.setEdges(edges);
+        return graph;
+    }
+
+    private static GitDiffData syntheticDiff(int fileCount) {
+        List<ChangedFile> files = new ArrayList<>(fileCount);
+        for (int i = 0; i < fileCount; i++) {
+            StringBuilder diff = new StringBuilder("@@ -10,6 +10,8 @@\n");
+            for (int line = 0; line < 40; line++) {
+                diff.append(line % 3 == 0 ? "+" : " ").append("    int value").append(line).append(" = compute(").append(line).append(");\n");
+            }
+            files.add(new ChangedFile("src/main/java/com/example/Changed" + i + ".java", "modified", 14, 0, diff.toString()));
+        }
+
+        GitDiffData diffData = new GitDiffData();
+        diffData.setRepository("load-harness");
+        diffData.setTargetBranch("main");
+        diffData.setChangedFiles(files);
+        return diffData;
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Expected an option, got " + args[i]);
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        return options;
+    }
+}
@@ -0,0 +1,80 @@
+package org.zenith.graphnet.tools;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.zenith.graphnet.model.DependencyGraph;
+import org.zenith.graphnet.model.FileNode;
+import org.zenith.graphnet.util.StreamingRequestBody;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class LoadHarnessTest {
+
+    private MockMicroservice mock;
+    private LoadHarness harness;
+
+    @Before
+    public void setUp() throws Exception {
+        mock = new MockMicroservice(0, 1);
+        mock.start();
+        harness = new LoadHarness(mock.getBaseUrl(), "json", true, 4);
+    }
+
+    @After
+    public void tearDown() {
+        harness.shutdown();
+        mock.stop();
+    }
+
+    @Test
+    public void measuresUploadsAgainstTheMock() throws Exception {
+        DependencyGraph graph = graph(200);
+
+        LoadHarness.Result result = harness.run("graph", "/analyze", 40, format -> StreamingRequestBody.ofGraph(format, graph));
+
+        assertEquals(40, result.uploads());
+        assertEquals(0, result.failed());
+        // The warm-up uploads reach the mock as well
+        assertTrue(mock.getRequestCount("/analyze") >= 40);
+        assertTrue(mock.getBytesReceived() > 0);
+        assertTrue(result.p99Millis() >= result.p50Millis());
+        // Encoding happens on the harness's workers, so their allocations are what is measured
+        assertTrue(result.bytesAllocatedPerUpload() > 0);
+    }
+
+    @Test
+    public void injectedFailuresAreCounted() throws Exception {
+        mock.setFailureRate(1.0);
+        DependencyGraph graph = graph(10);
+
+        LoadHarness.Result result = harness.run("graph", "/analyze", 5, format -> StreamingRequestBody.ofGraph(format, graph));
+
+        assertEquals(5, result.failed());
+        assertTrue(mock.getFailuresInjected() > 0);
+    }
+
+    private static DependencyGraph graph(int nodeCount) {
+        List<FileNode> nodes = new ArrayList<>();
+        Map<String, Set<String>> edges = new HashMap<>();
+        for (int i = 0; i < nodeCount; i++) {
+            FileNode node = new FileNode();
+            node.setFilePath("src/Type" + i + ".java");
+            node.setFileName("Type" + i + ".java");
+            node.setPackageName("com.example");
+            node.setClassName("Type" + i);
+            node.setImports(new HashSet<>());
+            node.setDependencies(new HashSet<>());
+            nodes.add(node);
+            if (i > 0) edges.put(node.getFilePath(), Set.of("src/Type" + (i - 1) + ".java"));
+        }
+
+        DependencyGraph graph = new DependencyGraph();
+        graph.setProjectName("load-harness-test");
+        graph.setNodes(nodes);
+        graph.setEdges(edges);
+        return graph;
+    }
+}
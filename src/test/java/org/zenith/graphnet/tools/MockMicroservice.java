@@ -0,0 +1,220 @@
+package org.zenith.graphnet.tools;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Stand-in for the GraphNet microservice, so uploads can be exercised without the real backend.
+ * Accepts the endpoints the plugin posts to, reads and discards the payloads, and answers with a
+ * small JSON document. Latency and failures can be injected; a failed request gets a 503.
+ * Run it on its own with {@code MockMicroservice [port] [latencyMs] [failureRate]} and point
+ * the plugin's microservice URL at it.
+ */
+public class MockMicroservice {
+
+    private static final String[] UPLOAD_ENDPOINTS = {
+            "/repository/perform-mr-metrics", "/analyze", "/analyze/delta", "/git-diff", "/dependency/push-dgraph"
+    };
+    private static final String ACCEPTED_FORMATS = "application/cbor, application/x-jackson-smile, application/json";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<String, AtomicLong> requestCounts = new ConcurrentHashMap<>();
+    private final AtomicLong bytesReceived = new AtomicLong();
+    private final AtomicLong failuresInjected = new AtomicLong();
+    private volatile long latencyMillis = 0;
+    private volatile long latencyJitterMillis = 0;
+    private volatile double failureRate = 0;
+    private final Random random;
+
+    public MockMicroservice(int port, long seed) throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        this.executor = Executors.newFixedThreadPool(16);
+        this.random = new Random(seed);
+        server.setExecutor(executor);
+
+        for (String endpoint : UPLOAD_ENDPOINTS) {
+            server.createContext(endpoint, exchange -> handleUpload(endpoint, exchange));
+        }
+        server.createContext("/health", this::handleHealth);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8000;
+        MockMicroservice mock = new MockMicroservice(port, System.nanoTime());
+        if (args.length > 1) mock.setLatency(Long.parseLong(args[1]), 0);
+        if (args.length > 2) mock.setFailureRate(Double.parseDouble(args[2]));
+        mock.start();
+        System.out.println("Mock microservice listening on " + mock.getBaseUrl());
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    /**
+     * Delay every response by the given time plus a uniformly random share of the jitter
+     */
+    public void setLatency(long latencyMillis, long latencyJitterMillis) {
+        this.latencyMillis = latencyMillis;
+        this.latencyJitterMillis = latencyJitterMillis;
+    }
+
+    /**
+     * Share of upload requests, between 0 and 1, answered with 503 Service Unavailable
+     */
+    public void setFailureRate(double failureRate) {
+        this.failureRate = failureRate;
+    }
+
+    public long getRequestCount(String endpoint) {
+        AtomicLong count = requestCounts.get(endpoint);
+        return count != null ? count.get() : 0;
+    }
+
+    /**
+     * Payload bytes received on the wire, before decompression
+     */
+    public long getBytesReceived() {
+        return bytesReceived.get();
+    }
+
+    public long getFailuresInjected() {
+        return failuresInjected.get();
+    }
+
+    private void handleUpload(String endpoint, HttpExchange exchange) throws IOException {
+        try (exchange) {
+            // Only exact matches, the contexts would otherwise take sub-paths as well
+            if (!exchange.getRequestURI().getPath().equals(endpoint)) {
+                respond(exchange, 404, "{\"error\":\"not found\"}");
+                return;
+            }
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                respond(exchange, 405, "{\"error\":\"method not allowed\"}");
+                return;
+            }
+
+            requestCounts.computeIfAbsent(endpoint, e -> new AtomicLong()).incrementAndGet();
+            long payloadBytes = drain(exchange);
+            simulateLatency();
+
+            if (shouldFail()) {
+                failuresInjected.incrementAndGet();
+                respond(exchange, 503, "{\"error\":\"injected failure\"}");
+                return;
+            }
+            exchange.getResponseHeaders().set("Accept-Post", ACCEPTED_FORMATS);
+            respond(exchange, 200, "{\"status\":\"ok\",\"bytes\":" + payloadBytes + "}");
+        }
+    }
+
+    private void handleHealth(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            requestCounts.computeIfAbsent("/health", e -> new AtomicLong()).incrementAndGet();
+            exchange.getResponseHeaders().set("Accept-Post", ACCEPTED_FORMATS);
+            respond(exchange, 200, "{\"status\":\"up\"}");
+        }
+    }
+
+    /**
+     * Read the whole request body, returning its decoded length
+     */
+    private long drain(HttpExchange exchange) throws IOException {
+        CountingInputStream wire = new CountingInputStream(exchange.getRequestBody());
+        boolean gzipped = "gzip".equalsIgnoreCase(exchange.getRequestHeaders().getFirst("Content-Encoding"));
+        long decoded = 0;
+        try (InputStream in = gzipped ? new GZIPInputStream(wire) : wire) {
+            byte[] buffer = new byte[16 * 1024];
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                decoded += read;
+            }
+        }
+        bytesReceived.addAndGet(wire.count);
+        return decoded;
+    }
+
+    private void simulateLatency() {
+        long delay = latencyMillis;
+        if (latencyJitterMillis > 0) {
+            synchronized (random) {
+                delay += (long) (random.nextDouble() * latencyJitterMillis);
+            }
+        }
+        if (delay <= 0) return;
+
+        try {
+            TimeUnit.MILLISECONDS.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean shouldFail() {
+        if (failureRate <= 0) return false;
+        synchronized (random) {
+            return random.nextDouble() < failureRate;
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static class CountingInputStream extends InputStream {
+        private final InputStream in;
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = in.read(buffer, offset, length);
+            if (read > 0) count += read;
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package org.zenith.graphnet.util;
+
+import org.junit.Test;
+import org.zenith.graphnet.model.FileNode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class FileSearchIndexTest {
+
+    private final FileSearchIndex index = FileSearchIndex.build(List.of(
+            node("src/OrderService.java", "com.shop.order", "OrderService"),
+            node("src/Order.java", "com.shop.order", "Order"),
+            node("src/OrderServiceTest.java", "com.shop.order", "OrderServiceTest"),
+            node("src/PlaceOrderHandler.java", "com.shop.checkout", "PlaceOrderHandler"),
+            node("src/UserService.java", "com.shop.user", "UserService"),
+            node("build.gradle", "", "")));
+
+    @Test
+    public void exactNamesComeBeforePrefixesAndContainedNames() {
+        List<String> names = names(index.search("order", 10));
+
+        assertEquals(List.of("Order", "OrderService", "OrderServiceTest", "PlaceOrderHandler"), names);
+    }
+
+    @Test
+    public void searchIgnoresCaseAndMatchesPackages() {
+        assertEquals(List.of("UserService"), names(index.search("SHOP.USER", 10)));
+        // Package-only matches, shortest names first
+        assertEquals(List.of("Order", "UserService", "OrderService", "OrderServiceTest", "PlaceOrderHandler"),
+                names(index.search("com.shop", 10)));
+    }
+
+    @Test
+    public void shortQueriesMatchNamePrefixes() {
+        assertEquals(List.of("Order", "OrderService", "OrderServiceTest"), names(index.search("or", 10)));
+        assertEquals(List.of("UserService"), names(index.search("u", 10)));
+    }
+
+    @Test
+    public void filesWithoutAClassAreFoundByFileName() {
+        List<FileSearchIndex.Match> matches = index.search("gradle", 10);
+
+        assertEquals(1, matches.size());
+        assertEquals("build.gradle", matches.get(0).filePath());
+    }
+
+    @Test
+    public void limitAndEmptyQueries() {
+        assertEquals(2, index.search("service", 2).size());
+        assertTrue(index.search("  ", 10).isEmpty());
+        assertTrue(index.search("nothing like this", 10).isEmpty());
+        assertTrue(FileSearchIndex.EMPTY.search("order", 10).isEmpty());
+    }
+
+    private static List<String> names(List<FileSearchIndex.Match> matches) {
+        List<String> names = new ArrayList<>();
+        for (FileSearchIndex.Match match : matches) names.add(match.className());
+        return names;
+    }
+
+    private static FileNode node(String path, String packageName, String className) {
+        FileNode node = new FileNode();
+        node.setFilePath(path);
+        node.setFileName(path.substring(path.lastIndexOf('/') + 1));
+        node.setPackageName(packageName);
+        node.setClassName(className);
+        return node;
+    }
+}
@@ -0,0 +1,127 @@
+package org.zenith.graphnet.util;
+
+import org.junit.Test;
+import org.zenith.graphnet.model.ChangedFile;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class GitDiffParserTest {
+
+    private static final String DIFF = String.join("\n",
+            "diff --git a/src/Order.java b/src/Order.java",
+            "index 1111111..2222222 100644",
+            "--- a/src/Order.java",
+            "+++ b/src/Order.java",
+            "@@ -10,3 +10,4 @@ public class Order {",
+            "     int id;",
+            "-    int total;",
+            "+    long total;",
+            "+    String currency;",
+            "@@ -40,2 +41,2 @@ public class Order {",
+            "-    return total;",
+            "+    return total / 100;",
+            "diff --git a/src/New.java b/src/New.java",
+            "new file mode 100644",
+            "--- /dev/null",
+            "+++ b/src/New.java",
+            "@@ -0,0 +1,2 @@",
+            "+class New {",
+            "+}",
+            "");
+
+    @Test
+    public void unlimitedBudgetKeepsEveryHunk() {
+        List<ChangedFile> files = GitDiffParser.parseGitDiff(DIFF);
+
+        assertEquals(2, files.size());
+        ChangedFile order = files.get(0);
+        assertEquals("src/Order.java", order.path);
+        assertEquals("modified", order.status);
+        assertEquals(3, order.additions);
+        assertEquals(2, order.deletions);
+        assertEquals(2, order.hunks.size());
+        assertEquals(11, order.hunks.get(0).changedFrom);
+        assertEquals(12, order.hunks.get(0).changedTo);
+        assertFalse(order.truncated);
+        assertTrue(order.diff.startsWith("@@ -10,3 +10,4 @@"));
+        assertFalse(order.diff.contains("index 1111111"));
+
+        assertEquals("added", files.get(1).status);
+    }
+
+    @Test
+    public void hunksBeyondThePerFileBudgetAreDroppedWhole() {
+        // Room for the first hunk of a file only
+        long firstHunk = 0;
+        for (String line : DIFF.substring(DIFF.indexOf("@@ -10"), DIFF.indexOf("@@ -40")).split("\n")) {
+            firstHunk += DiffBudget.utf8Length(line);
+        }
+
+        List<ChangedFile> files = GitDiffParser.parseGitDiff(DIFF, new DiffBudget(firstHunk, Long.MAX_VALUE));
+        ChangedFile order = files.get(0);
+
+        assertTrue(order.truncated);
+        assertEquals(1, order.omittedHunks);
+        assertEquals(DiffBudget.utf8Length("@@ -40,2 +41,2 @@ public class Order {")
+                + DiffBudget.utf8Length("-    return total;")
+                + DiffBudget.utf8Length("+    return total / 100;"), order.omittedBytes);
+        assertEquals(64, order.omittedDigest.length());
+        assertFalse(order.diff.contains("return total"));
+        // Line counts still cover the whole file
+        assertEquals(3, order.additions);
+        assertEquals(2, order.deletions);
+        assertFalse(files.get(1).truncated);
+    }
+
+    @Test
+    public void requestBudgetIsSharedBetweenFiles() {
+        long orderBytes = GitDiffParser.parseGitDiff(DIFF).get(0).diff.length();
+
+        List<ChangedFile> files = GitDiffParser.parseGitDiff(DIFF, new DiffBudget(Long.MAX_VALUE, orderBytes));
+
+        assertFalse(files.get(0).truncated);
+        assertTrue(files.get(1).truncated);
+        assertEquals("", files.get(1).diff);
+    }
+
+    @Test
+    public void omittedDigestIsStableForTheSameContent() {
+        DiffBudget first = new DiffBudget(0, Long.MAX_VALUE);
+        DiffBudget second = new DiffBudget(0, Long.MAX_VALUE);
+
+        assertEquals(GitDiffParser.parseGitDiff(DIFF, first).get(0).omittedDigest,
+                GitDiffParser.parseGitDiff(DIFF, second).get(0).omittedDigest);
+    }
+
+    @Test
+    public void utf8LengthCountsEncodedBytesAndTheTerminator() {
+        assertEquals(1, DiffBudget.utf8Length(""));
+        assertEquals(4, DiffBudget.utf8Length("abc"));
+        assertEquals(3, DiffBudget.utf8Length("\u00e9"));
+        assertEquals(4, DiffBudget.utf8Length("\u20ac"));
+        assertEquals(5, DiffBudget.utf8Length("\ud83d\ude00"));
+    }
+
+    @Test
+    public void summaryReadsStatusAndLineCounts() throws IOException {
+        String raw = ":100644 100644 aaa bbb M\0src/Order.java\0"
+                + ":100644 100644 ccc ddd R100\0src/Old.java\0src/Renamed.java\0"
+                + ":000000 100644 000 eee A\0img/logo.png\0"
+                + "3\t2\tsrc/Order.java\0"
+                + "0\t0\t\0src/Old.java\0src/Renamed.java\0"
+                + "-\t-\timg/logo.png\0";
+
+        List<ChangedFile> files = GitDiffParser.parseSummary(new StringReader(raw));
+
+        assertEquals(3, files.size());
+        assertEquals(5, files.get(0).linesChanged);
+        assertEquals("renamed", files.get(1).status);
+        assertEquals("src/Renamed.java", files.get(1).path);
+        assertEquals("added", files.get(2).status);
+        assertEquals(0, files.get(2).linesChanged);
+    }
+}
@@ -0,0 +1,141 @@
+package org.zenith.graphnet.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+import org.zenith.graphnet.model.DependencyGraph;
+import org.zenith.graphnet.model.FileNode;
+import org.zenith.graphnet.model.GraphDelta;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class GraphDeltaTrackerTest {
+
+    @Test
+    public void firstSyncIsAFullSnapshot() {
+        GraphDeltaTracker tracker = new GraphDeltaTracker();
+
+        GraphDeltaTracker.PendingSync sync = tracker.prepare(graph(Map.of("A.java", Set.of("B.java")), "A.java", "B.java"), false);
+
+        assertTrue(sync.isFullSnapshot());
+        assertEquals(1, sync.version());
+        assertEquals(0, tracker.getAcknowledgedVersion());
+    }
+
+    @Test
+    public void deltaContainsOnlyWhatChangedSinceTheAcknowledgedVersion() {
+        GraphDeltaTracker tracker = new GraphDeltaTracker();
+        tracker.acknowledge(tracker.prepare(graph(Map.of("A.java", Set.of("B.java")), "A.java", "B.java", "C.java"), false));
+
+        DependencyGraph next = graph(Map.of("A.java", Set.of("D.java")), "A.java", "B.java", "D.java");
+        next.getNodes().get(1).setLineCount(99);
+        GraphDeltaTracker.PendingSync sync = tracker.prepare(next, false);
+        GraphDelta delta = sync.delta();
+
+        assertFalse(sync.isFullSnapshot());
+        assertEquals(1, delta.getBaseVersion());
+        assertEquals(2, delta.getVersion());
+        assertEquals(Set.of("A.java", "B.java", "D.java"), paths(delta.getUpsertedNodes()));
+        assertEquals(List.of("C.java"), delta.getRemovedNodes());
+        assertEquals(Map.of("A.java", Set.of("D.java")), delta.getAddedEdges());
+        assertEquals(Map.of("A.java", Set.of("B.java")), delta.getRemovedEdges());
+    }
+
+    @Test
+    public void unchangedGraphGivesAnEmptyDelta() {
+        GraphDeltaTracker tracker = new GraphDeltaTracker();
+        tracker.acknowledge(tracker.prepare(graph(Map.of("A.java", Set.of("B.java")), "A.java", "B.java"), false));
+
+        GraphDelta delta = tracker.prepare(graph(Map.of("A.java", Set.of("B.java")), "A.java", "B.java"), false).delta();
+
+        assertTrue(delta.isEmpty());
+    }
+
+    @Test
+    public void emptinessIsNotSerialized() throws Exception {
+        GraphDeltaTracker tracker = new GraphDeltaTracker();
+        tracker.acknowledge(tracker.prepare(graph(Map.of(), "A.java"), false));
+
+        GraphDelta delta = tracker.prepare(graph(Map.of(), "A.java"), false).delta();
+
+        assertFalse(new ObjectMapper().writeValueAsString(delta).contains("\"empty\""));
+    }
+
+    @Test
+    public void staleAcknowledgementDoesNotRollBack() {
+        GraphDeltaTracker tracker = new GraphDeltaTracker();
+        GraphDeltaTracker.PendingSync first = tracker.prepare(graph(Map.of(), "A.java"), false);
+        tracker.acknowledge(first);
+        tracker.acknowledge(tracker.prepare(graph(Map.of(), "A.java", "B.java"), false));
+
+        tracker.acknowledge(first);
+
+        assertEquals(2, tracker.getAcknowledgedVersion());
+        assertTrue(tracker.prepare(graph(Map.of(), "A.java", "B.java"), false).delta().isEmpty());
+    }
+
+    @Test
+    public void resetForcesAFullSnapshot() {
+        GraphDeltaTracker tracker = new GraphDeltaTracker();
+        tracker.acknowledge(tracker.prepare(graph(Map.of(), "A.java"), false));
+
+        tracker.reset();
+
+        assertEquals(0, tracker.getAcknowledgedVersion());
+        assertTrue(tracker.prepare(graph(Map.of(), "A.java"), false).isFullSnapshot());
+    }
+
+    @Test
+    public void resetStartsANewSessionWithItsOwnVersions() {
+        GraphDeltaTracker tracker = new GraphDeltaTracker();
+        GraphDeltaTracker.PendingSync before = tracker.prepare(graph(Map.of(), "A.java"), false);
+
+        tracker.reset();
+        GraphDeltaTracker.PendingSync after = tracker.prepare(graph(Map.of(), "B.java"), false);
+
+        assertEquals(before.version(), after.version());
+        assertNotEquals(before.session(), after.session());
+        // Acknowledging a sync from before the reset does not count for the new session
+        tracker.acknowledge(before);
+        assertEquals(0, tracker.getAcknowledgedVersion());
+    }
+
+    @Test
+    public void fullSnapshotCanBeRequested() {
+        GraphDeltaTracker tracker = new GraphDeltaTracker();
+        tracker.acknowledge(tracker.prepare(graph(Map.of(), "A.java"), false));
+
+        GraphDeltaTracker.PendingSync sync = tracker.prepare(graph(Map.of(), "A.java"), true);
+
+        assertTrue(sync.isFullSnapshot());
+        assertEquals(2, sync.version());
+    }
+
+    private static DependencyGraph graph(Map<String, Set<String>> edges, String... paths) {
+        List<FileNode> nodes = new ArrayList<>();
+        for (String path : paths) {
+            FileNode node = new FileNode();
+            node.setFilePath(path);
+            node.setFileName(path);
+            node.setPackageName("com.example");
+            node.setClassName(path.replace(".java", ""));
+            node.setLineCount(10);
+            node.setImports(new HashSet<>());
+            node.setDependencies(new HashSet<>(edges.getOrDefault(path, Set.of())));
+            nodes.add(node);
+        }
+
+        DependencyGraph graph = new DependencyGraph();
+        graph.setProjectName("test");
+        graph.setNodes(nodes);
+        graph.setEdges(new HashMap<>(edges));
+        return graph;
+    }
+
+    private static Set<String> paths(List<FileNode> nodes) {
+        Set<String> paths = new HashSet<>();
+        for (FileNode node : nodes) paths.add(node.getFilePath());
+        return paths;
+    }
+}
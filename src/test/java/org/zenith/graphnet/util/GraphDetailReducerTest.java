@@ -0,0 +1,158 @@
+package org.zenith.graphnet.util;
+
+import org.junit.Test;
+import org.zenith.graphnet.model.DependencyGraph;
+import org.zenith.graphnet.model.FileNode;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class GraphDetailReducerTest {
+
+    @Test
+    public void graphWithinBudgetKeepsEveryNodeAndEdge() {
+        DependencyGraph graph = new GraphBuilder()
+                .node("a/A.java", "com.a").node("a/B.java", "com.a").node("b/C.java", "com.b")
+                .edge("a/A.java", "a/B.java").edge("a/B.java", "b/C.java").edge("a/A.java", "b/C.java")
+                .build();
+
+        DependencyGraph reduced = new GraphDetailReducer(10, GraphDetailReducer.Clustering.PACKAGE, 2, false).reduce(graph, List.of());
+
+        assertEquals(paths(graph), paths(reduced));
+        assertEquals(Set.of("a/B.java", "b/C.java"), reduced.getEdges().get("a/A.java"));
+    }
+
+    @Test
+    public void filesAreCollapsedByPackageUntilTheBudgetHolds() {
+        GraphBuilder builder = new GraphBuilder();
+        for (int module = 0; module < 10; module++) {
+            for (int i = 0; i < 20; i++) {
+                builder.node("m" + module + "/T" + i + ".java", "com.example.m" + module);
+            }
+        }
+        DependencyGraph graph = builder.edge("m0/T0.java", "m1/T0.java").build();
+
+        DependencyGraph reduced = new GraphDetailReducer(20, GraphDetailReducer.Clustering.PACKAGE, 0, false).reduce(graph, List.of());
+
+        assertTrue(reduced.getNodes().size() <= 20);
+        for (FileNode node : reduced.getNodes()) {
+            assertTrue(node.getFilePath().startsWith(GraphDetailReducer.CLUSTER_PREFIX));
+            assertEquals(20, node.getLineCount());
+        }
+        assertEquals(Set.of(GraphDetailReducer.CLUSTER_PREFIX + "pkg:com.example.m1"),
+                reduced.getEdges().get(GraphDetailReducer.CLUSTER_PREFIX + "pkg:com.example.m0"));
+    }
+
+    @Test
+    public void focusFilesStayExpanded() {
+        GraphBuilder builder = new GraphBuilder();
+        for (int i = 0; i < 50; i++) {
+            builder.node("p/T" + i + ".java", "com.example.p");
+        }
+        DependencyGraph graph = builder.edge("p/T0.java", "p/T1.java").edge("p/T2.java", "p/T0.java").build();
+
+        DependencyGraph reduced = new GraphDetailReducer(10, GraphDetailReducer.Clustering.PACKAGE, 1, false)
+                .reduce(graph, List.of("p/T0.java"));
+
+        Set<String> paths = paths(reduced);
+        assertTrue(paths.containsAll(Set.of("p/T0.java", "p/T1.java", "p/T2.java")));
+        assertTrue(reduced.getNodes().size() <= 10);
+    }
+
+    @Test
+    public void focusNeighborhoodIsCappedAtHalfTheBudgetNearestFirst() {
+        GraphBuilder builder = new GraphBuilder().node("hub/Hub.java", "com.hub").node("near/Near.java", "com.near");
+        builder.edge("near/Near.java", "hub/Hub.java");
+        for (int i = 0; i < 100; i++) {
+            builder.node("far/F" + i + ".java", "com.far" + i).edge("far/F" + i + ".java", "near/Near.java");
+        }
+
+        DependencyGraph reduced = new GraphDetailReducer(10, GraphDetailReducer.Clustering.PACKAGE, 2, false)
+                .reduce(builder.build(), List.of("hub/Hub.java"));
+
+        Set<String> files = new HashSet<>();
+        for (String path : paths(reduced)) {
+            if (!path.startsWith(GraphDetailReducer.CLUSTER_PREFIX)) files.add(path);
+        }
+        assertEquals(5, files.size());
+        assertTrue(files.containsAll(Set.of("hub/Hub.java", "near/Near.java")));
+        assertTrue(reduced.getNodes().size() <= 10);
+    }
+
+    @Test
+    public void cyclesAreCollapsedInSccMode() {
+        GraphBuilder builder = new GraphBuilder()
+                .node("a/A.java", "com.a").node("b/B.java", "com.b").node("c/C.java", "com.c")
+                .edge("a/A.java", "b/B.java").edge("b/B.java", "c/C.java").edge("c/C.java", "a/A.java");
+        for (int i = 0; i < 3; i++) {
+            builder.node("d/D" + i + ".java", "com.d" + i);
+        }
+
+        DependencyGraph reduced = new GraphDetailReducer(4, GraphDetailReducer.Clustering.SCC, 0, false).reduce(builder.build(), List.of());
+
+        Set<String> paths = paths(reduced);
+        assertEquals(4, paths.size());
+        assertTrue(paths.contains(GraphDetailReducer.CLUSTER_PREFIX + "scc0"));
+        assertFalse(paths.contains("a/A.java"));
+    }
+
+    @Test
+    public void edgesImpliedByLongerPathsArePruned() {
+        DependencyGraph graph = new GraphBuilder()
+                .node("A.java", "").node("B.java", "").node("C.java", "")
+                .edge("A.java", "B.java").edge("B.java", "C.java").edge("A.java", "C.java")
+                .build();
+
+        DependencyGraph reduced = new GraphDetailReducer(10, GraphDetailReducer.Clustering.PACKAGE, 0, true).reduce(graph, List.of());
+
+        assertEquals(Set.of("B.java"), reduced.getEdges().get("A.java"));
+        assertEquals(Set.of("C.java"), reduced.getEdges().get("B.java"));
+    }
+
+    @Test
+    public void nothingIsPrunedWithoutABudget() {
+        DependencyGraph graph = new GraphBuilder()
+                .node("A.java", "").node("B.java", "").node("C.java", "")
+                .edge("A.java", "B.java").edge("B.java", "C.java").edge("A.java", "C.java")
+                .build();
+
+        DependencyGraph reduced = new GraphDetailReducer(0, GraphDetailReducer.Clustering.PACKAGE, 0, true).reduce(graph, List.of());
+
+        assertEquals(Set.of("B.java", "C.java"), reduced.getEdges().get("A.java"));
+    }
+
+    private static Set<String> paths(DependencyGraph graph) {
+        Set<String> paths = new HashSet<>();
+        for (FileNode node : graph.getNodes()) paths.add(node.getFilePath());
+        return paths;
+    }
+
+    private static class GraphBuilder {
+        private final List<FileNode> nodes = new ArrayList<>();
+        private final Map<String, Set<String>> edges = new HashMap<>();
+
+        GraphBuilder node(String path, String packageName) {
+            FileNode node = new FileNode();
+            node.setFilePath(path);
+            node.setFileName(path.substring(path.lastIndexOf('/') + 1));
+            node.setPackageName(packageName);
+            node.setLineCount(1);
+            nodes.add(node);
+            return this;
+        }
+
+        GraphBuilder edge(String from, String to) {
+            edges.computeIfAbsent(from, f -> new LinkedHashSet<>()).add(to);
+            return this;
+        }
+
+        DependencyGraph build() {
+            DependencyGraph graph = new DependencyGraph();
+            graph.setProjectName("test");
+            graph.setNodes(nodes);
+            graph.setEdges(edges);
+            return graph;
+        }
+    }
+}
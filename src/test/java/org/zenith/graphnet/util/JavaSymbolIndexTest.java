@@ -0,0 +1,64 @@
+package org.zenith.graphnet.util;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class JavaSymbolIndexTest {
+
+    private static final String SOURCE = String.join("\n",
+            "package com.shop;",
+            "",
+            "public class Order {",
+            "    private int total;",
+            "    public static final String CURRENCY = \"EUR\";",
+            "",
+            "    public int total() {",
+            "        return round(total);",
+            "    }",
+            "",
+            "    private int round(int value) {",
+            "        // calls helper.ignored() only in a comment",
+            "        String text = \"literal.call()\";",
+            "        return Math.round(value) + Pricing.TAX;",
+            "    }",
+            "",
+            "    public void forEach(List<String> items) {",
+            "        items.forEach(System.out::println);",
+            "    }",
+            "}",
+            "");
+
+    private final JavaSymbolIndex index = JavaSymbolIndex.build(SOURCE);
+
+    @Test
+    public void linesMapToTheInnermostDeclaration() {
+        assertEquals(Set.of("Order#total"), index.symbolsForLines(8, 8));
+        assertEquals(Set.of("Order#round"), index.symbolsForLines(14, 14));
+        // Blank lines change nothing
+        assertTrue(index.symbolsForLines(6, 6).isEmpty());
+    }
+
+    @Test
+    public void privateMembersAreRecorded() {
+        assertTrue(index.isPrivateMember("Order#round"));
+        assertTrue(index.isPrivateMember("Order#total"));
+        assertFalse(index.isPrivateMember("Order#CURRENCY"));
+        assertFalse(index.isPrivateMember("Order#forEach"));
+    }
+
+    @Test
+    public void qualifiedAndCalledNamesAreMemberReferences() {
+        assertTrue(index.referencesAnyMember(List.of("round")));
+        assertTrue(index.referencesAnyMember(List.of("TAX")));
+        assertTrue(index.referencesAnyMember(List.of("println")));
+        assertTrue(index.referencesAnyMember(List.of("missing", "forEach")));
+        // Plain identifiers, comments and string literals are not
+        assertFalse(index.referencesAnyMember(List.of("value")));
+        assertFalse(index.referencesAnyMember(List.of("ignored")));
+        assertFalse(index.referencesAnyMember(List.of("call")));
+    }
+}